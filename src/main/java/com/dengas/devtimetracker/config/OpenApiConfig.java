@@ -1,9 +1,13 @@
 package com.dengas.devtimetracker.config;
 
+import com.dengas.devtimetracker.web.IdempotencyFilter;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springdoc.core.customizers.OpenApiCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,7 +22,9 @@ public class OpenApiConfig {
                 .info(new Info()
                         .title("DevTimeTracker API")
                         .version("1.0")
-                        .description("Документація до DevTimeTracker API")
+                        .description("Документація до DevTimeTracker API. Окрім JSON, ендпоінти приймають і повертають " +
+                                "бінарний Smile (" + SmileConfig.APPLICATION_SMILE_VALUE + ") через Content-Type / Accept; " +
+                                "тіла запитів можна стискати gzip (Content-Encoding: gzip).")
                 )
                 .addSecurityItem(new SecurityRequirement().addList(securitySchemeName))
                 .components(new io.swagger.v3.oas.models.Components()
@@ -31,4 +37,19 @@ public class OpenApiConfig {
                         )
                 );
     }
+
+    // Заголовок Idempotency-Key документується рівно для тих операцій, які обробляє IdempotencyFilter
+    @Bean
+    public OpenApiCustomizer idempotencyKeyCustomizer() {
+        return openApi -> openApi.getPaths().forEach((path, item) -> item.readOperationsMap().forEach((method, operation) -> {
+            if (IdempotencyFilter.appliesTo(method.name(), path)) {
+                operation.addParametersItem(new HeaderParameter()
+                        .name(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER)
+                        .description("Optional client-generated key. Retries with the same key and body return the stored response " +
+                                "(marked with Idempotent-Replayed: true) instead of writing again")
+                        .example("7c9e6679-7425-40de-944b-e07fc1f90ae7")
+                        .schema(new StringSchema()));
+            }
+        }));
+    }
 }
@@ -0,0 +1,38 @@
+package com.dengas.devtimetracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Бінарне кодування Smile для трафіку IDE-плагінів.
+ * <p>
+ * Клієнт обирає формат через Content-Type / Accept: application/x-jackson-smile. Моделі ті самі, що й у JSON,
+ * бо ObjectMapper будується тим самим Jackson2ObjectMapperBuilder зі всіма модулями Spring Boot;
+ * JSON лишається форматом за замовчуванням.
+ */
+@Configuration
+public class SmileConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    // Конвертер того ж класу, що й стандартний Spring MVC, тож HttpMessageConverters підміняє його на тому ж місці після JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper(builder));
+    }
+
+    public static ObjectMapper smileObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        // Імена полів (codingTime, openTime, дати-ключі) кешуються за замовчуванням; повтори значень на кшталт типу файлу теж
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return builder.createXmlMapper(false).factory(factory).build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.dengas.devtimetracker.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "stats")
+public class StatsProperties {
+    private WriteBuffer writeBuffer = new WriteBuffer();
+    private Badge badge = new Badge();
+    private Pagination pagination = new Pagination();
+    private Storage storage = new Storage();
+    private Analytics analytics = new Analytics();
+    private Concurrency concurrency = new Concurrency();
+    private Idempotency idempotency = new Idempotency();
+    private BulkImport bulkImport = new BulkImport();
+    private Compression compression = new Compression();
+    private Streaming streaming = new Streaming();
+    private ProjectLookup projectLookup = new ProjectLookup();
+    private Rollup rollup = new Rollup();
+    private TopFiles topFiles = new TopFiles();
+
+    public enum StorageMode {
+        ROWS,    // рядок *_daily_stats на кожен день
+        PACKED   // один упакований ряд daily_series на файл/проєкт
+    }
+
+    public enum IdempotencyStoreType {
+        MEMORY,  // локально для інстансу
+        JDBC     // таблиця idempotency_keys, спільна для всіх інстансів
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBuffer {
+        private boolean enabled = false;
+        private Duration flushInterval = Duration.ofSeconds(5);  // як часто буфер скидається в БД
+        private int maxSize = 10_000;                            // кількість ключів, після якої скидання запускається одразу, а нові запити чекають на нього
+        private int maxFlushAttempts = 5;                        // невдалі спроби скидання, після яких прирости проєкту відкидаються
+    }
+
+    @Getter
+    @Setter
+    public static class Badge {
+        private int cacheSize = 10_000;                  // максимальна кількість проєктів з бейджами в кеші
+        private int colorsPerProject = 8;                // захист від необмеженої кількості варіантів ?color=
+        private Duration maxAge = Duration.ofMinutes(5); // Cache-Control max-age для camo-проксі та браузерів
+        private Duration ttl = Duration.ofMinutes(5);    // межа застарілості кешу, якщо записи йдуть через інший інстанс
+    }
+
+    @Getter
+    @Setter
+    public static class Pagination {
+        private int defaultSize = 100;
+        private int maxSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Storage {
+        private StorageMode mode = StorageMode.ROWS;
+
+        public boolean isPacked() {
+            return mode == StorageMode.PACKED;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Analytics {
+        private boolean enabled = false; // opt-in in-memory індекс рядів; лише для одного інстансу
+        private int maxLastDays = 3660;  // верхня межа параметра lastDays
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private int lockStripes = 256;                        // кількість локів, між якими розподіляються проєкти
+        private int maxAttempts = 5;                          // спроби інкрементного запису при конфлікті версій
+        private Duration retryBackoff = Duration.ofMillis(20); // верхня межа випадкової затримки, множиться на номер спроби
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        private boolean enabled = true;
+        private IdempotencyStoreType store = IdempotencyStoreType.MEMORY;
+        private Duration ttl = Duration.ofHours(24);             // скільки ключ захищає від повтору
+        private int maxEntries = 10_000;                         // межа in-memory сховища, найстаріші ключі витісняються
+        private Duration purgeInterval = Duration.ofMinutes(10); // як часто jdbc-сховище видаляє прострочені ключі
+    }
+
+    @Getter
+    @Setter
+    public static class BulkImport {
+        private int batchSize = 500;  // записів на транзакцію; разом з кешем шляхів визначає пам'ять імпорту
+    }
+
+    @Getter
+    @Setter
+    public static class Compression {
+        private boolean requestGzipEnabled = true;
+        private DataSize maxInflatedSize = DataSize.ofMegabytes(256);  // захист від zip-бомб; імпорт NDJSON теж рахується
+    }
+
+    @Getter
+    @Setter
+    public static class Streaming {
+        private int fetchSize = 1000;  // рядків курсора в пам'яті за раз; не залежить від розміру відповіді
+    }
+
+    @Getter
+    @Setter
+    public static class ProjectLookup {
+        private int cacheSize = 10_000;  // максимальна кількість користувачів зі шляхами в кеші
+        private int pathsPerUser = 256;  // шляхи понад ліміт шукаються в БД, але не кешуються
+        private Duration ttl = Duration.ofMinutes(5); // межа застарілості кешу, якщо записи йдуть через інший інстанс
+    }
+
+    @Getter
+    @Setter
+    public static class Rollup {
+        private String verifyCron = "0 0 4 * * *";  // звірка user_daily_rollup з робочими таблицями; "-" вимикає
+        private boolean repair = false;             // чи виправляти знайдені розбіжності під час планової звірки
+    }
+
+    @Getter
+    @Setter
+    public static class TopFiles {
+        private int defaultLimit = 20;
+        private int maxLimit = 100;  // розмір купи при відборі з упакованих рядів
+    }
+}
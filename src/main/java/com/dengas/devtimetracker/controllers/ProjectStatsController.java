@@ -1,9 +1,28 @@
 package com.dengas.devtimetracker.controllers;
 
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.AnalyticsSummary;
+import com.dengas.devtimetracker.dto.Badge;
+import com.dengas.devtimetracker.dto.BulkLoadResult;
+import com.dengas.devtimetracker.dto.CursorPage;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.DeviceCountersRequest;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.HeartbeatResult;
+import com.dengas.devtimetracker.dto.ImportProgress;
+import com.dengas.devtimetracker.dto.ImportRecord;
+import com.dengas.devtimetracker.dto.ProjectReference;
 import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.dto.RollupVerificationResult;
+import com.dengas.devtimetracker.dto.TopFile;
 import com.dengas.devtimetracker.model.ProjectStats;
 import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.repositories.projections.FileSummary;
+import com.dengas.devtimetracker.repositories.projections.LanguageTotals;
+import com.dengas.devtimetracker.repositories.projections.ProjectSummary;
 import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.StatsStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,7 +31,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +44,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -30,9 +57,15 @@ import java.util.Map;
 public class ProjectStatsController {
 
     private final ProjectStatsService projectStatsService;
+    private final StatsProperties statsProperties;
+    private final ObjectMapper objectMapper;
 
-    public ProjectStatsController(ProjectStatsService projectStatsService) {
+    public ProjectStatsController(ProjectStatsService projectStatsService,
+                                  StatsProperties statsProperties,
+                                  ObjectMapper objectMapper) {
         this.projectStatsService = projectStatsService;
+        this.statsProperties = statsProperties;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
@@ -137,8 +170,12 @@ public class ProjectStatsController {
     public ResponseEntity<ResponseWrapper<ProjectStats>> getProjectStats(
             @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable String projectId,
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
             @AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(projectStatsService.getProjectStats(projectId, jwt));
+        return ResponseEntity.ok(projectStatsService.getProjectStats(projectId, DateRange.of(from, to), jwt));
     }
 
     @Operation(
@@ -208,8 +245,24 @@ public class ProjectStatsController {
     )
     @GetMapping("/projects")
     @PreAuthorize("hasRole('client_user')")
-    public ResponseEntity<ResponseWrapper<List<ProjectStats>>> getAllProjectStats(@AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(projectStatsService.getAllProjectStats(jwt));
+    public ResponseEntity<ResponseWrapper<List<ProjectStats>>> getAllProjectStats(
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Stream the response from a database cursor instead of building it in memory. " +
+                    "Recommended for admins and large accounts; user objects then carry only their own fields", example = "true")
+            @RequestParam(defaultValue = "false") boolean stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletResponse response) throws IOException {
+        DateRange range = DateRange.of(from, to);
+        if (stream) {
+            MediaType mediaType = StatsStreamWriter.negotiate(accept);
+            writeStream(projectStatsService.streamAllProjectStats(range, mediaType, jwt), mediaType, response);
+            return null;
+        }
+        return ResponseEntity.ok(projectStatsService.getAllProjectStats(range, jwt));
     }
 
     @Operation(
@@ -354,14 +407,17 @@ public class ProjectStatsController {
             )
             @RequestBody ProjectStats stats,
             @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<ProjectStats> response = projectStatsService.createProject(stats, jwt);
         return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(projectStatsService.createProject(stats, jwt));
+                .status(response.isSuccess() ? HttpStatus.CREATED.value() : response.getStatus())
+                .body(response);
     }
 
     @Operation(
             summary = "Update project statistics",
-            description = "Updates an existing project's statistics with new data, replacing all fields.",
+            description = "Updates an existing project's statistics with new data, replacing all fields. " +
+                    "Files are matched by path: unchanged files are kept as is, changed ones are updated, new ones are inserted " +
+                    "and files missing from the request are deleted.",
             security = @SecurityRequirement(name = "bearerAuth"),
             responses = {
                     @ApiResponse(
@@ -465,6 +521,14 @@ public class ProjectStatsController {
                                             """
                                     )
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Project was modified concurrently by another instance",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
                     )
             }
     )
@@ -505,12 +569,14 @@ public class ProjectStatsController {
             )
             @RequestBody ProjectStats stats,
             @AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(projectStatsService.updateProjectStats(projectId, stats, jwt));
+        ResponseWrapper<ProjectStats> response = projectStatsService.updateProjectStats(projectId, stats, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @Operation(
             summary = "Partially update project",
-            description = "Updates specific fields of a project without affecting others.",
+            description = "Updates specific fields of a project without affecting others. " +
+                    "Files in the request are matched by path and inserted or updated; files not listed are kept.",
             security = @SecurityRequirement(name = "bearerAuth"),
             responses = {
                     @ApiResponse(
@@ -614,6 +680,14 @@ public class ProjectStatsController {
                                             """
                                     )
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Project was modified concurrently by another instance",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
                     )
             }
     )
@@ -640,17 +714,19 @@ public class ProjectStatsController {
             )
             @RequestBody ProjectStats stats,
             @AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(projectStatsService.patchProjectStats(projectId, stats, jwt));
+        ResponseWrapper<ProjectStats> response = projectStatsService.patchProjectStats(projectId, stats, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @Operation(
-            summary = "Delete a project",
-            description = "Deletes a project and all associated statistics for the authenticated user.",
+            summary = "Record heartbeats for a project",
+            description = "Adds coding/open time deltas accumulated since the last sync to the existing file and project statistics. " +
+                    "Only the files and dates present in the request are written; unknown files are created and require a type.",
             security = @SecurityRequirement(name = "bearerAuth"),
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "Project deleted successfully",
+                            description = "Heartbeats applied successfully",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
@@ -659,8 +735,12 @@ public class ProjectStatsController {
                                             value = """
                                             {
                                               "success": true,
-                                              "data": "Project deleted successfully",
-                                              "error": null,
+                                              "data": {
+                                                "projectId": "123e4567-e89b-12d3-a456-426614174000",
+                                                "accepted": 2,
+                                                "totalCodingTime": 3630,
+                                                "totalOpenTime": 7260
+                                              },
                                               "timestamp": "2025-05-31T16:14:00.123456789",
                                               "status": 200
                                             }
@@ -669,23 +749,22 @@ public class ProjectStatsController {
                             )
                     ),
                     @ApiResponse(
-                            responseCode = "403",
-                            description = "Unauthorized access to the project",
+                            responseCode = "400",
+                            description = "Invalid heartbeat data",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
                                     examples = @ExampleObject(
-                                            name = "UnauthorizedResponse",
+                                            name = "BadRequestResponse",
                                             value = """
                                             {
                                               "success": false,
-                                              "data": null,
                                               "error": {
-                                                "message": "You do not have access to this project",
-                                                "code": "UNAUTHORIZED"
+                                                "message": "File type is required for new file: /users/username/projects/my-project/src/Main.java",
+                                                "code": "VALIDATION_ERROR"
                                               },
                                               "timestamp": "2025-05-31T16:14:00.123456789",
-                                              "status": 403
+                                              "status": 400
                                             }
                                             """
                                     )
@@ -694,68 +773,234 @@ public class ProjectStatsController {
                     @ApiResponse(
                             responseCode = "404",
                             description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Write-behind buffer is full; retry later",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @PostMapping("/projects/{projectId}/heartbeats")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<HeartbeatResult>> recordHeartbeats(
+            @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String projectId,
+            @Valid
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Time deltas since the last sync",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = HeartbeatRequest.class),
+                            examples = @ExampleObject(
+                                    name = "HeartbeatRequest",
+                                    value = """
+                                    {
+                                      "heartbeats": [
+                                        {
+                                          "filePath": "/users/username/projects/my-project/src/main/java/App.java",
+                                          "date": "2025-05-30",
+                                          "codingDelta": 30,
+                                          "openDelta": 60
+                                        },
+                                        {
+                                          "filePath": "/users/username/projects/my-project/src/main/java/Main.java",
+                                          "type": "JAVA",
+                                          "date": "2025-05-30",
+                                          "codingDelta": 0,
+                                          "openDelta": 60
+                                        }
+                                      ]
+                                    }
+                                    """
+                            )
+                    )
+            )
+            @RequestBody HeartbeatRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<HeartbeatResult> response = projectStatsService.recordHeartbeats(projectId, request, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Sync device counters for a project",
+            description = "Merges the cumulative coding/open time a single device has recorded per file and date. " +
+                    "Each device's contribution to a cell is kept as the maximum value it has reported, and project and file " +
+                    "statistics hold the sum over devices, so syncs may be retried, reordered or handled by any instance " +
+                    "without double counting. Unknown files are created and require a type.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Device counters merged successfully",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
                                     examples = @ExampleObject(
-                                            name = "NotFoundResponse",
+                                            name = "SuccessResponse",
                                             value = """
                                             {
-                                              "success": false,
-                                              "data": null,
-                                              "error": {
-                                                "message": "Project not found with ID: 123e4567-e89b-12d3-a456-426614174000",
-                                                "code": "NOT_FOUND"
+                                              "success": true,
+                                              "data": {
+                                                "projectId": "123e4567-e89b-12d3-a456-426614174000",
+                                                "accepted": 1,
+                                                "totalCodingTime": 3630,
+                                                "totalOpenTime": 7260
                                               },
                                               "timestamp": "2025-05-31T16:14:00.123456789",
-                                              "status": 404
+                                              "status": 200
                                             }
                                             """
                                     )
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid device counters",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
                     )
             }
     )
-    @DeleteMapping("/projects/{projectId}")
+    @PostMapping("/projects/{projectId}/device-counters")
     @PreAuthorize("hasRole('client_user')")
-    public ResponseEntity<ResponseWrapper<String>> deleteProject(
+    public ResponseEntity<ResponseWrapper<HeartbeatResult>> syncDeviceCounters(
             @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable String projectId,
+            @Valid
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Cumulative time recorded by one device",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = DeviceCountersRequest.class),
+                            examples = @ExampleObject(
+                                    name = "DeviceCountersRequest",
+                                    value = """
+                                    {
+                                      "deviceId": "laptop-7f3a",
+                                      "counters": [
+                                        {
+                                          "filePath": "/users/username/projects/my-project/src/main/java/App.java",
+                                          "date": "2025-05-30",
+                                          "codingTime": 630,
+                                          "openTime": 1260
+                                        }
+                                      ]
+                                    }
+                                    """
+                            )
+                    )
+            )
+            @RequestBody DeviceCountersRequest request,
             @AuthenticationPrincipal Jwt jwt) {
-        ResponseWrapper<String> response = projectStatsService.deleteProject(projectId, jwt);
+        ResponseWrapper<HeartbeatResult> response = projectStatsService.syncDeviceCounters(projectId, request, jwt);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @Operation(
-            summary = "Get project files",
-            description = "Retrieves statistics for all files in a specific project.",
+            summary = "Import statistics history",
+            description = "Streams newline-delimited JSON (one file of one project per line) into the authenticated user's projects. " +
+                    "Projects are matched by projectPath and created when missing; files are matched by filePath. Daily values in a " +
+                    "record replace the stored ones, so re-running an import does not double count. Records are validated like files " +
+                    "in POST /projects and written in fixed-size batches. The response is NDJSON as well: an \"error\" line per " +
+                    "rejected record, a \"progress\" line after each batch and a final \"summary\" line.",
             security = @SecurityRequirement(name = "bearerAuth"),
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "Project files retrieved successfully",
+                            description = "Import processed; see the streamed events for per-record results",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = ImportProgress.class),
+                                    examples = @ExampleObject(
+                                            name = "ImportEvents",
+                                            value = """
+                                            {"type":"error","line":2,"message":"File type is required"}
+                                            {"type":"progress","records":500,"imported":499,"failed":1,"projectsCreated":2}
+                                            {"type":"summary","records":730,"imported":729,"failed":1,"projectsCreated":3}
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('client_user')")
+    public void importStats(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "One record per line",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = ImportRecord.class),
+                            examples = @ExampleObject(
+                                    name = "ImportRecords",
+                                    value = """
+                                    {"projectPath":"/users/username/projects/my-project","filePath":"/users/username/projects/my-project/src/App.java","type":"JAVA","dailyStats":{"2024-01-15":{"codingTime":1800,"openTime":3600}}}
+                                    {"projectPath":"/users/username/projects/my-project","filePath":"/users/username/projects/my-project/README.md","type":"MARKDOWN","codingTime":120,"openTime":600}
+                                    """
+                            )
+                    )
+            )
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @AuthenticationPrincipal Jwt jwt) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        projectStatsService.importStats(request.getInputStream(), response.getOutputStream(), jwt);
+    }
+
+    @Operation(
+            summary = "Bulk load statistics history (admin)",
+            description = "Loads historical per-file daily statistics of any users through PostgreSQL COPY. The body is CSV with a " +
+                    "header row: user_id,project_path,file_path,type,date,coding_time,open_time. Rows are streamed into a staging " +
+                    "table and merged into the live tables in a single transaction: missing projects and files are created, loaded " +
+                    "file-day values replace the stored ones, and daily and total project statistics are recomputed for the touched " +
+                    "projects. Rows with unknown users, blank paths or type, or negative times are skipped and counted as rejected. " +
+                    "Not available when daily statistics use packed storage.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Load committed",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
                                     examples = @ExampleObject(
-                                            name = "SuccessResponse",
+                                            name = "BulkLoadResponse",
                                             value = """
                                             {
                                               "success": true,
-                                              "data": [
-                                                {
-                                                  "filePath": "/users/username/projects/my-project/src/main/java/App.java",
-                                                  "type": "JAVA",
-                                                  "dailyStats": {
-                                                    "2025-05-30": {
-                                                      "codingTime": 1800,
-                                                      "openTime": 3600
-                                                    }
-                                                  }
-                                                }
-                                              ],
+                                              "data": {
+                                                "rowsStaged": 120000000,
+                                                "rowsRejected": 12,
+                                                "projectsCreated": 340,
+                                                "filesCreated": 250000,
+                                                "fileDaysWritten": 119000000,
+                                                "projectDaysWritten": 410000,
+                                                "elapsedMillis": 183000
+                                              },
                                               "error": null,
-                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "timestamp": "2025-05-31T15:36:00.123456789",
                                               "status": 200
                                             }
                                             """
@@ -763,61 +1008,135 @@ public class ProjectStatsController {
                             )
                     ),
                     @ApiResponse(
-                            responseCode = "404",
-                            description = "Project not found",
+                            responseCode = "400",
+                            description = "Malformed CSV or packed storage mode; nothing is written",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
                                     examples = @ExampleObject(
-                                            name = "NotFoundResponse",
+                                            name = "ValidationErrorResponse",
                                             value = """
                                             {
                                               "success": false,
                                               "data": null,
                                               "error": {
-                                                "message": "Project not found with ID: 123e4567-e89b-12d3-a456-426614174000",
-                                                "code": "NOT_FOUND"
+                                                "message": "ERROR: invalid input syntax for type bigint: \"abc\"\n  Where: COPY stage_file_days, line 42, column coding_time: \"abc\"",
+                                                "code": "VALIDATION_ERROR"
                                               },
-                                              "timestamp": "2025-05-31T16:14:00.123456789",
-                                              "status": 404
+                                              "timestamp": "2025-05-31T15:36:00.123456789",
+                                              "status": 400
                                             }
                                             """
                                     )
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden (no client_admin role)",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
                     )
             }
     )
-    @GetMapping("/projects/{projectId}/files")
-    @PreAuthorize("hasRole('client_user')")
-    public ResponseEntity<ResponseWrapper<List<FileStats>>> getProjectFiles(
-            @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable String projectId) {
-        return ResponseEntity.ok(projectStatsService.getProjectFiles(projectId));
+    @PostMapping(value = "/admin/bulk-load", consumes = "text/csv")
+    @PreAuthorize("hasRole('client_admin')")
+    public ResponseEntity<ResponseWrapper<BulkLoadResult>> bulkLoad(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "CSV with a header row, one file-day per line",
+                    required = true,
+                    content = @Content(
+                            mediaType = "text/csv",
+                            examples = @ExampleObject(
+                                    name = "BulkLoadCsv",
+                                    value = """
+                                    user_id,project_path,file_path,type,date,coding_time,open_time
+                                    0f8fad5b-d9cb-469f-a165-70867728950e,/users/username/projects/my-project,/users/username/projects/my-project/src/App.java,JAVA,2024-01-15,1800,3600
+                                    """
+                            )
+                    )
+            )
+            HttpServletRequest request,
+            @AuthenticationPrincipal Jwt jwt) throws IOException {
+        ResponseWrapper<BulkLoadResult> response = projectStatsService.bulkLoad(request.getInputStream(), jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @Operation(
-            summary = "Get dashboard statistics",
-            description = "Retrieves aggregated statistics for the dashboard, such as total coding time and project count.",
+            summary = "Verify per-user daily rollups (admin)",
+            description = "Recomputes the per-user daily rollup (coding and open time, active projects and files per day) from the " +
+                    "project and file statistics and reports the days that differ. With repair=true the differences are written " +
+                    "back. Without userId all users are checked; the same check runs on the stats.rollup.verify-cron schedule.",
             security = @SecurityRequirement(name = "bearerAuth"),
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "Dashboard statistics retrieved successfully",
+                            description = "Verification finished",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
                                     examples = @ExampleObject(
-                                            name = "SuccessResponse",
+                                            name = "RollupVerificationResponse",
                                             value = """
                                             {
                                               "success": true,
                                               "data": {
-                                                "totalProjects": 5,
-                                                "totalCodingTime": 18000,
-                                                "totalOpenTime": 36000,
-                                                "averageCodingTimePerProject": 3600
+                                                "usersChecked": 1200,
+                                                "usersDrifted": 1,
+                                                "daysDrifted": 3,
+                                                "usersSkipped": 0,
+                                                "repaired": false,
+                                                "elapsedMillis": 5400
                                               },
                                               "error": null,
+                                              "timestamp": "2025-05-31T15:36:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden (no client_admin role)",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @PostMapping("/admin/rollup/verify")
+    @PreAuthorize("hasRole('client_admin')")
+    public ResponseEntity<ResponseWrapper<RollupVerificationResult>> verifyRollups(
+            @Parameter(description = "Check a single user only", example = "0f8fad5b-d9cb-469f-a165-70867728950e")
+            @RequestParam(required = false) String userId,
+            @Parameter(description = "Write the recomputed values back for days that differ", example = "false")
+            @RequestParam(defaultValue = "false") boolean repair,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<RollupVerificationResult> response = projectStatsService.verifyRollups(userId, repair, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Delete a project",
+            description = "Deletes a project and all associated statistics for the authenticated user.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Project deleted successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": "Project deleted successfully",
+                                              "error": null,
                                               "timestamp": "2025-05-31T16:14:00.123456789",
                                               "status": 200
                                             }
@@ -827,7 +1146,7 @@ public class ProjectStatsController {
                     ),
                     @ApiResponse(
                             responseCode = "403",
-                            description = "Invalid or missing JWT token",
+                            description = "Unauthorized access to the project",
                             content = @Content(
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = ResponseWrapper.class),
@@ -838,7 +1157,7 @@ public class ProjectStatsController {
                                               "success": false,
                                               "data": null,
                                               "error": {
-                                                "message": "Invalid or missing JWT token",
+                                                "message": "You do not have access to this project",
                                                 "code": "UNAUTHORIZED"
                                               },
                                               "timestamp": "2025-05-31T16:14:00.123456789",
@@ -847,21 +1166,600 @@ public class ProjectStatsController {
                                             """
                                     )
                             )
-                    )
-            }
-    )
-    @GetMapping("/dashboard")
-    @PreAuthorize("hasRole('client_user')")
-    public ResponseEntity<ResponseWrapper<Map<String, Object>>> getDashboardStats(@AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(projectStatsService.getDashboardStats(jwt));
-    }
-
-//    @Operation(
-//            summary = "Get team member projects",
-//            description = "Retrieves project statistics for all team members associated with the authenticated user's team.",
-//            security = @SecurityRequirement(name = "bearerAuth"),
-//            responses = {
-//                    @ApiResponse(
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "NotFoundResponse",
+                                            value = """
+                                            {
+                                              "success": false,
+                                              "data": null,
+                                              "error": {
+                                                "message": "Project not found with ID: 123e4567-e89b-12d3-a456-426614174000",
+                                                "code": "NOT_FOUND"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 404
+                                            }
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @DeleteMapping("/projects/{projectId}")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<String>> deleteProject(
+            @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String projectId,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<String> response = projectStatsService.deleteProject(projectId, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get project files",
+            description = "Retrieves statistics for all files in a specific project.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Project files retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": [
+                                                {
+                                                  "filePath": "/users/username/projects/my-project/src/main/java/App.java",
+                                                  "type": "JAVA",
+                                                  "dailyStats": {
+                                                    "2025-05-30": {
+                                                      "codingTime": 1800,
+                                                      "openTime": 3600
+                                                    }
+                                                  }
+                                                }
+                                              ],
+                                              "error": null,
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "NotFoundResponse",
+                                            value = """
+                                            {
+                                              "success": false,
+                                              "data": null,
+                                              "error": {
+                                                "message": "Project not found with ID: 123e4567-e89b-12d3-a456-426614174000",
+                                                "code": "NOT_FOUND"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 404
+                                            }
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @GetMapping("/projects/{projectId}/files")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<List<FileStats>>> getProjectFiles(
+            @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String projectId,
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Stream the response from a database cursor instead of building it in memory", example = "true")
+            @RequestParam(defaultValue = "false") boolean stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
+        DateRange range = DateRange.of(from, to);
+        if (stream) {
+            MediaType mediaType = StatsStreamWriter.negotiate(accept);
+            writeStream(projectStatsService.streamProjectFiles(projectId, range, mediaType), mediaType, response);
+            return null;
+        }
+        return ResponseEntity.ok(projectStatsService.getProjectFiles(projectId, range));
+    }
+
+    // Відповідь пишеться напряму, тож MVC не буферизує тіло; null з обробника означає, що запит уже оброблено
+    private void writeStream(ResponseWrapper<StreamingResponseBody> stream, MediaType mediaType, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(stream.getStatus());
+        if (!stream.isSuccess()) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), stream);
+            return;
+        }
+        response.setContentType(mediaType.toString());
+        stream.getData().writeTo(response.getOutputStream());
+    }
+
+    @Operation(
+            summary = "Find project by path",
+            description = "Resolves the projectId that owns the given projectPath for the current user. " +
+                    "Intended for IDE plugin startup: one indexed lookup, cached per user, instead of listing all projects. " +
+                    "If several projects share the path, the one with the smallest projectId is returned.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Project found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": {
+                                                "projectId": "123e4567-e89b-12d3-a456-426614174000",
+                                                "projectPath": "/users/username/projects/my-project"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "No project with this path",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "NotFoundResponse",
+                                            value = """
+                                            {
+                                              "success": false,
+                                              "error": {
+                                                "message": "Project not found with path: /users/username/projects/my-project",
+                                                "code": "NOT_FOUND"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 404
+                                            }
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @GetMapping("/projects/by-path")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<ProjectReference>> findProjectByPath(
+            @Parameter(description = "Project path exactly as stored", example = "/users/username/projects/my-project", required = true)
+            @RequestParam String path,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<ProjectReference> response = projectStatsService.findProjectByPath(path, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get project summaries (keyset-paginated)",
+            description = "Returns a page of lightweight project summaries (id, path, totals, last active date) without daily stats or files. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page. Admins see all projects.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Project summaries retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": {
+                                                "items": [
+                                                  {
+                                                    "projectId": "123e4567-e89b-12d3-a456-426614174000",
+                                                    "projectPath": "/users/username/projects/my-project",
+                                                    "totalCodingTime": 3600,
+                                                    "totalOpenTime": 7200,
+                                                    "lastActiveDate": "2025-05-30"
+                                                  }
+                                                ],
+                                                "nextCursor": "123e4567-e89b-12d3-a456-426614174000"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @GetMapping("/projects/summary")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<CursorPage<ProjectSummary>>> getProjectSummaries(
+            @Parameter(description = "Cursor returned by the previous page", example = "123e4567-e89b-12d3-a456-426614174000")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (capped by the server)", example = "100")
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<CursorPage<ProjectSummary>> response = projectStatsService.getProjectSummaries(after, size, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get project file summaries (keyset-paginated)",
+            description = "Returns a page of lightweight file summaries (id, path, type, totals, last active date) without daily stats. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "File summaries retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": {
+                                                "items": [
+                                                  {
+                                                    "id": "0b7e9a52-2f0c-4d84-9a4f-6f1e8e0f3c11",
+                                                    "filePath": "/users/username/projects/my-project/src/main/java/App.java",
+                                                    "type": "JAVA",
+                                                    "codingTime": 1800,
+                                                    "openTime": 3600,
+                                                    "lastActiveDate": "2025-05-30"
+                                                  }
+                                                ],
+                                                "nextCursor": null
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping("/projects/{projectId}/files/summary")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<CursorPage<FileSummary>>> getFileSummaries(
+            @Parameter(description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String projectId,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (capped by the server)", example = "100")
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<CursorPage<FileSummary>> response = projectStatsService.getFileSummaries(projectId, after, size, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get dashboard statistics",
+            description = "Retrieves aggregated statistics for the dashboard, such as total coding time and project count.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Dashboard statistics retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": {
+                                                "totalProjects": 5,
+                                                "totalCodingTime": 18000,
+                                                "totalOpenTime": 36000,
+                                                "averageCodingTimePerProject": 3600
+                                              },
+                                              "error": null,
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Invalid or missing JWT token",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "UnauthorizedResponse",
+                                            value = """
+                                            {
+                                              "success": false,
+                                              "data": null,
+                                              "error": {
+                                                "message": "Invalid or missing JWT token",
+                                                "code": "UNAUTHORIZED"
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 403
+                                            }
+                                            """
+                                    )
+                            )
+                    )
+            }
+    )
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<Map<String, Object>>> getDashboardStats(
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(projectStatsService.getDashboardStats(DateRange.of(from, to), jwt));
+    }
+
+    @Operation(
+            summary = "Get time by language",
+            description = "Returns coding/open time per file type for the authenticated user within an optional date window, " +
+                    "sorted by coding time. Served from a per-day language rollup, so the cost does not depend on the number of files.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Language statistics retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": [
+                                                { "type": "JAVA", "codingTime": 12600, "openTime": 25200 },
+                                                { "type": "MARKDOWN", "codingTime": 1800, "openTime": 5400 }
+                                              ],
+                                              "error": null,
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "'from' is after 'to'",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Invalid or missing JWT token",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping("/languages")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<List<LanguageTotals>>> getLanguageStats(
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<List<LanguageTotals>> response = projectStatsService.getLanguageStats(DateRange.of(from, to), jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get the most active files",
+            description = "Returns the top N files by coding time within an optional date window, across the authenticated user's " +
+                    "projects or within a single project, optionally filtered by file type. The ranking is computed by the database " +
+                    "(or by a bounded heap over a cursor in packed storage mode), so the full file list is never loaded.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Top files retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": [
+                                                {
+                                                  "id": "789e0123-e45b-67d8-a901-234567890123",
+                                                  "projectId": "123e4567-e89b-12d3-a456-426614174000",
+                                                  "filePath": "/src/main/java/App.java",
+                                                  "type": "JAVA",
+                                                  "codingTime": 3600,
+                                                  "openTime": 7200
+                                                }
+                                              ],
+                                              "error": null,
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "limit is out of range or 'from' is after 'to'",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Invalid or missing JWT token, or the project belongs to another user",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping("/files/top")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<List<TopFile>>> getTopFiles(
+            @Parameter(description = "Limit the ranking to a single project", example = "123e4567-e89b-12d3-a456-426614174000")
+            @RequestParam(required = false) String projectId,
+            @Parameter(description = "Only files of this type", example = "JAVA")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-26")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-06-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Number of files to return (capped by stats.top-files.max-limit)", example = "20")
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<List<TopFile>> response = projectStatsService.getTopFiles(projectId, type, DateRange.of(from, to), limit, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Operation(
+            summary = "Get time analytics",
+            description = "Returns coding/open time within an optional date window, over the last N days and per day of week " +
+                    "for the authenticated user, or for a single project when projectId is given. " +
+                    "Served from the in-memory time series index when it is enabled.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Analytics retrieved successfully",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class),
+                                    examples = @ExampleObject(
+                                            name = "SuccessResponse",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "data": {
+                                                "projectId": null,
+                                                "from": "2025-05-01",
+                                                "to": "2025-05-31",
+                                                "codingTime": 18000,
+                                                "openTime": 36000,
+                                                "lastDays": 7,
+                                                "lastDaysCodingTime": 5400,
+                                                "lastDaysOpenTime": 10800,
+                                                "codingTimeByDayOfWeek": {
+                                                  "MONDAY": 3600, "TUESDAY": 1800, "WEDNESDAY": 0, "THURSDAY": 7200,
+                                                  "FRIDAY": 5400, "SATURDAY": 0, "SUNDAY": 0
+                                                },
+                                                "openTimeByDayOfWeek": {
+                                                  "MONDAY": 7200, "TUESDAY": 3600, "WEDNESDAY": 0, "THURSDAY": 14400,
+                                                  "FRIDAY": 10800, "SATURDAY": 0, "SUNDAY": 0
+                                                }
+                                              },
+                                              "timestamp": "2025-05-31T16:14:00.123456789",
+                                              "status": 200
+                                            }
+                                            """
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid date window or lastDays",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Project not found",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseWrapper.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping("/analytics")
+    @PreAuthorize("hasRole('client_user')")
+    public ResponseEntity<ResponseWrapper<AnalyticsSummary>> getAnalytics(
+            @Parameter(description = "Restrict analytics to a single project", example = "123e4567-e89b-12d3-a456-426614174000")
+            @RequestParam(required = false) String projectId,
+            @Parameter(description = "Start of the date window, inclusive (ISO date)", example = "2025-05-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "End of the date window, inclusive (ISO date)", example = "2025-05-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Number of trailing days, including today", example = "7")
+            @RequestParam(defaultValue = "7") int lastDays,
+            @AuthenticationPrincipal Jwt jwt) {
+        ResponseWrapper<AnalyticsSummary> response = projectStatsService.getAnalytics(projectId, DateRange.of(from, to), lastDays, jwt);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+//    @Operation(
+//            summary = "Get team member projects",
+//            description = "Retrieves project statistics for all team members associated with the authenticated user's team.",
+//            security = @SecurityRequirement(name = "bearerAuth"),
+//            responses = {
+//                    @ApiResponse(
 //                            responseCode = "200",
 //                            description = "Team projects retrieved successfully",
 //                            content = @Content(
@@ -1012,7 +1910,8 @@ public class ProjectStatsController {
 
     @Operation(
             summary = "Generate project badge",
-            description = "Generates an SVG badge displaying the total coding time for a project, if the badge is visible.",
+            description = "Generates an SVG badge displaying the total coding time for a project, if the badge is visible. " +
+                    "Rendered badges are cached until the project's totals change and are served with ETag and Cache-Control headers.",
             parameters = {
                     @Parameter(name = "projectId", description = "Project ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000"),
                     @Parameter(name = "color", description = "Badge color in hex format", required = false, example = "#4c1")
@@ -1051,27 +1950,23 @@ public class ProjectStatsController {
                                     )
                             )
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Badge has not changed since the version identified by If-None-Match"
+                    )
             }
     )
     @GetMapping(path = "/badge", produces = "image/svg+xml")
-    public ResponseEntity<String> generateBadge(
+    public ResponseEntity<byte[]> generateBadge(
             @RequestParam String projectId,
             @RequestParam(defaultValue = "#4c1") String color
     ) {
-        ProjectStats project = projectStatsService.findProjectById(projectId);
-
-        if (project == null || !Boolean.TRUE.equals(project.isGithubBadgeVisible())) {
-            String badge = projectStatsService.generateBadge("Coding time", "Not Found", "#red");
-            return ResponseEntity.ok(badge);
-        }
-
-        // Конвертація загального часу з секунд в формат "Xh Ymin"
-        long totalSeconds = project.getTotalCodingTime(); // Наприклад: 3660
-        long hours = totalSeconds / 3600;
-        long minutes = (totalSeconds % 3600) / 60;
-        String value = String.format("%dh %dmin", hours, minutes);
+        Badge badge = projectStatsService.getBadge(projectId, color);
 
-        String badge = projectStatsService.generateBadge("Coding time", value, color);
-        return ResponseEntity.ok(badge);
+        // Для GET з If-None-Match, що збігається з ETag, Spring сам поверне 304 Not Modified без тіла
+        return ResponseEntity.ok()
+                .eTag(badge.getEtag())
+                .cacheControl(CacheControl.maxAge(statsProperties.getBadge().getMaxAge()).cachePublic())
+                .body(badge.getSvg());
     }
-}
\ No newline at end of file
+}
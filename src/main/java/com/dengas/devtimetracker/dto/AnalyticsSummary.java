@@ -0,0 +1,45 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Schema(description = "Аналітика часу користувача або проєкту: сума за вікно, за останні N днів і по днях тижня")
+public class AnalyticsSummary {
+
+    @Schema(description = "Ідентифікатор проєкту; відсутній, якщо аналітика по всіх проєктах користувача",
+            example = "123e4567-e89b-12d3-a456-426614174000")
+    private String projectId;
+
+    @Schema(description = "Початок вікна (включно); відсутній для всієї історії", example = "2025-05-01")
+    private LocalDate from;
+
+    @Schema(description = "Кінець вікна (включно); відсутній для всієї історії", example = "2025-05-31")
+    private LocalDate to;
+
+    @Schema(description = "Час кодування у вікні", example = "18000")
+    private long codingTime;
+
+    @Schema(description = "Час відкриття у вікні", example = "36000")
+    private long openTime;
+
+    @Schema(description = "Кількість останніх днів, включно з сьогоднішнім", example = "7")
+    private int lastDays;
+
+    @Schema(description = "Час кодування за останні lastDays днів", example = "5400")
+    private long lastDaysCodingTime;
+
+    @Schema(description = "Час відкриття за останні lastDays днів", example = "10800")
+    private long lastDaysOpenTime;
+
+    @Schema(description = "Час кодування за всю історію, згрупований по днях тижня")
+    private Map<DayOfWeek, Long> codingTimeByDayOfWeek = new EnumMap<>(DayOfWeek.class);
+
+    @Schema(description = "Час відкриття за всю історію, згрупований по днях тижня")
+    private Map<DayOfWeek, Long> openTimeByDayOfWeek = new EnumMap<>(DayOfWeek.class);
+}
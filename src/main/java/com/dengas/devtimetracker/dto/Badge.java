@@ -0,0 +1,27 @@
+package com.dengas.devtimetracker.dto;
+
+// Попередньо відрендерений SVG-бейдж разом з його ETag
+public class Badge {
+    private final byte[] svg;
+    private final String etag;
+    private final boolean found;
+
+    public Badge(byte[] svg, String etag, boolean found) {
+        this.svg = svg;
+        this.etag = etag;
+        this.found = found;
+    }
+
+    public byte[] getSvg() {
+        return svg;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    // false — бейдж "Not Found" для неіснуючого проєкту
+    public boolean isFound() {
+        return found;
+    }
+}
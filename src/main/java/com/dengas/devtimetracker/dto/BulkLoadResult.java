@@ -0,0 +1,30 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Результат масового завантаження історії через COPY")
+public class BulkLoadResult {
+
+    @Schema(description = "Кількість рядків, прочитаних у staging-таблицю", example = "120000000")
+    private long rowsStaged;
+
+    @Schema(description = "Кількість відхилених рядків (невідомий користувач, порожні шляхи чи тип, від'ємний час)", example = "12")
+    private long rowsRejected;
+
+    @Schema(description = "Кількість створених проєктів", example = "340")
+    private long projectsCreated;
+
+    @Schema(description = "Кількість створених файлів", example = "250000")
+    private long filesCreated;
+
+    @Schema(description = "Кількість записаних рядків file_daily_stats", example = "119000000")
+    private long fileDaysWritten;
+
+    @Schema(description = "Кількість записаних рядків project_daily_stats", example = "410000")
+    private long projectDaysWritten;
+
+    @Schema(description = "Тривалість завантаження в мілісекундах", example = "183000")
+    private long elapsedMillis;
+}
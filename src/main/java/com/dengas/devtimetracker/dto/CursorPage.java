@@ -0,0 +1,26 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Сторінка результатів з курсором для keyset-пагінації")
+public class CursorPage<T> {
+
+    @Schema(description = "Елементи сторінки")
+    private List<T> items;
+
+    @Schema(description = "Курсор для наступної сторінки (передається як after); null, якщо сторінка остання",
+            example = "24fa6720-c2be-4c93-86fa-e0e0e3f36916")
+    private String nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
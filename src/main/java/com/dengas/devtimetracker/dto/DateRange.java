@@ -0,0 +1,42 @@
+package com.dengas.devtimetracker.dto;
+
+import jakarta.validation.ValidationException;
+
+import java.time.LocalDate;
+
+// Необов'язкове вікно дат [from, to] включно; без обох меж означає всю історію
+public class DateRange {
+    private static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private DateRange(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static DateRange of(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("'from' date must not be after 'to' date");
+        }
+        return new DateRange(from, to);
+    }
+
+    public static DateRange unbounded() {
+        return new DateRange(null, null);
+    }
+
+    public boolean isBounded() {
+        return from != null || to != null;
+    }
+
+    public LocalDate getFrom() {
+        return from != null ? from : MIN_DATE;
+    }
+
+    public LocalDate getTo() {
+        return to != null ? to : MAX_DATE;
+    }
+}
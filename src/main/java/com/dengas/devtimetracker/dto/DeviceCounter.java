@@ -0,0 +1,46 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(description = "Накопичений пристроєм час для одного файлу за одну дату")
+public class DeviceCounter {
+
+    @NotBlank(message = "Шлях до файлу обов'язковий")
+    @Schema(description = "Шлях до файлу", example = "/users/username/projects/my-project/src/main/java/App.java")
+    private String filePath;
+
+    @Schema(description = "Тип файлу (обов'язковий лише для нових файлів)", example = "JAVA")
+    private String type;
+
+    @NotNull(message = "Дата обов'язкова")
+    @Schema(description = "Дата комірки", example = "2025-05-30")
+    private LocalDate date;
+
+    @NotNull(message = "Час кодування обов'язковий")
+    @PositiveOrZero(message = "Час кодування не може бути від'ємним")
+    @Schema(description = "Загальний час кодування цього пристрою за дату в секундах", example = "630")
+    private Long codingTime;
+
+    @NotNull(message = "Час відкриття обов'язковий")
+    @PositiveOrZero(message = "Час відкриття не може бути від'ємним")
+    @Schema(description = "Загальний час відкриття цього пристрою за дату в секундах", example = "1260")
+    private Long openTime;
+
+    public DeviceCounter() {
+    }
+
+    public DeviceCounter(String filePath, String type, LocalDate date, Long codingTime, Long openTime) {
+        this.filePath = filePath;
+        this.type = type;
+        this.date = date;
+        this.codingTime = codingTime;
+        this.openTime = openTime;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Стан лічильників пристрою: накопичений ним час по файлах і датах. " +
+        "Повторна або невпорядкована відправка не змінює результат")
+public class DeviceCountersRequest {
+
+    @NotBlank(message = "Ідентифікатор пристрою обов'язковий")
+    @Size(max = 255, message = "Ідентифікатор пристрою задовгий")
+    @Schema(description = "Стабільний ідентифікатор пристрою (інсталяції плагіна)", example = "laptop-7f3a")
+    private String deviceId;
+
+    @Valid
+    @NotEmpty(message = "Список лічильників не може бути порожнім")
+    @Schema(description = "Накопичені значення по файлах і датах")
+    private List<DeviceCounter> counters;
+}
@@ -0,0 +1,46 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(description = "Приріст часу для одного файлу за одну дату з моменту останньої синхронізації")
+public class Heartbeat {
+
+    @NotBlank(message = "Шлях до файлу обов'язковий")
+    @Schema(description = "Шлях до файлу", example = "/users/username/projects/my-project/src/main/java/App.java")
+    private String filePath;
+
+    @Schema(description = "Тип файлу (обов'язковий лише для нових файлів)", example = "JAVA")
+    private String type;
+
+    @NotNull(message = "Дата обов'язкова")
+    @Schema(description = "Дата, до якої відноситься приріст", example = "2025-05-30")
+    private LocalDate date;
+
+    @NotNull(message = "Приріст часу кодування обов'язковий")
+    @PositiveOrZero(message = "Приріст часу кодування не може бути від'ємним")
+    @Schema(description = "Приріст часу кодування в секундах", example = "30")
+    private Long codingDelta;
+
+    @NotNull(message = "Приріст часу відкриття обов'язковий")
+    @PositiveOrZero(message = "Приріст часу відкриття не може бути від'ємним")
+    @Schema(description = "Приріст часу відкриття в секундах", example = "60")
+    private Long openDelta;
+
+    public Heartbeat() {
+    }
+
+    public Heartbeat(String filePath, String type, LocalDate date, Long codingDelta, Long openDelta) {
+        this.filePath = filePath;
+        this.type = type;
+        this.date = date;
+        this.codingDelta = codingDelta;
+        this.openDelta = openDelta;
+    }
+}
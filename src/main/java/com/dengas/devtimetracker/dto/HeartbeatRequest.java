@@ -0,0 +1,18 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Пакет приростів часу, накопичених плагіном з моменту останньої синхронізації")
+public class HeartbeatRequest {
+
+    @Valid
+    @NotEmpty(message = "Список heartbeats не може бути порожнім")
+    @Schema(description = "Прирости часу по файлах і датах")
+    private List<Heartbeat> heartbeats;
+}
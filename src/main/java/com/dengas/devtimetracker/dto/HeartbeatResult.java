@@ -0,0 +1,34 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Результат застосування пакету heartbeats до проєкту")
+public class HeartbeatResult {
+
+    @Schema(description = "Ідентифікатор проєкту", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String projectId;
+
+    @Schema(description = "Кількість прийнятих heartbeats", example = "3")
+    private int accepted;
+
+    @Schema(description = "Загальний час кодування проєкту після оновлення", example = "3630")
+    private Long totalCodingTime;
+
+    @Schema(description = "Загальний час відкриття проєкту після оновлення", example = "7260")
+    private Long totalOpenTime;
+
+    @Schema(description = "Чи прийняті прирости у write-behind буфер (тоді тотали ще їх не включають)", example = "false")
+    private boolean buffered;
+
+    public HeartbeatResult() {
+    }
+
+    public HeartbeatResult(String projectId, int accepted, Long totalCodingTime, Long totalOpenTime) {
+        this.projectId = projectId;
+        this.accepted = accepted;
+        this.totalCodingTime = totalCodingTime;
+        this.totalOpenTime = totalOpenTime;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dengas.devtimetracker.dto;
+
+import lombok.Data;
+
+/**
+ * Відповідь, збережена за ключем Idempotency-Key. Запис без тіла означає, що запит ще виконується.
+ */
+@Data
+public class IdempotentResponse {
+    private String fingerprint;
+    private int status;
+    private String contentType;
+    private byte[] body;
+
+    public IdempotentResponse() {
+    }
+
+    public IdempotentResponse(String fingerprint, int status, String contentType, byte[] body) {
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public boolean isInProgress() {
+        return body == null;
+    }
+}
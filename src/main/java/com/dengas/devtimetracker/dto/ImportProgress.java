@@ -0,0 +1,54 @@
+package com.dengas.devtimetracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Рядок NDJSON-відповіді імпорту: помилка запису, прогрес після пакета або підсумок")
+public class ImportProgress {
+
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String SUMMARY = "summary";
+
+    @Schema(description = "Тип події: error, progress або summary", example = "progress")
+    private String type;
+
+    @Schema(description = "Номер рядка вхідного потоку (для error)", example = "42")
+    private Long line;
+
+    @Schema(description = "Опис помилки (для error)", example = "File type is required")
+    private String message;
+
+    @Schema(description = "Кількість прочитаних записів", example = "5000")
+    private Long records;
+
+    @Schema(description = "Кількість записаних записів", example = "4998")
+    private Long imported;
+
+    @Schema(description = "Кількість відхилених записів", example = "2")
+    private Long failed;
+
+    @Schema(description = "Кількість створених проєктів", example = "3")
+    private Long projectsCreated;
+
+    public static ImportProgress error(long line, String message) {
+        ImportProgress event = new ImportProgress();
+        event.setType(ERROR);
+        event.setLine(line);
+        event.setMessage(message);
+        return event;
+    }
+
+    public static ImportProgress counts(String type, long records, long imported, long failed, long projectsCreated) {
+        ImportProgress event = new ImportProgress();
+        event.setType(type);
+        event.setRecords(records);
+        event.setImported(imported);
+        event.setFailed(failed);
+        event.setProjectsCreated(projectsCreated);
+        return event;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dengas.devtimetracker.dto;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Schema(description = "Один рядок NDJSON-імпорту: статистика одного файлу проєкту. " +
+        "Значення за вказані дати замінюють наявні, тому повторний імпорт не подвоює час")
+public class ImportRecord {
+
+    @Schema(description = "Шлях до проєкту; проєкт користувача з таким шляхом створюється, якщо його ще немає",
+            example = "/users/username/projects/my-project")
+    private String projectPath;
+
+    @Schema(description = "Шлях до файлу", example = "/users/username/projects/my-project/src/main/java/App.java")
+    private String filePath;
+
+    @Schema(description = "Тип файлу", example = "JAVA")
+    private String type;
+
+    @Schema(description = "Загальний час кодування (якщо dailyStats не передано)", example = "3600")
+    private Long codingTime;
+
+    @Schema(description = "Загальний час відкриття (якщо dailyStats не передано)", example = "7200")
+    private Long openTime;
+
+    @Schema(description = "Щоденна статистика файлу")
+    private Map<LocalDate, DailyStats> dailyStats;
+}
@@ -0,0 +1,23 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Ідентифікатор проєкту, знайденого за шляхом")
+public class ProjectReference {
+
+    @Schema(description = "Ідентифікатор проєкту", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String projectId;
+
+    @Schema(description = "Шлях до проекту в файловій системі", example = "/users/username/projects/my-project")
+    private String projectPath;
+
+    public ProjectReference() {
+    }
+
+    public ProjectReference(String projectId, String projectPath) {
+        this.projectId = projectId;
+        this.projectPath = projectPath;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Результат звірки user_daily_rollup та user_language_rollup з робочими таблицями")
+public class RollupVerificationResult {
+
+    @Schema(description = "Кількість перевірених користувачів", example = "1200")
+    private long usersChecked;
+
+    @Schema(description = "Кількість користувачів з розбіжностями", example = "1")
+    private long usersDrifted;
+
+    @Schema(description = "Кількість рядків (днів і днів мов), чий підсумок не збігся з робочими таблицями", example = "3")
+    private long daysDrifted;
+
+    @Schema(description = "Кількість користувачів, яких не вдалося перевірити через паралельний запис", example = "0")
+    private long usersSkipped;
+
+    @Schema(description = "Чи були розбіжності виправлені", example = "false")
+    private boolean repaired;
+
+    @Schema(description = "Тривалість звірки в мілісекундах", example = "5400")
+    private long elapsedMillis;
+}
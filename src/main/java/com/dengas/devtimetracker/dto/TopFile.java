@@ -0,0 +1,39 @@
+package com.dengas.devtimetracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Файл з його часом у вікні дат для рейтингу найактивніших файлів")
+public class TopFile {
+
+    @Schema(description = "Унікальний ідентифікатор файлу", example = "789e0123-e45b-67d8-a901-234567890123")
+    private String id;
+
+    @Schema(description = "Ідентифікатор проєкту", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String projectId;
+
+    @Schema(description = "Шлях до файлу", example = "/src/main/java/App.java")
+    private String filePath;
+
+    @Schema(description = "Тип файлу", example = "JAVA")
+    private String type;
+
+    @Schema(description = "Час кодування у вікні дат (секунди)", example = "3600")
+    private long codingTime;
+
+    @Schema(description = "Час відкриття у вікні дат (секунди)", example = "7200")
+    private long openTime;
+
+    public TopFile() {
+    }
+
+    public TopFile(String id, String projectId, String filePath, String type, long codingTime, long openTime) {
+        this.id = id;
+        this.projectId = projectId;
+        this.filePath = filePath;
+        this.type = type;
+        this.codingTime = codingTime;
+        this.openTime = openTime;
+    }
+}
@@ -1,8 +1,10 @@
 package com.dengas.devtimetracker.exceptions;
 
 import com.dengas.devtimetracker.dto.ResponseWrapper;
+import jakarta.validation.ValidationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -92,6 +94,17 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ResponseWrapper<?>> handleValidationException(ValidationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ResponseWrapper.error(
+                        HttpStatus.BAD_REQUEST,
+                        ex.getMessage(),
+                        "VALIDATION_ERROR"
+                ));
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ResponseWrapper<?>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         return ResponseEntity
@@ -103,6 +116,18 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    // Зламане тіло (JSON, Smile, пошкоджений або завеликий gzip) — помилка клієнта, а не сервера
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ResponseWrapper<?>> handleNotReadable(HttpMessageNotReadableException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ResponseWrapper.error(
+                        HttpStatus.BAD_REQUEST,
+                        "Невірне тіло запиту",
+                        "INVALID_REQUEST_BODY"
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ResponseWrapper<?>> handleException(Exception ex) {
         return ResponseEntity
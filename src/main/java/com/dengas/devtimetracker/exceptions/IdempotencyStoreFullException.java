@@ -0,0 +1,11 @@
+package com.dengas.devtimetracker.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IdempotencyStoreFullException extends RuntimeException {
+    public IdempotencyStoreFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.dengas.devtimetracker.model;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import jakarta.persistence.PrePersist;
+
+// Нові сутності отримують ряд у поточному представленні навіть без явного storeDailyStats перед save.
+// Створюється через SpringBeanContainer Hibernate, тому залежності впроваджуються конструктором
+public class DailyStatsStorageListener {
+
+    private final StatsProperties.Storage storage;
+
+    public DailyStatsStorageListener(StatsProperties statsProperties) {
+        this.storage = statsProperties.getStorage();
+    }
+
+    @PrePersist
+    public void beforePersist(Object entity) {
+        if (entity instanceof ProjectStats project) {
+            project.storeDailyStats(storage.isPacked());
+        } else if (entity instanceof FileStats file) {
+            file.storeDailyStats(storage.isPacked());
+        }
+    }
+}
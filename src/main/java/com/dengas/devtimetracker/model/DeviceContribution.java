@@ -0,0 +1,73 @@
+package com.dengas.devtimetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Внесок одного пристрою в комірку (файл, дата): накопичений пристроєм час, а не приріст.
+ * <p>
+ * Злиття внесків — максимум по кожному пристрою, тому повтор і будь-який порядок синхронізацій
+ * дають той самий стан. Значення в FileStats/ProjectStats — матеріалізована сума внесків
+ * (разом із часом, записаним через heartbeats без пристрою), тож формат читання не змінюється.
+ */
+@Data
+@Entity
+@Table(name = "file_device_stats")
+public class DeviceContribution implements Persistable<DeviceContribution.Key> {
+
+    @EmbeddedId
+    private Key id;
+
+    private Long codingTime = 0L;
+    private Long openTime = 0L;
+
+    // Ключ призначається застосунком, тож без прапорця save() робив би зайвий SELECT перед кожною вставкою
+    @Transient
+    private boolean newEntity;
+
+    public DeviceContribution() {
+    }
+
+    public DeviceContribution(Key id, Long codingTime, Long openTime) {
+        this.id = id;
+        this.codingTime = codingTime;
+        this.openTime = openTime;
+        this.newEntity = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Data
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "file_id")
+        private String fileId;
+
+        private LocalDate date;
+
+        @Column(name = "device_id")
+        private String deviceId;
+
+        public Key() {
+        }
+
+        public Key(String fileId, LocalDate date, String deviceId) {
+            this.fileId = fileId;
+            this.date = date;
+            this.deviceId = deviceId;
+        }
+    }
+}
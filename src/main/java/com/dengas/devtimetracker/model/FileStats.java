@@ -1,5 +1,6 @@
 package com.dengas.devtimetracker.model;
 
+import com.dengas.devtimetracker.utils.DailySeriesCodec;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -12,6 +13,9 @@ import java.util.Map;
 
 @Data
 @Entity
+@EntityListeners(DailyStatsStorageListener.class)
+@Table(name = "file_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_file_stats_project_file_path", columnNames = {"project_id", "file_path"}))
 public class FileStats {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -22,6 +26,7 @@ public class FileStats {
     private String projectId;
 
     @NotBlank(message = "File path is required")
+    @Column(name = "file_path")
     private String filePath;
 
     @NotBlank(message = "File type is required")
@@ -30,16 +35,65 @@ public class FileStats {
     private Long openTime = 0L;
     private Long codingTime = 0L;
 
+    // Представлення ряду в режимі stats.storage.mode=rows: рядок на кожен день
+    @JsonIgnore
     @ElementCollection
     @CollectionTable(name = "file_daily_stats", joinColumns = @JoinColumn(name = "file_id"))
     @MapKeyColumn(name = "date")
-    private Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+    private Map<LocalDate, DailyStats> storedDailyStats = new HashMap<>();
+
+    // Представлення ряду в режимі stats.storage.mode=packed, формат див. DailySeriesCodec
+    @JsonIgnore
+    @Column(name = "daily_series", length = DailySeriesCodec.MAX_ENCODED_LENGTH)
+    private byte[] dailySeries;
+
+    // Декодований ряд сутності в представленні packed
+    @Transient
+    private Map<LocalDate, DailyStats> dailyStats;
 
     // Убираем связь с ProjectStats чтобы избежать проблем с маппингом
     // Вместо этого используем только projectId
 
+    // Для сутностей у представленні rows повертається сама колекція *_daily_stats, для packed — декодований ряд
+    public Map<LocalDate, DailyStats> getDailyStats() {
+        if (dailySeries == null) {
+            return storedDailyStats;
+        }
+        if (dailyStats == null) {
+            dailyStats = DailySeriesCodec.decode(dailySeries);
+        }
+        return dailyStats;
+    }
+
+    // Упакований ряд кодується одразу, щоб save()/merge() переніс його без явного storeDailyStats
+    public void setDailyStats(Map<LocalDate, DailyStats> dailyStats) {
+        if (dailySeries == null) {
+            this.storedDailyStats = dailyStats;
+        } else {
+            this.dailyStats = dailyStats;
+            this.dailySeries = DailySeriesCodec.encode(dailyStats);
+        }
+    }
+
+    // Переносить ряд у представлення поточного режиму; сервіси викликають після змін робочої мапи на місці
+    public void storeDailyStats(boolean packed) {
+        if (packed) {
+            Map<LocalDate, DailyStats> current = getDailyStats();
+            if (dailySeries == null && current != null) {
+                dailyStats = new HashMap<>(current);
+                current.clear();
+            }
+            dailySeries = DailySeriesCodec.encode(dailyStats);
+        } else if (dailySeries != null) {
+            storedDailyStats.putAll(getDailyStats());
+            dailySeries = null;
+            dailyStats = null;
+        }
+    }
+
     // Метод для обчислення totalCodingTime і totalOpenTime з dailyStats
     public void calculateTotalTimes() {
+        Map<LocalDate, DailyStats> dailyStats = getDailyStats();
         if (dailyStats != null && !dailyStats.isEmpty()) {
             this.codingTime = dailyStats.values().stream()
                     .mapToLong(stats -> stats.getCodingTime() != null ? stats.getCodingTime() : 0L)
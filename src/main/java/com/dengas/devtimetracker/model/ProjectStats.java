@@ -1,5 +1,7 @@
 package com.dengas.devtimetracker.model;
 
+import com.dengas.devtimetracker.utils.DailySeriesCodec;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
@@ -13,6 +15,8 @@ import java.util.Map;
 
 @Data
 @Entity
+@EntityListeners(DailyStatsStorageListener.class)
+@Table(name = "project_stats", indexes = @Index(name = "idx_project_stats_user_path", columnList = "user_id, projectPath"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(
         name = "ProjectStats",
@@ -56,6 +60,11 @@ public class ProjectStats {
     )
     private boolean githubBadgeVisible = false;
 
+    // Оптимістичне блокування записів з різних вузлів, див. ProjectWriteCoordinator
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @Schema(
@@ -64,9 +73,19 @@ public class ProjectStats {
     )
     private User user;
 
+    // Представлення ряду в режимі stats.storage.mode=rows: рядок на кожен день
+    @JsonIgnore
     @ElementCollection
     @CollectionTable(name = "project_daily_stats", joinColumns = @JoinColumn(name = "project_id"))
     @MapKeyColumn(name = "date")
+    private Map<LocalDate, DailyStats> storedDailyStats = new HashMap<>();
+
+    // Представлення ряду в режимі stats.storage.mode=packed, формат див. DailySeriesCodec
+    @JsonIgnore
+    @Column(name = "daily_series", length = DailySeriesCodec.MAX_ENCODED_LENGTH)
+    private byte[] dailySeries;
+
+    @Transient
     @Schema(
             description = "Щоденна статистика проєкту (дата -> статистика)",
             example = """
@@ -82,7 +101,7 @@ public class ProjectStats {
                     }
                     """
     )
-    private Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+    private Map<LocalDate, DailyStats> dailyStats;
 
     @Transient
     @Schema(
@@ -123,8 +142,46 @@ public class ProjectStats {
     )
     private List<FileStats> files;
 
+    // Для сутностей у представленні rows повертається сама колекція *_daily_stats, для packed — декодований ряд
+    public Map<LocalDate, DailyStats> getDailyStats() {
+        if (dailySeries == null) {
+            return storedDailyStats;
+        }
+        if (dailyStats == null) {
+            dailyStats = DailySeriesCodec.decode(dailySeries);
+        }
+        return dailyStats;
+    }
+
+    // Упакований ряд кодується одразу, щоб save()/merge() переніс його без явного storeDailyStats
+    public void setDailyStats(Map<LocalDate, DailyStats> dailyStats) {
+        if (dailySeries == null) {
+            this.storedDailyStats = dailyStats;
+        } else {
+            this.dailyStats = dailyStats;
+            this.dailySeries = DailySeriesCodec.encode(dailyStats);
+        }
+    }
+
+    // Переносить ряд у представлення поточного режиму; сервіси викликають після змін робочої мапи на місці
+    public void storeDailyStats(boolean packed) {
+        if (packed) {
+            Map<LocalDate, DailyStats> current = getDailyStats();
+            if (dailySeries == null && current != null) {
+                dailyStats = new HashMap<>(current);
+                current.clear();
+            }
+            dailySeries = DailySeriesCodec.encode(dailyStats);
+        } else if (dailySeries != null) {
+            storedDailyStats.putAll(getDailyStats());
+            dailySeries = null;
+            dailyStats = null;
+        }
+    }
+
     @Schema(hidden = true)
     public void calculateTotalTimes() {
+        Map<LocalDate, DailyStats> dailyStats = getDailyStats();
         if (dailyStats != null && !dailyStats.isEmpty()) {
             this.totalCodingTime = dailyStats.values().stream()
                     .mapToLong(stats -> stats.getCodingTime() != null ? stats.getCodingTime() : 0L)
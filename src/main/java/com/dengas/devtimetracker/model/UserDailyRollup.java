@@ -0,0 +1,45 @@
+package com.dengas.devtimetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Денний підсумок користувача: сума днів його проєктів та кількість проєктів і файлів,
+ * що мають запис за цю дату.
+ * <p>
+ * Модель лише для читання: рядки змінюються приростами в транзакціях запису (див. UserRollupWriter),
+ * тому сутність ніколи не зберігається через JPA.
+ */
+@Data
+@Entity
+@Table(name = "user_daily_rollup")
+public class UserDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    private long codingTime;
+    private long openTime;
+    private long projectCount;
+    private long fileCount;
+
+    @Data
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private String userId;
+
+        private LocalDate date;
+
+        public Key() {
+        }
+
+        public Key(String userId, LocalDate date) {
+            this.userId = userId;
+            this.date = date;
+        }
+    }
+}
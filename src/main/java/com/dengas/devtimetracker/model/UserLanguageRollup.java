@@ -0,0 +1,45 @@
+package com.dengas.devtimetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Денний час користувача за мовою файлів (FileStats.type).
+ * <p>
+ * Як і {@link UserDailyRollup}, модель лише для читання: рядки змінюються приростами в транзакціях запису
+ * (див. UserRollupWriter).
+ */
+@Data
+@Entity
+@Table(name = "user_language_rollup")
+public class UserLanguageRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    private long codingTime;
+    private long openTime;
+
+    @Data
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private String userId;
+
+        private LocalDate date;
+
+        private String type;
+
+        public Key() {
+        }
+
+        public Key(String userId, LocalDate date, String type) {
+            this.userId = userId;
+            this.date = date;
+            this.type = type;
+        }
+    }
+}
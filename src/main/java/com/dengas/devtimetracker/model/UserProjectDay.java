@@ -0,0 +1,43 @@
+package com.dengas.devtimetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * День активності проєкту користувача: за ним рахується кількість різних проєктів у вікні дат.
+ * <p>
+ * Як і {@link UserDailyRollup}, модель лише для читання: рядки додаються й видаляються в транзакціях запису
+ * (див. UserRollupWriter).
+ */
+@Data
+@Entity
+@Table(name = "user_project_day", indexes = @Index(name = "idx_user_project_day_date", columnList = "date"))
+public class UserProjectDay {
+
+    @EmbeddedId
+    private Key id;
+
+    @Data
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private String userId;
+
+        private LocalDate date;
+
+        @Column(name = "project_id")
+        private String projectId;
+
+        public Key() {
+        }
+
+        public Key(String userId, LocalDate date, String projectId) {
+            this.userId = userId;
+            this.date = date;
+            this.projectId = projectId;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.dengas.devtimetracker.repositories;
+
+import com.dengas.devtimetracker.model.DeviceContribution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeviceContributionRepository extends JpaRepository<DeviceContribution, DeviceContribution.Key> {
+
+    @Query("select c from DeviceContribution c where c.id.deviceId = :deviceId and c.id.fileId in :fileIds")
+    List<DeviceContribution> findByDeviceIdAndFileIds(@Param("deviceId") String deviceId,
+                                                      @Param("fileIds") Collection<String> fileIds);
+}
@@ -1,14 +1,92 @@
 package com.dengas.devtimetracker.repositories;
 
 import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.repositories.projections.FileDailyStatsRow;
+import com.dengas.devtimetracker.repositories.projections.FileSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 
 public interface FileStatsRepository extends JpaRepository<FileStats, String> {
     List<FileStats> findByProjectId(String projectId);
-    void deleteByProjectId(String projectId);
-}
\ No newline at end of file
+    List<FileStats> findByProjectIdIn(Collection<String> projectIds);
+    List<FileStats> findByProjectIdAndFilePathIn(String projectId, Collection<String> filePaths);
+
+    // Видалення файлів проєкту фіксованою кількістю SQL-операторів, без завантаження сутностей.
+    // Bulk-оператори виконуються одразу, тому наступні INSERT не конфліктують з унікальним ключем (project_id, file_path)
+    @Transactional
+    default void deleteByProjectId(String projectId) {
+        deleteDeviceStatsByProjectId(projectId);
+        deleteDailyStatsByProjectId(projectId);
+        deleteFilesByProjectId(projectId);
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from file_device_stats where file_id in " +
+            "(select f.id from file_stats f where f.project_id = :projectId)", nativeQuery = true)
+    void deleteDeviceStatsByProjectId(@Param("projectId") String projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from file_daily_stats where file_id in " +
+            "(select f.id from file_stats f where f.project_id = :projectId)", nativeQuery = true)
+    void deleteDailyStatsByProjectId(@Param("projectId") String projectId);
+
+    @Modifying
+    @Query("delete from FileStats f where f.projectId = :projectId")
+    void deleteFilesByProjectId(@Param("projectId") String projectId);
+
+    // Видалення вибраних файлів трьома bulk-операторами (пристрої, дні, файли); список id передається порціями обмеженого розміру
+    @Transactional
+    default void deleteByIdIn(Collection<String> ids) {
+        deleteDeviceStatsByFileIds(ids);
+        deleteDailyStatsByFileIds(ids);
+        deleteFilesByIds(ids);
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from file_device_stats where file_id in (:ids)", nativeQuery = true)
+    void deleteDeviceStatsByFileIds(@Param("ids") Collection<String> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from file_daily_stats where file_id in (:ids)", nativeQuery = true)
+    void deleteDailyStatsByFileIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("delete from FileStats f where f.id in :ids")
+    void deleteFilesByIds(@Param("ids") Collection<String> ids);
+
+    // Файли, чий ряд ще не у поточному представленні (для DailySeriesMigrator)
+    @Query("select distinct f.id from FileStats f join f.storedDailyStats d")
+    List<String> findIdsWithStoredRows(Pageable pageable);
+
+    @Query("select f.id from FileStats f where f.dailySeries is not null")
+    List<String> findIdsWithDailySeries(Pageable pageable);
+
+    // Keyset-пагінація файлів проєкту по id
+    @Query("select f.id as id, f.filePath as filePath, f.type as type, " +
+            "f.codingTime as codingTime, f.openTime as openTime, " +
+            "(select max(key(d)) from FileStats f2 join f2.storedDailyStats d where f2.id = f.id) as lastActiveDate " +
+            "from FileStats f where f.projectId = :projectId and f.id > :after order by f.id")
+    List<FileSummary> findSummariesByProjectId(@Param("projectId") String projectId,
+                                               @Param("after") String after,
+                                               Pageable pageable);
+
+    // Файли без активності у вікні дат не потрапляють у вибірку
+    @Query("select f.id as fileId, f.projectId as projectId, f.filePath as filePath, f.type as type, " +
+            "key(d) as date, d.codingTime as codingTime, d.openTime as openTime " +
+            "from FileStats f join f.storedDailyStats d " +
+            "where f.projectId in :projectIds and key(d) between :from and :to")
+    List<FileDailyStatsRow> findDailyStatsInRange(@Param("projectIds") Collection<String> projectIds,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+}
@@ -1,12 +1,76 @@
 package com.dengas.devtimetracker.repositories;
 
 import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.projections.BadgeInfo;
+import com.dengas.devtimetracker.repositories.projections.DailyStatsRow;
+import com.dengas.devtimetracker.repositories.projections.DashboardTotals;
+import com.dengas.devtimetracker.repositories.projections.ProjectSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectStatsRepository extends JpaRepository<ProjectStats, String> {
     List<ProjectStats> findByUserId(String userId);
-}
\ No newline at end of file
+
+    @Query("select p.projectId from ProjectStats p where p.user.id = :userId and p.projectPath = :projectPath order by p.projectId")
+    List<String> findIdsByUserIdAndProjectPath(@Param("userId") String userId, @Param("projectPath") String projectPath);
+
+    @Query("select count(p) as projectCount, " +
+            "coalesce(sum(p.totalCodingTime), 0L) as totalCodingTime, " +
+            "coalesce(sum(p.totalOpenTime), 0L) as totalOpenTime, " +
+            "coalesce(avg(coalesce(p.totalCodingTime, 0L)), 0.0) as averageCodingTime " +
+            "from ProjectStats p where p.user.id = :userId")
+    DashboardTotals aggregateByUserId(@Param("userId") String userId);
+
+    @Query("select count(p) as projectCount, " +
+            "coalesce(sum(p.totalCodingTime), 0L) as totalCodingTime, " +
+            "coalesce(sum(p.totalOpenTime), 0L) as totalOpenTime, " +
+            "coalesce(avg(coalesce(p.totalCodingTime, 0L)), 0.0) as averageCodingTime " +
+            "from ProjectStats p")
+    DashboardTotals aggregateAll();
+
+    // Власники проєктів для звірки user_daily_rollup
+    @Query("select distinct p.user.id from ProjectStats p where p.user is not null")
+    List<String> findOwnerIds();
+
+    @Query("select p.projectId as projectId, key(d) as date, d.codingTime as codingTime, d.openTime as openTime " +
+            "from ProjectStats p join p.storedDailyStats d " +
+            "where p.projectId in :projectIds and key(d) between :from and :to")
+    List<DailyStatsRow> findDailyStatsInRange(@Param("projectIds") Collection<String> projectIds,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+
+    // Проєкти, чий ряд ще не у поточному представленні (для DailySeriesMigrator)
+    @Query("select distinct p.projectId from ProjectStats p join p.storedDailyStats d")
+    List<String> findIdsWithStoredRows(Pageable pageable);
+
+    @Query("select p.projectId from ProjectStats p where p.dailySeries is not null")
+    List<String> findIdsWithDailySeries(Pageable pageable);
+
+    @Query("select p.totalCodingTime as totalCodingTime, p.githubBadgeVisible as githubBadgeVisible " +
+            "from ProjectStats p where p.projectId = :projectId")
+    Optional<BadgeInfo> findBadgeInfo(@Param("projectId") String projectId);
+
+    // Keyset-пагінація: сторінка починається одразу після projectId з курсора
+    @Query("select p.projectId as projectId, p.projectPath as projectPath, " +
+            "p.totalCodingTime as totalCodingTime, p.totalOpenTime as totalOpenTime, " +
+            "(select max(key(d)) from ProjectStats p2 join p2.storedDailyStats d where p2.projectId = p.projectId) as lastActiveDate " +
+            "from ProjectStats p where p.user.id = :userId and p.projectId > :after order by p.projectId")
+    List<ProjectSummary> findSummariesByUserId(@Param("userId") String userId,
+                                               @Param("after") String after,
+                                               Pageable pageable);
+
+    @Query("select p.projectId as projectId, p.projectPath as projectPath, " +
+            "p.totalCodingTime as totalCodingTime, p.totalOpenTime as totalOpenTime, " +
+            "(select max(key(d)) from ProjectStats p2 join p2.storedDailyStats d where p2.projectId = p.projectId) as lastActiveDate " +
+            "from ProjectStats p where p.projectId > :after order by p.projectId")
+    List<ProjectSummary> findSummaries(@Param("after") String after, Pageable pageable);
+}
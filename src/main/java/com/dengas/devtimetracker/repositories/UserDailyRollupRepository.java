@@ -0,0 +1,32 @@
+package com.dengas.devtimetracker.repositories;
+
+import com.dengas.devtimetracker.model.UserDailyRollup;
+import com.dengas.devtimetracker.repositories.projections.RollupTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyRollupRepository extends JpaRepository<UserDailyRollup, UserDailyRollup.Key> {
+
+    @Query("select distinct r.id.userId from UserDailyRollup r")
+    List<String> findUserIds();
+
+    @Query("select r from UserDailyRollup r where r.id.userId = :userId")
+    List<UserDailyRollup> findByUserId(@Param("userId") String userId);
+
+    // Діапазон по первинному ключу (user_id, date): кількість рядків дорівнює кількості днів у вікні
+    @Query("select coalesce(sum(r.codingTime), 0L) as totalCodingTime, coalesce(sum(r.openTime), 0L) as totalOpenTime " +
+            "from UserDailyRollup r where r.id.userId = :userId and r.id.date between :from and :to")
+    RollupTotals sumByUserIdInRange(@Param("userId") String userId,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    @Query("select coalesce(sum(r.codingTime), 0L) as totalCodingTime, coalesce(sum(r.openTime), 0L) as totalOpenTime " +
+            "from UserDailyRollup r where r.id.date between :from and :to")
+    RollupTotals sumAllInRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
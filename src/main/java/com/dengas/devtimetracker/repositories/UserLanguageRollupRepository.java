@@ -0,0 +1,29 @@
+package com.dengas.devtimetracker.repositories;
+
+import com.dengas.devtimetracker.model.UserLanguageRollup;
+import com.dengas.devtimetracker.repositories.projections.LanguageTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserLanguageRollupRepository extends JpaRepository<UserLanguageRollup, UserLanguageRollup.Key> {
+
+    @Query("select distinct r.id.userId from UserLanguageRollup r")
+    List<String> findUserIds();
+
+    @Query("select r from UserLanguageRollup r where r.id.userId = :userId")
+    List<UserLanguageRollup> findByUserId(@Param("userId") String userId);
+
+    // Діапазон по первинному ключу (user_id, date, type): рядків не більше, ніж днів у вікні на кількість мов
+    @Query("select r.id.type as type, sum(r.codingTime) as codingTime, sum(r.openTime) as openTime " +
+            "from UserLanguageRollup r where r.id.userId = :userId and r.id.date between :from and :to " +
+            "group by r.id.type order by sum(r.codingTime) desc, r.id.type")
+    List<LanguageTotals> sumByUserIdInRange(@Param("userId") String userId,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+}
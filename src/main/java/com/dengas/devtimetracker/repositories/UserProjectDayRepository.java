@@ -0,0 +1,30 @@
+package com.dengas.devtimetracker.repositories;
+
+import com.dengas.devtimetracker.model.UserProjectDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserProjectDayRepository extends JpaRepository<UserProjectDay, UserProjectDay.Key> {
+
+    @Query("select distinct r.id.userId from UserProjectDay r")
+    List<String> findUserIds();
+
+    @Query("select r from UserProjectDay r where r.id.userId = :userId")
+    List<UserProjectDay> findByUserId(@Param("userId") String userId);
+
+    // Діапазон по первинному ключу (user_id, date, project_id): рядків не більше, ніж днів у вікні на кількість проєктів
+    @Query("select count(distinct r.id.projectId) from UserProjectDay r " +
+            "where r.id.userId = :userId and r.id.date between :from and :to")
+    long countProjectsByUserIdInRange(@Param("userId") String userId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    @Query("select count(distinct r.id.projectId) from UserProjectDay r where r.id.date between :from and :to")
+    long countProjectsInRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,7 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+// Лише ті поля проєкту, які потрібні для рендерингу бейджа
+public interface BadgeInfo {
+    Long getTotalCodingTime();
+    Boolean getGithubBadgeVisible();
+}
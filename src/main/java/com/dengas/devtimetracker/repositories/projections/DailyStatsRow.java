@@ -0,0 +1,11 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+import java.time.LocalDate;
+
+// Один рядок project_daily_stats у вибраному вікні дат
+public interface DailyStatsRow {
+    String getProjectId();
+    LocalDate getDate();
+    Long getCodingTime();
+    Long getOpenTime();
+}
@@ -0,0 +1,9 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+// Агреговані показники дашборду, обчислені одним SQL-запитом
+public interface DashboardTotals {
+    Long getProjectCount();
+    Long getTotalCodingTime();
+    Long getTotalOpenTime();
+    Double getAverageCodingTime();
+}
@@ -0,0 +1,14 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+import java.time.LocalDate;
+
+// Один рядок file_daily_stats у вибраному вікні дат разом з атрибутами файлу
+public interface FileDailyStatsRow {
+    String getFileId();
+    String getProjectId();
+    String getFilePath();
+    String getType();
+    LocalDate getDate();
+    Long getCodingTime();
+    Long getOpenTime();
+}
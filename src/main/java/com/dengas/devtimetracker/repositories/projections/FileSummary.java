@@ -0,0 +1,13 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+import java.time.LocalDate;
+
+// Легке представлення файлу для списків: без dailyStats
+public interface FileSummary {
+    String getId();
+    String getFilePath();
+    String getType();
+    Long getCodingTime();
+    Long getOpenTime();
+    LocalDate getLastActiveDate();
+}
@@ -0,0 +1,8 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+// Час користувача за мовою у вікні дат
+public interface LanguageTotals {
+    String getType();
+    Long getCodingTime();
+    Long getOpenTime();
+}
@@ -0,0 +1,12 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+import java.time.LocalDate;
+
+// Легке представлення проєкту для списків: без dailyStats і файлів
+public interface ProjectSummary {
+    String getProjectId();
+    String getProjectPath();
+    Long getTotalCodingTime();
+    Long getTotalOpenTime();
+    LocalDate getLastActiveDate();
+}
@@ -0,0 +1,7 @@
+package com.dengas.devtimetracker.repositories.projections;
+
+// Сума денних підсумків user_daily_rollup за вікно дат
+public interface RollupTotals {
+    Long getTotalCodingTime();
+    Long getTotalOpenTime();
+}
@@ -0,0 +1,18 @@
+package com.dengas.devtimetracker.services;
+
+import com.dengas.devtimetracker.dto.IdempotentResponse;
+
+public interface IdempotencyStore {
+
+    /**
+     * Резервує ключ за запитом, що починає виконуватись.
+     * Повертає null, якщо ключ був вільний, інакше — наявний запис (можливо, ще без відповіді).
+     * Якщо місця для нового ключа немає, кидає IdempotencyStoreFullException.
+     */
+    IdempotentResponse reserve(String key);
+
+    void complete(String key, IdempotentResponse response);
+
+    // Знімає резерв, щоб невдалий запит можна було повторити з тим самим ключем
+    void release(String key);
+}
@@ -1,24 +1,57 @@
 package com.dengas.devtimetracker.services;
 
+import com.dengas.devtimetracker.dto.AnalyticsSummary;
+import com.dengas.devtimetracker.dto.Badge;
+import com.dengas.devtimetracker.dto.BulkLoadResult;
+import com.dengas.devtimetracker.dto.CursorPage;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.DeviceCountersRequest;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.HeartbeatResult;
+import com.dengas.devtimetracker.dto.ProjectReference;
 import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.dto.RollupVerificationResult;
+import com.dengas.devtimetracker.dto.TopFile;
 import com.dengas.devtimetracker.model.FileStats;
 import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.projections.FileSummary;
+import com.dengas.devtimetracker.repositories.projections.LanguageTotals;
+import com.dengas.devtimetracker.repositories.projections.ProjectSummary;
+import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
 public interface ProjectStatsService {
-    ResponseWrapper<List<ProjectStats>> getAllProjectStats(Jwt jwt);
-    ResponseWrapper<ProjectStats> getProjectStats(String projectId, Jwt jwt);
+    ResponseWrapper<List<ProjectStats>> getAllProjectStats(DateRange range, Jwt jwt);
+    ResponseWrapper<StreamingResponseBody> streamAllProjectStats(DateRange range, MediaType mediaType, Jwt jwt);
+    ResponseWrapper<ProjectStats> getProjectStats(String projectId, DateRange range, Jwt jwt);
     ResponseWrapper<ProjectStats> createProject(ProjectStats stats, Jwt jwt);
     ResponseWrapper<ProjectStats> updateProjectStats(String projectId, ProjectStats stats, Jwt jwt);
     ResponseWrapper<ProjectStats> patchProjectStats(String projectId, ProjectStats stats, Jwt jwt);
+    ResponseWrapper<HeartbeatResult> recordHeartbeats(String projectId, HeartbeatRequest request, Jwt jwt);
+    ResponseWrapper<HeartbeatResult> syncDeviceCounters(String projectId, DeviceCountersRequest request, Jwt jwt);
+    void importStats(InputStream input, OutputStream output, Jwt jwt) throws IOException;
+    ResponseWrapper<BulkLoadResult> bulkLoad(InputStream csv, Jwt jwt);
+    ResponseWrapper<RollupVerificationResult> verifyRollups(String userId, boolean repair, Jwt jwt);
     ResponseWrapper<String> deleteProject(String projectId, Jwt jwt);
-    ResponseWrapper<List<FileStats>> getProjectFiles(String projectId);
-    ResponseWrapper<Map<String, Object>> getDashboardStats(Jwt jwt);
+    ResponseWrapper<List<FileStats>> getProjectFiles(String projectId, DateRange range);
+    ResponseWrapper<StreamingResponseBody> streamProjectFiles(String projectId, DateRange range, MediaType mediaType);
+    ResponseWrapper<ProjectReference> findProjectByPath(String projectPath, Jwt jwt);
+    ResponseWrapper<CursorPage<ProjectSummary>> getProjectSummaries(String after, Integer size, Jwt jwt);
+    ResponseWrapper<CursorPage<FileSummary>> getFileSummaries(String projectId, String after, Integer size, Jwt jwt);
+    ResponseWrapper<Map<String, Object>> getDashboardStats(DateRange range, Jwt jwt);
+    ResponseWrapper<List<LanguageTotals>> getLanguageStats(DateRange range, Jwt jwt);
+    ResponseWrapper<List<TopFile>> getTopFiles(String projectId, String type, DateRange range, Integer limit, Jwt jwt);
+    ResponseWrapper<AnalyticsSummary> getAnalytics(String projectId, DateRange range, int lastDays, Jwt jwt);
 //    ResponseWrapper<List<Map<String, Object>>> getTeamMemberProjects(Jwt jwt);
 //    ResponseWrapper<List<ProjectStats>> getProjectsByTeamId(Long teamId, Jwt jwt);
     String generateBadge(String label, String value, String color);
+    Badge getBadge(String projectId, String color);
     ProjectStats findProjectById(String projectId);
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.Badge;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Обмежений LRU-кеш відрендерених бейджів: projectId -> (color -> бейдж).
+ * Інвалідація виконується по projectId при кожній зміні тоталів проєкту.
+ * Бейджі неіснуючих проєктів не кешуються: ендпоінт публічний, і запити з довільними projectId
+ * інакше витісняли б з кешу справжні бейджі.
+ */
+@Component
+public class BadgeCache {
+
+    private final InvalidatingCache<Badge> badges;
+
+    public BadgeCache(StatsProperties statsProperties) {
+        StatsProperties.Badge properties = statsProperties.getBadge();
+        this.badges = new InvalidatingCache<>(properties.getCacheSize(), properties.getColorsPerProject(), properties.getTtl());
+    }
+
+    public Badge get(String projectId, String color, Supplier<Badge> renderer) {
+        return badges.get(projectId, color, renderer, Badge::isFound);
+    }
+
+    public void evict(String projectId) {
+        badges.evict(projectId);
+    }
+
+    public void evictAfterCommit(String projectId) {
+        badges.evictAfterCommit(projectId);
+    }
+
+    public void clear() {
+        badges.clear();
+    }
+}
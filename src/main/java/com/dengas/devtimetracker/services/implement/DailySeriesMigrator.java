@@ -0,0 +1,90 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Приводить збережені щоденні ряди до режиму stats.storage.mode: у режимі packed рядки *_daily_stats
+ * пакуються в daily_series, у режимі rows упаковані ряди розгортаються назад у рядки.
+ * Конвертація йде пакетами, кожен у власній транзакції, тому її можна безпечно перервати й продовжити.
+ */
+@Component
+public class DailySeriesMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailySeriesMigrator.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final FileStatsRepository fileStatsRepository;
+    private final StatsProperties.Storage properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public DailySeriesMigrator(ProjectStatsRepository projectStatsRepository,
+                               FileStatsRepository fileStatsRepository,
+                               StatsProperties statsProperties,
+                               PlatformTransactionManager transactionManager) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.fileStatsRepository = fileStatsRepository;
+        this.properties = statsProperties.getStorage();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        boolean packed = properties.isPacked();
+
+        int files = convert(packed ? fileStatsRepository::findIdsWithStoredRows : fileStatsRepository::findIdsWithDailySeries,
+                ids -> {
+                    List<FileStats> batch = fileStatsRepository.findAllById(ids);
+                    batch.forEach(file -> {
+                        file.getDailyStats();
+                        file.storeDailyStats(packed);
+                    });
+                    return batch.size();
+                });
+        int projects = convert(packed ? projectStatsRepository::findIdsWithStoredRows : projectStatsRepository::findIdsWithDailySeries,
+                ids -> {
+                    List<ProjectStats> batch = projectStatsRepository.findAllById(ids);
+                    batch.forEach(project -> {
+                        project.getDailyStats();
+                        project.storeDailyStats(packed);
+                    });
+                    return batch.size();
+                });
+
+        if (files > 0 || projects > 0) {
+            logger.info("Converted daily series to {} storage: {} files, {} projects", properties.getMode(), files, projects);
+        }
+    }
+
+    // Сконвертовані записи випадають з вибірки, тому щоразу читається перша сторінка
+    private int convert(Function<Pageable, List<String>> pendingIds, Function<List<String>, Integer> converter) {
+        int total = 0;
+        Pageable firstPage = PageRequest.of(0, BATCH_SIZE);
+        while (true) {
+            Integer converted = transactionTemplate.execute(status -> {
+                List<String> ids = pendingIds.apply(firstPage);
+                return ids.isEmpty() ? 0 : converter.apply(ids);
+            });
+            if (converted == null || converted == 0) {
+                return total;
+            }
+            total += converted;
+        }
+    }
+}
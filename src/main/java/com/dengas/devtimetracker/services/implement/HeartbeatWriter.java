@@ -0,0 +1,239 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.DeviceCounter;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.exceptions.ResourceNotFoundException;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.DeviceContribution;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.DeviceContributionRepository;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Застосовує прирости часу (heartbeats) до існуючих рядків статистики.
+ * Завантажуються та змінюються лише файли й дати, присутні в пакеті, тому вартість запису
+ * залежить від обсягу змін, а не від розміру проєкту.
+ * Лічильники пристроїв (див. DeviceContribution) зводяться до тих самих приростів.
+ */
+@Component
+public class HeartbeatWriter {
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final FileStatsRepository fileStatsRepository;
+    private final DeviceContributionRepository deviceContributionRepository;
+    private final BadgeCache badgeCache;
+    private final UserRollupWriter rollupWriter;
+    private final TimeSeriesEngine timeSeriesEngine;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final StatsProperties.Storage storage;
+
+    public HeartbeatWriter(ProjectStatsRepository projectStatsRepository,
+                           FileStatsRepository fileStatsRepository,
+                           DeviceContributionRepository deviceContributionRepository,
+                           BadgeCache badgeCache,
+                           UserRollupWriter rollupWriter,
+                           TimeSeriesEngine timeSeriesEngine,
+                           ProjectWriteCoordinator writeCoordinator,
+                           StatsProperties statsProperties) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.fileStatsRepository = fileStatsRepository;
+        this.deviceContributionRepository = deviceContributionRepository;
+        this.badgeCache = badgeCache;
+        this.rollupWriter = rollupWriter;
+        this.timeSeriesEngine = timeSeriesEngine;
+        this.writeCoordinator = writeCoordinator;
+        this.storage = statsProperties.getStorage();
+    }
+
+    // Прирости комутативні, тому при конфлікті з паралельним записом пакет безпечно застосовується повторно
+    public ProjectStats write(String projectId, List<Heartbeat> heartbeats) {
+        return writeCoordinator.writeWithRetry(projectId, () -> apply(projectId, heartbeats));
+    }
+
+    // Лічильники пристрою накопичувальні: кожен пакет зливається з уже записаним максимумом,
+    // тому повтор, перестановка синхронізацій чи обробка на іншому вузлі дають той самий результат
+    public ProjectStats writeDeviceCounters(String projectId, String deviceId, List<DeviceCounter> counters) {
+        return writeCoordinator.writeWithRetry(projectId, () -> applyDeviceCounters(projectId, deviceId, counters));
+    }
+
+    @Transactional
+    public ProjectStats apply(String projectId, List<Heartbeat> heartbeats) {
+        ProjectStats project = findProject(projectId);
+
+        Set<String> filePaths = new HashSet<>();
+        for (Heartbeat heartbeat : heartbeats) {
+            filePaths.add(heartbeat.getFilePath());
+        }
+
+        applyDeltas(project, loadFiles(projectId, filePaths), heartbeats);
+        return project;
+    }
+
+    @Transactional
+    public ProjectStats applyDeviceCounters(String projectId, String deviceId, List<DeviceCounter> counters) {
+        ProjectStats project = findProject(projectId);
+
+        // Кілька значень однієї комірки в пакеті зливаються так само, як і з записаним станом — максимумом
+        Map<Cell, DeviceCounter> merged = new LinkedHashMap<>();
+        for (DeviceCounter counter : counters) {
+            merged.merge(new Cell(counter.getFilePath(), counter.getDate()), counter, HeartbeatWriter::max);
+        }
+
+        Set<String> filePaths = new HashSet<>();
+        for (Cell cell : merged.keySet()) {
+            filePaths.add(cell.filePath());
+        }
+        Map<String, FileStats> files = loadFiles(projectId, filePaths);
+
+        Map<String, String> filePathsById = new HashMap<>();
+        for (FileStats file : files.values()) {
+            filePathsById.put(file.getId(), file.getFilePath());
+        }
+        Map<Cell, DeviceContribution> contributions = new HashMap<>();
+        if (!filePathsById.isEmpty()) {
+            for (DeviceContribution contribution
+                    : deviceContributionRepository.findByDeviceIdAndFileIds(deviceId, filePathsById.keySet())) {
+                Cell cell = new Cell(filePathsById.get(contribution.getId().getFileId()), contribution.getId().getDate());
+                contributions.put(cell, contribution);
+            }
+        }
+
+        // До агрегатів додається лише перевищення над відомим внеском пристрою
+        List<Heartbeat> deltas = new ArrayList<>();
+        for (Map.Entry<Cell, DeviceCounter> entry : merged.entrySet()) {
+            DeviceCounter counter = entry.getValue();
+            DeviceContribution known = contributions.get(entry.getKey());
+            long codingDelta = Math.max(0L, counter.getCodingTime() - (known != null ? valueOf(known.getCodingTime()) : 0L));
+            long openDelta = Math.max(0L, counter.getOpenTime() - (known != null ? valueOf(known.getOpenTime()) : 0L));
+            if (codingDelta > 0 || openDelta > 0) {
+                deltas.add(new Heartbeat(counter.getFilePath(), counter.getType(), counter.getDate(), codingDelta, openDelta));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return project;
+        }
+        applyDeltas(project, files, deltas);
+
+        // Нові файли отримали id під час збереження, тож внески можна прив'язати до них
+        List<DeviceContribution> newContributions = new ArrayList<>();
+        for (Heartbeat delta : deltas) {
+            Cell cell = new Cell(delta.getFilePath(), delta.getDate());
+            DeviceCounter counter = merged.get(cell);
+            DeviceContribution known = contributions.get(cell);
+            if (known == null) {
+                DeviceContribution.Key key = new DeviceContribution.Key(files.get(cell.filePath()).getId(), cell.date(), deviceId);
+                newContributions.add(new DeviceContribution(key, counter.getCodingTime(), counter.getOpenTime()));
+            } else {
+                known.setCodingTime(Math.max(valueOf(known.getCodingTime()), counter.getCodingTime()));
+                known.setOpenTime(Math.max(valueOf(known.getOpenTime()), counter.getOpenTime()));
+            }
+        }
+        deviceContributionRepository.saveAll(newContributions);
+        return project;
+    }
+
+    // Застосовує прирости до проєкту та файлів; files містить уже існуючі файли пакета, нові додаються в неї
+    private void applyDeltas(ProjectStats project, Map<String, FileStats> files, List<Heartbeat> heartbeats) {
+        String projectId = project.getProjectId();
+
+        // Валідуємо весь пакет до внесення змін, щоб не залишати частково застосованих даних
+        for (Heartbeat heartbeat : heartbeats) {
+            if (!files.containsKey(heartbeat.getFilePath())
+                    && (heartbeat.getType() == null || heartbeat.getType().trim().isEmpty())) {
+                throw new ValidationException("File type is required for new file: " + heartbeat.getFilePath());
+            }
+        }
+
+        Map<String, FileStats> touched = new LinkedHashMap<>();
+        List<FileStats> newFiles = new ArrayList<>();
+        UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+        for (Heartbeat heartbeat : heartbeats) {
+            FileStats file = files.get(heartbeat.getFilePath());
+            if (file == null) {
+                file = new FileStats();
+                file.setProjectId(projectId);
+                file.setFilePath(heartbeat.getFilePath());
+                file.setType(heartbeat.getType());
+                files.put(file.getFilePath(), file);
+                newFiles.add(file);
+            }
+            touched.put(file.getFilePath(), file);
+
+            long codingDelta = heartbeat.getCodingDelta();
+            long openDelta = heartbeat.getOpenDelta();
+
+            boolean newFileDay = addDelta(file.getDailyStats(), heartbeat.getDate(), codingDelta, openDelta);
+            file.setCodingTime(valueOf(file.getCodingTime()) + codingDelta);
+            file.setOpenTime(valueOf(file.getOpenTime()) + openDelta);
+
+            boolean newProjectDay = addDelta(project.getDailyStats(), heartbeat.getDate(), codingDelta, openDelta);
+            project.setTotalCodingTime(valueOf(project.getTotalCodingTime()) + codingDelta);
+            project.setTotalOpenTime(valueOf(project.getTotalOpenTime()) + openDelta);
+            rollup.add(heartbeat.getDate(), codingDelta, openDelta, newProjectDay ? 1 : 0, newFileDay ? 1 : 0);
+            if (newProjectDay) {
+                rollup.addProjectDay(projectId, heartbeat.getDate(), 1);
+            }
+            rollup.addLanguage(file.getType(), heartbeat.getDate(), codingDelta, openDelta);
+        }
+
+        for (FileStats file : touched.values()) {
+            file.storeDailyStats(storage.isPacked());
+        }
+        project.storeDailyStats(storage.isPacked());
+
+        // Існуючі файли та проєкт зберігаються через dirty checking, явно зберігаємо лише нові файли
+        fileStatsRepository.saveAll(newFiles);
+        rollupWriter.apply(UserRollupWriter.userIdOf(project), rollup);
+        badgeCache.evictAfterCommit(projectId);
+        timeSeriesEngine.recordHeartbeatsAfterCommit(project, heartbeats);
+    }
+
+    private ProjectStats findProject(String projectId) {
+        return projectStatsRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+    }
+
+    private Map<String, FileStats> loadFiles(String projectId, Set<String> filePaths) {
+        Map<String, FileStats> files = new HashMap<>();
+        for (FileStats file : fileStatsRepository.findByProjectIdAndFilePathIn(projectId, filePaths)) {
+            files.put(file.getFilePath(), file);
+        }
+        return files;
+    }
+
+    private static DeviceCounter max(DeviceCounter a, DeviceCounter b) {
+        String type = a.getType() != null && !a.getType().trim().isEmpty() ? a.getType() : b.getType();
+        return new DeviceCounter(a.getFilePath(), type, a.getDate(),
+                Math.max(a.getCodingTime(), b.getCodingTime()),
+                Math.max(a.getOpenTime(), b.getOpenTime()));
+    }
+
+    // Повертає true, якщо за цю дату запису ще не було
+    private boolean addDelta(Map<LocalDate, DailyStats> dailyStats, LocalDate date, long codingDelta, long openDelta) {
+        DailyStats current = dailyStats.get(date);
+        if (current == null) {
+            dailyStats.put(date, new DailyStats(codingDelta, openDelta));
+            return true;
+        }
+        dailyStats.put(date, new DailyStats(
+                valueOf(current.getCodingTime()) + codingDelta,
+                valueOf(current.getOpenTime()) + openDelta));
+        return false;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private record Cell(String filePath, LocalDate date) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.IdempotentResponse;
+import com.dengas.devtimetracker.exceptions.IdempotencyStoreFullException;
+import com.dengas.devtimetracker.services.IdempotencyStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Обмежене сховище ключів у пам'яті інстансу.
+ * Записи впорядковані за часом останньої зміни, а TTL однаковий для всіх, тож прострочені ключі
+ * завжди на початку мапи і видаляються за один прохід без окремого планувальника.
+ * При переповненні витісняється найстаріший завершений запис; резерви запитів, що ще виконуються, не витісняються,
+ * інакше повтор такого запиту виконав би запис удруге. Якщо всі записи — резерви, новий ключ відхиляється.
+ */
+@Component
+@ConditionalOnProperty(prefix = "stats.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(StatsProperties statsProperties) {
+        StatsProperties.Idempotency properties = statsProperties.getIdempotency();
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.maxEntries = properties.getMaxEntries();
+    }
+
+    @Override
+    public synchronized IdempotentResponse reserve(String key) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing.response();
+        }
+        if (entries.size() >= maxEntries && !evictOldestCompleted()) {
+            throw new IdempotencyStoreFullException("Too many requests with Idempotency-Key are in progress");
+        }
+        entries.put(key, new Entry(new IdempotentResponse(), now + ttlMillis));
+        return null;
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotentResponse response) {
+        // Перевставка переносить ключ у кінець мапи разом з новим терміном дії
+        entries.remove(key);
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiresAt() <= now) {
+            iterator.remove();
+        }
+    }
+
+    private boolean evictOldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().response().isInProgress()) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry(IdempotentResponse response, long expiresAt) {
+    }
+}
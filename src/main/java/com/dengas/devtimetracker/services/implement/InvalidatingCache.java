@@ -0,0 +1,123 @@
+package com.dengas.devtimetracker.services.implement;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Обмежений LRU-кеш двох рівнів: key -> (subKey -> value) з інвалідацією по key.
+ * Ключі розподілені між сегментами з окремими локами, тож читання різних ключів не конкурують за один монітор.
+ * Кеш локальний для інстансу: записи на інших вузлах його не інвалідують,
+ * тому кожне значення живе не довше за ttl.
+ */
+class InvalidatingCache<V> {
+
+    private static final int SEGMENTS = 16;
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    private final int valuesPerKey;
+    private final long ttlNanos;
+    private final List<Map<String, Map<String, Entry<V>>>> segments;
+
+    // Кількість повних очищень; значення, завантажене до будь-якого з них, у кеш не потрапляє
+    private final AtomicLong clears = new AtomicLong();
+
+    InvalidatingCache(int maxKeys, int valuesPerKey, Duration ttl) {
+        this.valuesPerKey = valuesPerKey;
+        this.ttlNanos = ttl.toNanos();
+        int keysPerSegment = Math.max(1, (maxKeys + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new ArrayList<>(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Entry<V>>> eldest) {
+                    return size() > keysPerSegment;
+                }
+            });
+        }
+    }
+
+    // cacheable відсікає значення, які не варто тримати в кеші (наприклад, промахи)
+    V get(String key, String subKey, Supplier<V> loader, Predicate<V> cacheable) {
+        Map<String, Map<String, Entry<V>>> segment = segment(key);
+        Map<String, Entry<V>> byKey;
+        long generation = clears.get();
+        synchronized (segment) {
+            byKey = segment.get(key);
+            Entry<V> cached = byKey != null ? byKey.get(subKey) : null;
+            if (cached != null) {
+                if (System.nanoTime() - cached.loadedAt() < ttlNanos) {
+                    return cached.value();
+                }
+                byKey.remove(subKey);
+            }
+        }
+
+        // Завантаження виконується поза локом; інвалідація замінює мапу ключа,
+        // тому значення, прочитане до зміни, у кеш уже не потрапить. Інвалідація інших ключів його не зачіпає
+        long loadedAt = System.nanoTime();
+        V value = loader.get();
+        if (!cacheable.test(value)) {
+            return value;
+        }
+
+        synchronized (segment) {
+            Map<String, Entry<V>> current = segment.get(key);
+            if (current == byKey && clears.get() == generation) {
+                if (current == null) {
+                    current = new HashMap<>();
+                    segment.put(key, current);
+                }
+                if (current.size() < valuesPerKey) {
+                    current.put(subKey, new Entry<>(value, loadedAt));
+                }
+            }
+        }
+        return value;
+    }
+
+    // Мапа підміняється навіть для відсутнього ключа: так паралельне завантаження побачить інвалідацію
+    void evict(String key) {
+        Map<String, Map<String, Entry<V>>> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, new HashMap<>());
+        }
+    }
+
+    // Повторна інвалідація після коміту не дає паралельному читачу закешувати ще не закомічений стан
+    void evictAfterCommit(String key) {
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    void clear() {
+        clears.incrementAndGet();
+        for (Map<String, Map<String, Entry<V>>> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Map<String, Map<String, Entry<V>>> segment(String key) {
+        return segments.get(Math.floorMod(key.hashCode(), SEGMENTS));
+    }
+}
@@ -0,0 +1,91 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.IdempotentResponse;
+import com.dengas.devtimetracker.services.IdempotencyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Сховище ключів у таблиці idempotency_keys для кількох інстансів.
+ * Резерв — це вставка рядка: первинний ключ гарантує, що виконання отримає лише один з паралельних повторів.
+ */
+@Component
+@ConditionalOnProperty(prefix = "stats.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, StatsProperties statsProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = statsProperties.getIdempotency().getTtl();
+    }
+
+    @Override
+    public IdempotentResponse reserve(String key) {
+        while (true) {
+            Instant now = Instant.now();
+            try {
+                jdbcTemplate.update("insert into idempotency_keys (idempotency_key, expires_at) values (?, ?)",
+                        key, Timestamp.from(now.plus(ttl)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                List<StoredKey> rows = jdbcTemplate.query(
+                        "select fingerprint, status, content_type, body, expires_at from idempotency_keys where idempotency_key = ?",
+                        (rs, rowNum) -> new StoredKey(
+                                new IdempotentResponse(rs.getString("fingerprint"), rs.getInt("status"),
+                                        rs.getString("content_type"), rs.getBytes("body")),
+                                rs.getTimestamp("expires_at")),
+                        key);
+                if (rows.isEmpty()) {
+                    // Резерв щойно знято — пробуємо вставити знову
+                    continue;
+                }
+                StoredKey stored = rows.get(0);
+                if (stored.expiresAt().toInstant().isAfter(now)) {
+                    return stored.response();
+                }
+                // Прострочений ключ ще не прибрано: видаляємо саме цей рядок і резервуємо заново
+                jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and expires_at = ?",
+                        key, stored.expiresAt());
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        jdbcTemplate.update("update idempotency_keys set fingerprint = ?, status = ?, content_type = ?, body = ?, expires_at = ? " +
+                        "where idempotency_key = ?",
+                response.getFingerprint(), response.getStatus(), response.getContentType(), response.getBody(),
+                Timestamp.from(Instant.now().plus(ttl)), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and body is null", key);
+    }
+
+    @Scheduled(fixedDelayString = "#{@statsProperties.idempotency.purgeInterval.toMillis()}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("delete from idempotency_keys where expires_at < ?", Timestamp.from(Instant.now()));
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private record StoredKey(IdempotentResponse response, Timestamp expiresAt) {
+    }
+}
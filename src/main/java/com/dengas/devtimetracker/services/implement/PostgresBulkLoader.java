@@ -0,0 +1,207 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.BulkLoadResult;
+import jakarta.validation.ValidationException;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Масове завантаження історії з інших трекерів через PostgreSQL COPY FROM STDIN.
+ * <p>
+ * Вхід — CSV з заголовком і рядком на кожен файл-день:
+ * {@code user_id,project_path,file_path,type,date,coding_time,open_time}.
+ * Потік без розбору в Java іде в тимчасову staging-таблицю, далі кілька set-based операторів
+ * зливають його з робочими таблицями: відсутні проєкти й файли створюються, значення файл-днів
+ * замінюються (повторне завантаження не подвоює час), після чого project_daily_stats та тотали
+ * перераховуються лише для зачеплених проєктів і дат, так само як і дні user_daily_rollup та user_language_rollup;
+ * до user_project_day додаються зачеплені дні проєктів.
+ * Усе виконується однією транзакцією.
+ * <p>
+ * Оператори пишуть представлення rows (*_daily_stats), тому в режимі packed завантаження відхиляється.
+ */
+@Component
+public class PostgresBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresBulkLoader.class);
+
+    private static final String COPY_SQL = "copy stage_file_days (user_id, project_path, file_path, type, date, coding_time, open_time) " +
+            "from stdin with (format csv, header true)";
+
+    // Тимчасові таблиці не пишуться в WAL і зникають разом з транзакцією
+    private static final String CREATE_STAGE_SQL = "create temp table stage_file_days (" +
+            "user_id varchar(255), project_path varchar(255), file_path varchar(255), type varchar(255), " +
+            "date date, coding_time bigint, open_time bigint) on commit drop";
+
+    // Ті самі правила, що й validateFileStats, плюс наявний власник
+    private static final String REJECT_INVALID_SQL = "delete from stage_file_days s where " +
+            "s.user_id is null or s.date is null " +
+            "or s.project_path is null or trim(s.project_path) = '' " +
+            "or s.file_path is null or trim(s.file_path) = '' " +
+            "or s.type is null or trim(s.type) = '' " +
+            "or s.coding_time is null or s.open_time is null or s.coding_time < 0 or s.open_time < 0 " +
+            "or not exists (select 1 from users u where u.id = s.user_id)";
+
+    private static final String STAGE_PROJECTS_SQL = "create temp table stage_projects on commit drop as " +
+            "select k.user_id, k.project_path, " +
+            "(select min(p.project_id) from project_stats p where p.user_id = k.user_id and p.project_path = k.project_path) as project_id " +
+            "from (select distinct user_id, project_path from stage_file_days) k";
+
+    private static final String ASSIGN_PROJECT_IDS_SQL = "update stage_projects set project_id = gen_random_uuid()::text where project_id is null";
+
+    private static final String INSERT_PROJECTS_SQL = "insert into project_stats " +
+            "(project_id, user_id, project_path, github_badge_visible, total_coding_time, total_open_time, version) " +
+            "select sp.project_id, sp.user_id, sp.project_path, false, 0, 0, 0 from stage_projects sp " +
+            "where not exists (select 1 from project_stats p where p.project_id = sp.project_id)";
+
+    private static final String INSERT_FILES_SQL = "insert into file_stats (id, project_id, file_path, type, coding_time, open_time) " +
+            "select gen_random_uuid()::text, sp.project_id, s.file_path, max(s.type), 0, 0 " +
+            "from stage_file_days s join stage_projects sp on sp.user_id = s.user_id and sp.project_path = s.project_path " +
+            "group by sp.project_id, s.file_path " +
+            "on conflict (project_id, file_path) do nothing";
+
+    private static final String STAGE_FILE_DAYS_SQL = "create temp table stage_file_ids on commit drop as " +
+            "select f.id as file_id, f.project_id, s.date, sum(s.coding_time) as coding_time, sum(s.open_time) as open_time " +
+            "from stage_file_days s " +
+            "join stage_projects sp on sp.user_id = s.user_id and sp.project_path = s.project_path " +
+            "join file_stats f on f.project_id = sp.project_id and f.file_path = s.file_path " +
+            "group by f.id, f.project_id, s.date";
+
+    private static final String MERGE_FILE_DAYS_SQL = "insert into file_daily_stats (file_id, date, coding_time, open_time) " +
+            "select file_id, date, coding_time, open_time from stage_file_ids " +
+            "on conflict (file_id, date) do update set coding_time = excluded.coding_time, open_time = excluded.open_time";
+
+    private static final String UPDATE_FILE_TOTALS_SQL = "update file_stats f set coding_time = t.coding_time, open_time = t.open_time " +
+            "from (select d.file_id, sum(d.coding_time) as coding_time, sum(d.open_time) as open_time from file_daily_stats d " +
+            "where d.file_id in (select distinct file_id from stage_file_ids) group by d.file_id) t " +
+            "where f.id = t.file_id";
+
+    // Дні проєкту перераховуються з файлів лише для пар (проєкт, дата), яких торкнулося завантаження
+    private static final String MERGE_PROJECT_DAYS_SQL = "insert into project_daily_stats (project_id, date, coding_time, open_time) " +
+            "select f.project_id, d.date, sum(d.coding_time), sum(d.open_time) " +
+            "from file_daily_stats d join file_stats f on f.id = d.file_id " +
+            "where (f.project_id, d.date) in (select distinct project_id, date from stage_file_ids) " +
+            "group by f.project_id, d.date " +
+            "on conflict (project_id, date) do update set coding_time = excluded.coding_time, open_time = excluded.open_time";
+
+    // Зміна версії змушує паралельні JPA-записи цих проєктів перечитати стан (див. ProjectWriteCoordinator)
+    private static final String UPDATE_PROJECT_TOTALS_SQL = "update project_stats p " +
+            "set total_coding_time = t.coding_time, total_open_time = t.open_time, version = p.version + 1 " +
+            "from (select d.project_id, sum(d.coding_time) as coding_time, sum(d.open_time) as open_time from project_daily_stats d " +
+            "where d.project_id in (select project_id from stage_projects) group by d.project_id) t " +
+            "where p.project_id = t.project_id";
+
+    // Прирости тут невідомі (значення файл-днів замінюються), тому зачеплені дні user_daily_rollup
+    // перераховуються з робочих таблиць повністю
+    private static final String MERGE_USER_ROLLUP_SQL = "insert into user_daily_rollup " +
+            "(user_id, date, coding_time, open_time, project_count, file_count) " +
+            "select k.user_id, k.date, pd.coding_time, pd.open_time, pd.project_count, fd.file_count " +
+            "from (select distinct sp.user_id, s.date from stage_file_ids s join stage_projects sp on sp.project_id = s.project_id) k " +
+            "cross join lateral (select coalesce(sum(d.coding_time), 0) as coding_time, coalesce(sum(d.open_time), 0) as open_time, " +
+            "count(*) as project_count from project_daily_stats d join project_stats p on p.project_id = d.project_id " +
+            "where p.user_id = k.user_id and d.date = k.date) pd " +
+            "cross join lateral (select count(*) as file_count from file_daily_stats d join file_stats f on f.id = d.file_id " +
+            "join project_stats p on p.project_id = f.project_id where p.user_id = k.user_id and d.date = k.date) fd " +
+            "on conflict (user_id, date) do update set coding_time = excluded.coding_time, open_time = excluded.open_time, " +
+            "project_count = excluded.project_count, file_count = excluded.file_count";
+
+    // Типи наявних файлів завантаження не змінює, тож мови зачепленого дня можуть лише додатися
+    private static final String MERGE_LANGUAGE_ROLLUP_SQL = "insert into user_language_rollup " +
+            "(user_id, date, type, coding_time, open_time) " +
+            "select p.user_id, d.date, coalesce(f.type, 'UNKNOWN'), sum(coalesce(d.coding_time, 0)), sum(coalesce(d.open_time, 0)) " +
+            "from file_daily_stats d join file_stats f on f.id = d.file_id join project_stats p on p.project_id = f.project_id " +
+            "where (p.user_id, d.date) in (select distinct sp.user_id, s.date from stage_file_ids s " +
+            "join stage_projects sp on sp.project_id = s.project_id) " +
+            "group by p.user_id, d.date, coalesce(f.type, 'UNKNOWN') " +
+            "on conflict (user_id, date, type) do update set coding_time = excluded.coding_time, open_time = excluded.open_time";
+
+    // Значення файл-днів лише замінюються, тож дні проєктів можуть тільки з'явитися
+    private static final String INSERT_USER_PROJECT_DAYS_SQL = "insert into user_project_day (user_id, date, project_id) " +
+            "select distinct sp.user_id, s.date, s.project_id from stage_file_ids s " +
+            "join stage_projects sp on sp.project_id = s.project_id " +
+            "on conflict do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsProperties statsProperties;
+    private final BadgeCache badgeCache;
+    private final TimeSeriesEngine timeSeriesEngine;
+
+    public PostgresBulkLoader(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              StatsProperties statsProperties,
+                              BadgeCache badgeCache,
+                              TimeSeriesEngine timeSeriesEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statsProperties = statsProperties;
+        this.badgeCache = badgeCache;
+        this.timeSeriesEngine = timeSeriesEngine;
+    }
+
+    public BulkLoadResult load(InputStream csv) {
+        if (statsProperties.getStorage().isPacked()) {
+            throw new ValidationException("Bulk load writes daily rows and is not available in packed storage mode");
+        }
+
+        long start = System.nanoTime();
+        BulkLoadResult result = transactionTemplate.execute(status -> {
+            BulkLoadResult loaded = new BulkLoadResult();
+            jdbcTemplate.execute(CREATE_STAGE_SQL);
+            loaded.setRowsStaged(copyIn(csv));
+            loaded.setRowsRejected(jdbcTemplate.update(REJECT_INVALID_SQL));
+            // Статистика staging-таблиці потрібна планувальнику для вибору hash join на великих обсягах
+            jdbcTemplate.execute("analyze stage_file_days");
+
+            jdbcTemplate.execute(STAGE_PROJECTS_SQL);
+            jdbcTemplate.update(ASSIGN_PROJECT_IDS_SQL);
+            loaded.setProjectsCreated(jdbcTemplate.update(INSERT_PROJECTS_SQL));
+            loaded.setFilesCreated(jdbcTemplate.update(INSERT_FILES_SQL));
+
+            jdbcTemplate.execute(STAGE_FILE_DAYS_SQL);
+            jdbcTemplate.execute("analyze stage_file_ids");
+            loaded.setFileDaysWritten(jdbcTemplate.update(MERGE_FILE_DAYS_SQL));
+            jdbcTemplate.update(UPDATE_FILE_TOTALS_SQL);
+            loaded.setProjectDaysWritten(jdbcTemplate.update(MERGE_PROJECT_DAYS_SQL));
+            jdbcTemplate.update(UPDATE_PROJECT_TOTALS_SQL);
+            jdbcTemplate.update(MERGE_USER_ROLLUP_SQL);
+            jdbcTemplate.update(MERGE_LANGUAGE_ROLLUP_SQL);
+            jdbcTemplate.update(INSERT_USER_PROJECT_DAYS_SQL);
+            return loaded;
+        });
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+
+        // Кеші будувались зі старих тоталів; після масової зміни простіше скинути їх повністю
+        badgeCache.clear();
+        if (statsProperties.getAnalytics().isEnabled()) {
+            timeSeriesEngine.rebuild();
+        }
+
+        logger.info("Bulk load finished in {} ms: {} rows staged, {} rejected, {} projects and {} files created, {} file days written",
+                result.getElapsedMillis(), result.getRowsStaged(), result.getRowsRejected(),
+                result.getProjectsCreated(), result.getFilesCreated(), result.getFileDaysWritten());
+        return result;
+    }
+
+    // COPY виконується на з'єднанні поточної транзакції, тож staging-таблиця йому видима
+    private long copyIn(InputStream csv) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read bulk load input", e);
+            }
+        });
+        return copied != null ? copied : 0L;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Обмежений LRU-кеш пошуку проєктів за шляхом: userId -> (projectPath -> projectId).
+ * Інвалідація виконується по користувачу при створенні, перейменуванні чи видаленні його проєктів.
+ * Відсутні шляхи не кешуються, тож новий проєкт знаходиться одразу після створення.
+ */
+@Component
+public class ProjectPathCache {
+
+    private final InvalidatingCache<String> projectIds;
+
+    public ProjectPathCache(StatsProperties statsProperties) {
+        StatsProperties.ProjectLookup properties = statsProperties.getProjectLookup();
+        this.projectIds = new InvalidatingCache<>(properties.getCacheSize(), properties.getPathsPerUser(), properties.getTtl());
+    }
+
+    public String get(String userId, String projectPath, Supplier<String> loader) {
+        return projectIds.get(userId, projectPath, loader, Objects::nonNull);
+    }
+
+    public void evict(String userId) {
+        projectIds.evict(userId);
+    }
+
+    public void evictAfterCommit(String userId) {
+        projectIds.evictAfterCommit(userId);
+    }
+
+    public void clear() {
+        projectIds.clear();
+    }
+}
@@ -1,26 +1,66 @@
 package com.dengas.devtimetracker.services.implement;
 
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.AnalyticsSummary;
+import com.dengas.devtimetracker.dto.Badge;
+import com.dengas.devtimetracker.dto.BulkLoadResult;
+import com.dengas.devtimetracker.dto.CursorPage;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.DeviceCountersRequest;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.HeartbeatResult;
+import com.dengas.devtimetracker.dto.ProjectReference;
 import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.dto.RollupVerificationResult;
+import com.dengas.devtimetracker.dto.TopFile;
 import com.dengas.devtimetracker.exceptions.ResourceNotFoundException;
 import com.dengas.devtimetracker.exceptions.UnauthorizedException;
+import com.dengas.devtimetracker.exceptions.WriteBufferFullException;
 import com.dengas.devtimetracker.factory.UserFactory;
 import com.dengas.devtimetracker.model.DailyStats;
 import com.dengas.devtimetracker.model.FileStats;
 import com.dengas.devtimetracker.model.ProjectStats;
 import com.dengas.devtimetracker.model.User;
+import com.dengas.devtimetracker.model.UserDailyRollup;
 import com.dengas.devtimetracker.repositories.FileStatsRepository;
 import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserDailyRollupRepository;
+import com.dengas.devtimetracker.repositories.UserLanguageRollupRepository;
+import com.dengas.devtimetracker.repositories.UserProjectDayRepository;
 import com.dengas.devtimetracker.repositories.UserRepository;
+import com.dengas.devtimetracker.repositories.projections.BadgeInfo;
+import com.dengas.devtimetracker.repositories.projections.DailyStatsRow;
+import com.dengas.devtimetracker.repositories.projections.DashboardTotals;
+import com.dengas.devtimetracker.repositories.projections.FileDailyStatsRow;
+import com.dengas.devtimetracker.repositories.projections.FileSummary;
+import com.dengas.devtimetracker.repositories.projections.ProjectSummary;
+import com.dengas.devtimetracker.repositories.projections.LanguageTotals;
+import com.dengas.devtimetracker.repositories.projections.RollupTotals;
 import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.utils.QueryChunks;
 import com.dengas.devtimetracker.utils.SecurityUtils;
 import jakarta.validation.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -33,19 +73,67 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
     private final FileStatsRepository fileStatsRepository;
     private final UserRepository userRepository;
     private final UserFactory userFactory;
+    private final HeartbeatWriter heartbeatWriter;
+    private final StatsWriteBuffer writeBuffer;
+    private final BadgeCache badgeCache;
+    private final ProjectPathCache projectPathCache;
+    private final UserRollupWriter rollupWriter;
+    private final UserDailyRollupRepository rollupRepository;
+    private final UserLanguageRollupRepository languageRollupRepository;
+    private final UserProjectDayRepository projectDayRepository;
+    private final UserRollupVerifier rollupVerifier;
+    private final TimeSeriesEngine timeSeriesEngine;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final StatsImporter statsImporter;
+    private final PostgresBulkLoader bulkLoader;
+    private final StatsStreamWriter statsStreamWriter;
+    private final TopFilesQuery topFilesQuery;
+    private final StatsProperties statsProperties;
 
     public ProjectStatsServiceImpl(ProjectStatsRepository projectStatsRepository,
                                    FileStatsRepository fileStatsRepository,
                                    UserRepository userRepository,
-                                   UserFactory userFactory) {
+                                   UserFactory userFactory,
+                                   HeartbeatWriter heartbeatWriter,
+                                   StatsWriteBuffer writeBuffer,
+                                   BadgeCache badgeCache,
+                                   ProjectPathCache projectPathCache,
+                                   UserRollupWriter rollupWriter,
+                                   UserDailyRollupRepository rollupRepository,
+                                   UserLanguageRollupRepository languageRollupRepository,
+                                   UserProjectDayRepository projectDayRepository,
+                                   UserRollupVerifier rollupVerifier,
+                                   TimeSeriesEngine timeSeriesEngine,
+                                   ProjectWriteCoordinator writeCoordinator,
+                                   StatsImporter statsImporter,
+                                   PostgresBulkLoader bulkLoader,
+                                   StatsStreamWriter statsStreamWriter,
+                                   TopFilesQuery topFilesQuery,
+                                   StatsProperties statsProperties) {
         this.projectStatsRepository = projectStatsRepository;
         this.fileStatsRepository = fileStatsRepository;
         this.userRepository = userRepository;
         this.userFactory = userFactory;
+        this.heartbeatWriter = heartbeatWriter;
+        this.writeBuffer = writeBuffer;
+        this.badgeCache = badgeCache;
+        this.projectPathCache = projectPathCache;
+        this.rollupWriter = rollupWriter;
+        this.rollupRepository = rollupRepository;
+        this.languageRollupRepository = languageRollupRepository;
+        this.projectDayRepository = projectDayRepository;
+        this.rollupVerifier = rollupVerifier;
+        this.timeSeriesEngine = timeSeriesEngine;
+        this.writeCoordinator = writeCoordinator;
+        this.statsImporter = statsImporter;
+        this.bulkLoader = bulkLoader;
+        this.statsStreamWriter = statsStreamWriter;
+        this.topFilesQuery = topFilesQuery;
+        this.statsProperties = statsProperties;
     }
 
     @Override
-    public ResponseWrapper<List<ProjectStats>> getAllProjectStats(Jwt jwt) {
+    public ResponseWrapper<List<ProjectStats>> getAllProjectStats(DateRange range, Jwt jwt) {
         try {
             List<ProjectStats> projects;
             if (SecurityUtils.isAdmin(jwt)) {
@@ -55,11 +143,12 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
                 projects = projectStatsRepository.findByUserId(userId);
             }
 
-            for (ProjectStats project : projects) {
-                List<FileStats> files = fileStatsRepository.findByProjectId(project.getProjectId());
-                project.setFiles(files);
+            if (range.isBounded()) {
+                return ResponseWrapper.success(windowed(projects, range));
             }
 
+            attachFiles(projects);
+
             return ResponseWrapper.success(projects);
         } catch (Exception e) {
             logger.error("Error retrieving all project stats: {}", e.getMessage(), e);
@@ -67,8 +156,15 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         }
     }
 
+    // Дані читаються вже під час запису відповіді, тому тут лише визначається, чиї проєкти видавати
+    @Override
+    public ResponseWrapper<StreamingResponseBody> streamAllProjectStats(DateRange range, MediaType mediaType, Jwt jwt) {
+        String userId = SecurityUtils.isAdmin(jwt) ? null : jwt.getSubject();
+        return ResponseWrapper.success(statsStreamWriter.projects(userId, range, mediaType));
+    }
+
     @Override
-    public ResponseWrapper<ProjectStats> getProjectStats(String projectId, Jwt jwt) {
+    public ResponseWrapper<ProjectStats> getProjectStats(String projectId, DateRange range, Jwt jwt) {
         try {
             String userId = jwt.getSubject();
             ProjectStats project = projectStatsRepository.findById(projectId)
@@ -78,6 +174,10 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
                 throw new UnauthorizedException("You do not have access to this project");
             }
 
+            if (range.isBounded()) {
+                return ResponseWrapper.success(windowed(List.of(project), range).get(0));
+            }
+
             List<FileStats> files = fileStatsRepository.findByProjectId(projectId);
             project.setFiles(files);
 
@@ -115,28 +215,21 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
 
             stats.setUser(user);
 
-            ProjectStats savedProject = projectStatsRepository.save(stats);
-
-            List<FileStats> savedFiles = new ArrayList<>();
-            if (stats.getFiles() != null && !stats.getFiles().isEmpty()) {
-                for (FileStats file : stats.getFiles()) {
-                    validateFileStats(file);
-                    file.setProjectId(savedProject.getProjectId());
-
-                    if (file.getDailyStats() != null && !file.getDailyStats().isEmpty()) {
-                        file.calculateTotalTimes();
-                    }
-
-                    FileStats savedFile = fileStatsRepository.save(file);
-                    savedFiles.add(savedFile);
-                }
-            }
+            List<FileStats> files = prepareFiles(projectId, stats.getFiles());
+            calculateProjectDailyStats(stats, files);
+            stats.calculateTotalTimes();
 
-            calculateProjectDailyStats(savedProject, savedFiles);
-            savedProject.calculateTotalTimes();
+            UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+            rollup.addProject(projectId, stats.getDailyStats(), files, 1);
+            rollupWriter.apply(userId, rollup);
+            storeDailyStats(stats, files);
 
-            savedProject = projectStatsRepository.save(savedProject);
+            ProjectStats savedProject = projectStatsRepository.save(stats);
+            List<FileStats> savedFiles = fileStatsRepository.saveAll(files);
             savedProject.setFiles(savedFiles);
+            // Дубль шляху з меншим projectId змінює результат пошуку за шляхом
+            projectPathCache.evictAfterCommit(userId);
+            timeSeriesEngine.replaceProjectAfterCommit(savedProject);
 
             return ResponseWrapper.success(savedProject);
         } catch (ValidationException e) {
@@ -149,49 +242,123 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
     }
 
     @Override
-    @Transactional
     public ResponseWrapper<ProjectStats> updateProjectStats(String projectId, ProjectStats stats, Jwt jwt) {
         try {
-            String userId = jwt.getSubject();
-            ProjectStats existingProject = projectStatsRepository.findById(projectId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
-
-            if (existingProject.getUser() == null || !existingProject.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
-                throw new UnauthorizedException("You do not have access to this project");
+            if (writeBuffer.isEnabled()) {
+                writeBuffer.flushProject(projectId);
             }
 
-            existingProject.setProjectPath(stats.getProjectPath() != null ? stats.getProjectPath() : existingProject.getProjectPath());
-            existingProject.setGithubBadgeVisible(stats.isGithubBadgeVisible());
+            // Лок проєкту тримається до коміту, тож паралельні PUT/PATCH застосовуються по черзі на свіжому стані
+            ProjectStats updatedProject = writeCoordinator.write(projectId, () -> {
+                String userId = jwt.getSubject();
+                ProjectStats existingProject = projectStatsRepository.findById(projectId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
 
-            if (stats.getDailyStats() != null && !stats.getDailyStats().isEmpty()) {
-                existingProject.setDailyStats(stats.getDailyStats());
-            }
+                if (existingProject.getUser() == null || !existingProject.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                    throw new UnauthorizedException("You do not have access to this project");
+                }
 
-            existingProject = projectStatsRepository.save(existingProject);
-            fileStatsRepository.deleteByProjectId(projectId);
+                String previousPath = existingProject.getProjectPath();
+                existingProject.setProjectPath(stats.getProjectPath() != null ? stats.getProjectPath() : existingProject.getProjectPath());
+                existingProject.setGithubBadgeVisible(stats.isGithubBadgeVisible());
+
+                // Внесок проєкту в підсумки користувача фіксується до змін, що відбуваються на місці
+                List<FileStats> existingFiles = fileStatsRepository.findByProjectId(projectId);
+                UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+                rollup.addProject(projectId, existingProject.getDailyStats(), existingFiles, -1);
+
+                // dailyStats проєкту завжди перераховуються з файлів, тому значення з тіла запиту не застосовуються
+                List<FileStats> files = reconcileFiles(existingFiles, prepareFiles(projectId, stats.getFiles()), true);
+                calculateProjectDailyStats(existingProject, files);
+                existingProject.calculateTotalTimes();
+                rollup.addProject(projectId, existingProject.getDailyStats(), files, 1);
+                rollupWriter.apply(existingProject.getUser().getId(), rollup);
+                existingProject.storeDailyStats(isPackedStorage());
+
+                existingProject = projectStatsRepository.save(existingProject);
+                existingProject.setFiles(files);
+                badgeCache.evictAfterCommit(projectId);
+                if (!Objects.equals(previousPath, existingProject.getProjectPath())) {
+                    projectPathCache.evictAfterCommit(existingProject.getUser().getId());
+                }
+                timeSeriesEngine.replaceProjectAfterCommit(existingProject);
 
-            List<FileStats> savedFiles = new ArrayList<>();
-            if (stats.getFiles() != null) {
-                for (FileStats file : stats.getFiles()) {
-                    validateFileStats(file);
-                    file.setProjectId(projectId);
+                return existingProject;
+            });
 
-                    if (file.getDailyStats() != null && !file.getDailyStats().isEmpty()) {
-                        file.calculateTotalTimes();
-                    }
+            return ResponseWrapper.success(updatedProject);
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Concurrent modification: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.CONFLICT, "Project was modified concurrently, please retry", "CONFLICT");
+        } catch (Exception e) {
+            logger.error("Error updating project: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update project", "INTERNAL_ERROR");
+        }
+    }
 
-                    FileStats savedFile = fileStatsRepository.save(file);
-                    savedFiles.add(savedFile);
-                }
+    @Override
+    public ResponseWrapper<ProjectStats> patchProjectStats(String projectId, ProjectStats updates, Jwt jwt) {
+        try {
+            if (writeBuffer.isEnabled()) {
+                writeBuffer.flushProject(projectId);
             }
 
-            calculateProjectDailyStats(existingProject, savedFiles);
-            existingProject.calculateTotalTimes();
+            ProjectStats patchedProject = writeCoordinator.write(projectId, () -> {
+                String userId = jwt.getSubject();
+                ProjectStats existingProject = projectStatsRepository.findById(projectId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
 
-            existingProject = projectStatsRepository.save(existingProject);
-            existingProject.setFiles(savedFiles);
+                if (existingProject.getUser() == null || !existingProject.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                    throw new UnauthorizedException("You do not have access to this project");
+                }
 
-            return ResponseWrapper.success(existingProject);
+                String previousPath = existingProject.getProjectPath();
+                if (updates.getProjectPath() != null) {
+                    existingProject.setProjectPath(updates.getProjectPath());
+                }
+                if (updates.isGithubBadgeVisible()) {
+                    existingProject.setGithubBadgeVisible(true);
+                }else {
+                    existingProject.setGithubBadgeVisible(false);
+                }
+
+                List<FileStats> existingFiles = fileStatsRepository.findByProjectId(projectId);
+                UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+                rollup.addProject(projectId, existingProject.getDailyStats(), existingFiles, -1);
+
+                // На відміну від PUT, файли, відсутні в запиті, залишаються без змін
+                List<FileStats> savedFiles = updates.getFiles() != null
+                        ? reconcileFiles(existingFiles, prepareFiles(projectId, updates.getFiles()), false)
+                        : existingFiles;
+
+                // Як і в PUT, ряд проєкту будується лише з файлів
+                calculateProjectDailyStats(existingProject, savedFiles);
+                existingProject.calculateTotalTimes();
+                rollup.addProject(projectId, existingProject.getDailyStats(), savedFiles, 1);
+                rollupWriter.apply(existingProject.getUser().getId(), rollup);
+                existingProject.storeDailyStats(isPackedStorage());
+
+                existingProject = projectStatsRepository.save(existingProject);
+                existingProject.setFiles(savedFiles);
+                badgeCache.evictAfterCommit(projectId);
+                if (!Objects.equals(previousPath, existingProject.getProjectPath())) {
+                    projectPathCache.evictAfterCommit(existingProject.getUser().getId());
+                }
+                timeSeriesEngine.replaceProjectAfterCommit(existingProject);
+
+                return existingProject;
+            });
+
+            return ResponseWrapper.success(patchedProject);
         } catch (ResourceNotFoundException e) {
             logger.error("Project not found: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
@@ -201,15 +368,19 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         } catch (ValidationException e) {
             logger.error("Validation error: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Concurrent modification: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.CONFLICT, "Project was modified concurrently, please retry", "CONFLICT");
         } catch (Exception e) {
-            logger.error("Error updating project: {}", e.getMessage(), e);
-            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update project", "INTERNAL_ERROR");
+            logger.error("Error patching project: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to patch project", "INTERNAL_ERROR");
         }
     }
 
+    // Без @Transactional: запис виконується в транзакції HeartbeatWriter, і помилка валідації
+    // відкочує лише її, не позначаючи зовнішню транзакцію як rollback-only
     @Override
-    @Transactional
-    public ResponseWrapper<ProjectStats> patchProjectStats(String projectId, ProjectStats updates, Jwt jwt) {
+    public ResponseWrapper<HeartbeatResult> recordHeartbeats(String projectId, HeartbeatRequest request, Jwt jwt) {
         try {
             String userId = jwt.getSubject();
             ProjectStats existingProject = projectStatsRepository.findById(projectId)
@@ -219,46 +390,67 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
                 throw new UnauthorizedException("You do not have access to this project");
             }
 
-            if (updates.getProjectPath() != null) {
-                existingProject.setProjectPath(updates.getProjectPath());
-            }
-            if (updates.isGithubBadgeVisible()) {
-                existingProject.setGithubBadgeVisible(true);
-            }else {
-                existingProject.setGithubBadgeVisible(false);
+            if (writeBuffer.isEnabled()) {
+                validateNewFileTypes(projectId, request.getHeartbeats());
+                writeBuffer.enqueue(projectId, request.getHeartbeats());
+
+                // Тотали ще не включають прирости з буфера — вони з'являться після найближчого скидання
+                HeartbeatResult result = new HeartbeatResult(
+                        projectId,
+                        request.getHeartbeats().size(),
+                        existingProject.getTotalCodingTime(),
+                        existingProject.getTotalOpenTime());
+                result.setBuffered(true);
+                return ResponseWrapper.success(result);
             }
 
-            if (updates.getDailyStats() != null && !updates.getDailyStats().isEmpty()) {
-                existingProject.getDailyStats().putAll(updates.getDailyStats());
-            }
-
-            existingProject = projectStatsRepository.save(existingProject);
+            ProjectStats updatedProject = heartbeatWriter.write(projectId, request.getHeartbeats());
 
-            List<FileStats> savedFiles = new ArrayList<>();
-            if (updates.getFiles() != null) {
-                fileStatsRepository.deleteByProjectId(projectId);
-                for (FileStats file : updates.getFiles()) {
-                    validateFileStats(file);
-                    file.setProjectId(projectId);
+            return ResponseWrapper.success(new HeartbeatResult(
+                    projectId,
+                    request.getHeartbeats().size(),
+                    updatedProject.getTotalCodingTime(),
+                    updatedProject.getTotalOpenTime()));
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (WriteBufferFullException e) {
+            logger.warn("Heartbeats rejected for project {}: {}", projectId, e.getMessage());
+            return ResponseWrapper.error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), "SERVICE_UNAVAILABLE");
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Concurrent modification: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.CONFLICT, "Project was modified concurrently, please retry", "CONFLICT");
+        } catch (Exception e) {
+            logger.error("Error recording heartbeats: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to record heartbeats", "INTERNAL_ERROR");
+        }
+    }
 
-                    if (file.getDailyStats() != null && !file.getDailyStats().isEmpty()) {
-                        file.calculateTotalTimes();
-                    }
+    @Override
+    public ResponseWrapper<HeartbeatResult> syncDeviceCounters(String projectId, DeviceCountersRequest request, Jwt jwt) {
+        try {
+            String userId = jwt.getSubject();
+            ProjectStats existingProject = projectStatsRepository.findById(projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
 
-                    FileStats savedFile = fileStatsRepository.save(file);
-                    savedFiles.add(savedFile);
-                }
-            } else {
-                savedFiles = fileStatsRepository.findByProjectId(projectId);
+            if (existingProject.getUser() == null || !existingProject.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                throw new UnauthorizedException("You do not have access to this project");
             }
 
-            calculateProjectDailyStats(existingProject, savedFiles);
-            existingProject.calculateTotalTimes();
-
-            existingProject = projectStatsRepository.save(existingProject);
-            existingProject.setFiles(savedFiles);
+            // Минає write-behind буфер: злиття за максимумом має бачити вже записаний внесок пристрою
+            ProjectStats updatedProject = heartbeatWriter.writeDeviceCounters(projectId, request.getDeviceId(), request.getCounters());
 
-            return ResponseWrapper.success(existingProject);
+            return ResponseWrapper.success(new HeartbeatResult(
+                    projectId,
+                    request.getCounters().size(),
+                    updatedProject.getTotalCodingTime(),
+                    updatedProject.getTotalOpenTime()));
         } catch (ResourceNotFoundException e) {
             logger.error("Project not found: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
@@ -268,34 +460,97 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         } catch (ValidationException e) {
             logger.error("Validation error: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Concurrent modification: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.CONFLICT, "Project was modified concurrently, please retry", "CONFLICT");
         } catch (Exception e) {
-            logger.error("Error patching project: {}", e.getMessage(), e);
-            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to patch project", "INTERNAL_ERROR");
+            logger.error("Error syncing device counters: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to sync device counters", "INTERNAL_ERROR");
         }
     }
 
+    // Відповідь пишеться потоком подій NDJSON, тож помилки окремих записів не переривають імпорт
     @Override
-    @Transactional
-    public ResponseWrapper<String> deleteProject(String projectId, Jwt jwt) {
+    public void importStats(InputStream input, OutputStream output, Jwt jwt) throws IOException {
+        statsImporter.importStats(input, output, jwt);
+    }
+
+    @Override
+    public ResponseWrapper<BulkLoadResult> bulkLoad(InputStream csv, Jwt jwt) {
         try {
-            String userId = jwt.getSubject();
-            ProjectStats project = projectStatsRepository.findById(projectId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+            if (!SecurityUtils.isAdmin(jwt)) {
+                throw new UnauthorizedException("Bulk load is available to administrators only");
+            }
+            return ResponseWrapper.success(bulkLoader.load(csv));
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (DataAccessException e) {
+            // Помилки COPY (зламаний CSV, невірна дата) повертаються клієнту з номером рядка від PostgreSQL
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.error("Bulk load rejected: {}", message);
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, message, "VALIDATION_ERROR");
+        } catch (Exception e) {
+            logger.error("Error during bulk load: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to bulk load statistics", "INTERNAL_ERROR");
+        }
+    }
 
-            if (project.getUser() == null || !project.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
-                throw new UnauthorizedException("You do not have access to this project");
+    @Override
+    public ResponseWrapper<RollupVerificationResult> verifyRollups(String userId, boolean repair, Jwt jwt) {
+        try {
+            if (!SecurityUtils.isAdmin(jwt)) {
+                throw new UnauthorizedException("Rollup verification is available to administrators only");
             }
+            return ResponseWrapper.success(rollupVerifier.verify(userId, repair));
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (Exception e) {
+            logger.error("Error verifying user rollups: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to verify user rollups", "INTERNAL_ERROR");
+        }
+    }
 
-            fileStatsRepository.deleteByProjectId(projectId);
-            projectStatsRepository.deleteById(projectId);
+    @Override
+    public ResponseWrapper<String> deleteProject(String projectId, Jwt jwt) {
+        try {
+            // Лок проєкту тримається до коміту, тож видалення не перетинається з його записами
+            String message = writeCoordinator.write(projectId, () -> {
+                String userId = jwt.getSubject();
+                ProjectStats project = projectStatsRepository.findById(projectId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
 
-            return ResponseWrapper.success("Project deleted successfully");
+                if (project.getUser() == null || !project.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                    throw new UnauthorizedException("You do not have access to this project");
+                }
+
+                writeBuffer.discardProject(projectId);
+                UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+                rollup.addProject(projectId, project.getDailyStats(), fileStatsRepository.findByProjectId(projectId), -1);
+                rollupWriter.apply(project.getUser().getId(), rollup);
+                fileStatsRepository.deleteByProjectId(projectId);
+                projectStatsRepository.deleteById(projectId);
+                badgeCache.evictAfterCommit(projectId);
+                projectPathCache.evictAfterCommit(project.getUser().getId());
+                timeSeriesEngine.removeProjectAfterCommit(projectId);
+
+                return "Project deleted successfully";
+            });
+
+            return ResponseWrapper.success(message);
         } catch (ResourceNotFoundException e) {
             logger.error("Project not found: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
         } catch (UnauthorizedException e) {
             logger.error("Unauthorized access: {}", e.getMessage());
             return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Concurrent modification: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.CONFLICT, "Project was modified concurrently, please retry", "CONFLICT");
         } catch (Exception e) {
             logger.error("Error deleting project: {}", e.getMessage(), e);
             return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete project", "INTERNAL_ERROR");
@@ -303,13 +558,15 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
     }
 
     @Override
-    public ResponseWrapper<List<FileStats>> getProjectFiles(String projectId) {
+    public ResponseWrapper<List<FileStats>> getProjectFiles(String projectId, DateRange range) {
         try {
             if (!projectStatsRepository.existsById(projectId)) {
                 throw new ResourceNotFoundException("Project not found with ID: " + projectId);
             }
 
-            List<FileStats> files = fileStatsRepository.findByProjectId(projectId);
+            List<FileStats> files = range.isBounded()
+                    ? loadWindowedFiles(List.of(projectId), range).getOrDefault(projectId, new ArrayList<>())
+                    : fileStatsRepository.findByProjectId(projectId);
             return ResponseWrapper.success(files);
         } catch (ResourceNotFoundException e) {
             logger.error("Project not found: {}", e.getMessage());
@@ -321,27 +578,119 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
     }
 
     @Override
-    public ResponseWrapper<Map<String, Object>> getDashboardStats(Jwt jwt) {
+    public ResponseWrapper<StreamingResponseBody> streamProjectFiles(String projectId, DateRange range, MediaType mediaType) {
+        if (!projectStatsRepository.existsById(projectId)) {
+            logger.error("Project not found: Project not found with ID: {}", projectId);
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, "Project not found with ID: " + projectId, "NOT_FOUND");
+        }
+        return ResponseWrapper.success(statsStreamWriter.files(projectId, range, mediaType));
+    }
+
+    // Плагін викликає пошук на кожному старті IDE, тому відповідь кешується по користувачу
+    @Override
+    public ResponseWrapper<ProjectReference> findProjectByPath(String projectPath, Jwt jwt) {
         try {
+            if (projectPath == null || projectPath.isBlank()) {
+                throw new ValidationException("Project path is required");
+            }
+
             String userId = jwt.getSubject();
-            List<ProjectStats> projects = SecurityUtils.isAdmin(jwt)
-                    ? projectStatsRepository.findAll()
-                    : projectStatsRepository.findByUserId(userId);
-
-            long totalCodingTime = projects.stream()
-                    .mapToLong(ProjectStats::getTotalCodingTime)
-                    .sum();
-            long totalOpenTime = projects.stream()
-                    .mapToLong(ProjectStats::getTotalOpenTime)
-                    .sum();
-            long projectCount = projects.size();
-            double averageCodingTimePerProject = projectCount > 0 ? (double) totalCodingTime / projectCount : 0;
+            String projectId = projectPathCache.get(userId, projectPath, () -> {
+                List<String> ids = projectStatsRepository.findIdsByUserIdAndProjectPath(userId, projectPath);
+                return ids.isEmpty() ? null : ids.get(0);
+            });
+            if (projectId == null) {
+                throw new ResourceNotFoundException("Project not found with path: " + projectPath);
+            }
+
+            return ResponseWrapper.success(new ProjectReference(projectId, projectPath));
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (Exception e) {
+            logger.error("Error looking up project by path: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to look up project", "INTERNAL_ERROR");
+        }
+    }
+
+    @Override
+    public ResponseWrapper<CursorPage<ProjectSummary>> getProjectSummaries(String after, Integer size, Jwt jwt) {
+        try {
+            Pageable page = PageRequest.of(0, pageSize(size));
+            String cursor = after != null ? after : "";
+
+            List<ProjectSummary> items = SecurityUtils.isAdmin(jwt)
+                    ? projectStatsRepository.findSummaries(cursor, page)
+                    : projectStatsRepository.findSummariesByUserId(jwt.getSubject(), cursor, page);
+            if (isPackedStorage()) {
+                items = withPackedLastActiveDate(items);
+            }
+
+            String nextCursor = items.size() == page.getPageSize() ? items.get(items.size() - 1).getProjectId() : null;
+            return ResponseWrapper.success(new CursorPage<>(items, nextCursor));
+        } catch (Exception e) {
+            logger.error("Error retrieving project summaries: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve project summaries", "INTERNAL_ERROR");
+        }
+    }
+
+    @Override
+    public ResponseWrapper<CursorPage<FileSummary>> getFileSummaries(String projectId, String after, Integer size, Jwt jwt) {
+        try {
+            String userId = jwt.getSubject();
+            ProjectStats project = projectStatsRepository.findById(projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+
+            if (project.getUser() != null && !project.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                throw new UnauthorizedException("You do not have access to this project");
+            }
+
+            Pageable page = PageRequest.of(0, pageSize(size));
+            List<FileSummary> items = fileStatsRepository.findSummariesByProjectId(projectId, after != null ? after : "", page);
+            if (isPackedStorage()) {
+                items = withPackedFileLastActiveDate(items);
+            }
+
+            String nextCursor = items.size() == page.getPageSize() ? items.get(items.size() - 1).getId() : null;
+            return ResponseWrapper.success(new CursorPage<>(items, nextCursor));
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (Exception e) {
+            logger.error("Error retrieving file summaries: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve file summaries", "INTERNAL_ERROR");
+        }
+    }
+
+    @Override
+    public ResponseWrapper<Map<String, Object>> getDashboardStats(DateRange range, Jwt jwt) {
+        try {
+            String userId = jwt.getSubject();
+            DashboardTotals totals;
+            if (!range.isBounded()) {
+                // Тотали проєктів містять і час без прив'язки до дня (імпорт рядка без dailyStats),
+                // а також проєкти без активності, тож без вікна rollup їх не замінює
+                totals = SecurityUtils.isAdmin(jwt)
+                        ? projectStatsRepository.aggregateAll()
+                        : projectStatsRepository.aggregateByUserId(userId);
+            } else if (timeSeriesEngine.isReady()) {
+                // Лише коли індекс явно увімкнено (stats.analytics.enabled) на єдиному вузлі
+                totals = indexedTotals(SecurityUtils.isAdmin(jwt) ? null : userId, range);
+            } else {
+                totals = rollupTotals(SecurityUtils.isAdmin(jwt) ? null : userId, range);
+            }
 
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalProjects", projectCount);
-            stats.put("totalCodingTime", totalCodingTime);
-            stats.put("totalOpenTime", totalOpenTime);
-            stats.put("averageCodingTimePerProject", averageCodingTimePerProject);
+            stats.put("totalProjects", totals.getProjectCount());
+            stats.put("totalCodingTime", totals.getTotalCodingTime());
+            stats.put("totalOpenTime", totals.getTotalOpenTime());
+            stats.put("averageCodingTimePerProject", totals.getAverageCodingTime());
 
             return ResponseWrapper.success(stats);
         } catch (Exception e) {
@@ -350,6 +699,118 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         }
     }
 
+    // Читається лише user_language_rollup, тож час відповіді не залежить від кількості файлів користувача
+    @Override
+    public ResponseWrapper<List<LanguageTotals>> getLanguageStats(DateRange range, Jwt jwt) {
+        try {
+            return ResponseWrapper.success(languageRollupRepository.sumByUserIdInRange(
+                    jwt.getSubject(), range.getFrom(), range.getTo()));
+        } catch (Exception e) {
+            logger.error("Error retrieving language stats: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve language stats", "INTERNAL_ERROR");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWrapper<List<TopFile>> getTopFiles(String projectId, String type, DateRange range, Integer limit, Jwt jwt) {
+        try {
+            StatsProperties.TopFiles properties = statsProperties.getTopFiles();
+            int size = limit != null ? limit : properties.getDefaultLimit();
+            if (size < 1 || size > properties.getMaxLimit()) {
+                throw new ValidationException("limit must be between 1 and " + properties.getMaxLimit());
+            }
+
+            String userId = jwt.getSubject();
+            if (projectId != null) {
+                ProjectStats project = projectStatsRepository.findById(projectId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+
+                if (project.getUser() != null && !project.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                    throw new UnauthorizedException("You do not have access to this project");
+                }
+                // Доступ до проєкту перевірено, власник у запиті вже не потрібен
+                userId = null;
+            }
+
+            String typeFilter = type != null && !type.trim().isEmpty() ? type.trim() : null;
+            return ResponseWrapper.success(topFilesQuery.top(userId, projectId, typeFilter, range, size));
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (Exception e) {
+            logger.error("Error retrieving top files: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve top files", "INTERNAL_ERROR");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWrapper<AnalyticsSummary> getAnalytics(String projectId, DateRange range, int lastDays, Jwt jwt) {
+        try {
+            int maxLastDays = statsProperties.getAnalytics().getMaxLastDays();
+            if (lastDays < 1 || lastDays > maxLastDays) {
+                throw new ValidationException("lastDays must be between 1 and " + maxLastDays);
+            }
+
+            String userId = jwt.getSubject();
+            TimeSeriesEngine.Series series;
+            if (projectId != null) {
+                ProjectStats project = projectStatsRepository.findById(projectId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+
+                if (project.getUser() != null && !project.getUser().getId().equals(userId) && !SecurityUtils.isAdmin(jwt)) {
+                    throw new UnauthorizedException("You do not have access to this project");
+                }
+
+                series = timeSeriesEngine.isReady()
+                        ? timeSeriesEngine.projectSeries(projectId)
+                        : TimeSeriesEngine.Series.of(project.getDailyStats());
+            } else {
+                series = timeSeriesEngine.isReady() ? timeSeriesEngine.userSeries(userId) : loadUserSeries(userId);
+            }
+
+            AnalyticsSummary summary = new AnalyticsSummary();
+            summary.setProjectId(projectId);
+            if (range.isBounded()) {
+                summary.setFrom(range.getFrom());
+                summary.setTo(range.getTo());
+            }
+            summary.setCodingTime(series.codingTime(range.getFrom().toEpochDay(), range.getTo().toEpochDay()));
+            summary.setOpenTime(series.openTime(range.getFrom().toEpochDay(), range.getTo().toEpochDay()));
+
+            long today = LocalDate.now().toEpochDay();
+            summary.setLastDays(lastDays);
+            summary.setLastDaysCodingTime(series.codingTime(today - lastDays + 1, today));
+            summary.setLastDaysOpenTime(series.openTime(today - lastDays + 1, today));
+
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                summary.getCodingTimeByDayOfWeek().put(dayOfWeek, series.codingTimeOn(dayOfWeek));
+                summary.getOpenTimeByDayOfWeek().put(dayOfWeek, series.openTimeOn(dayOfWeek));
+            }
+
+            return ResponseWrapper.success(summary);
+        } catch (ResourceNotFoundException e) {
+            logger.error("Project not found: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.NOT_FOUND, e.getMessage(), "NOT_FOUND");
+        } catch (UnauthorizedException e) {
+            logger.error("Unauthorized access: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.FORBIDDEN, e.getMessage(), "UNAUTHORIZED");
+        } catch (ValidationException e) {
+            logger.error("Validation error: {}", e.getMessage());
+            return ResponseWrapper.error(HttpStatus.BAD_REQUEST, e.getMessage(), "VALIDATION_ERROR");
+        } catch (Exception e) {
+            logger.error("Error retrieving analytics: {}", e.getMessage(), e);
+            return ResponseWrapper.error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve analytics", "INTERNAL_ERROR");
+        }
+    }
+
 //    @Override
 //    public ResponseWrapper<List<Map<String, Object>>> getTeamMemberProjects(Jwt jwt) {
 //        try {
@@ -466,6 +927,291 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         );
     }
 
+    @Override
+    public Badge getBadge(String projectId, String color) {
+        return badgeCache.get(projectId, color, () -> renderBadge(projectId, color));
+    }
+
+    private Badge renderBadge(String projectId, String color) {
+        Optional<BadgeInfo> info = projectStatsRepository.findBadgeInfo(projectId);
+
+        String svg;
+        if (info.isEmpty() || !Boolean.TRUE.equals(info.get().getGithubBadgeVisible())) {
+            svg = generateBadge("Coding time", "Not Found", "#red");
+        } else {
+            // Конвертація загального часу з секунд в формат "Xh Ymin"
+            long totalSeconds = info.get().getTotalCodingTime() != null ? info.get().getTotalCodingTime() : 0L;
+            long hours = totalSeconds / 3600;
+            long minutes = (totalSeconds % 3600) / 60;
+            svg = generateBadge("Coding time", String.format("%dh %dmin", hours, minutes), color);
+        }
+
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        return new Badge(bytes, "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"", info.isPresent());
+    }
+
+    private int pageSize(Integer requested) {
+        StatsProperties.Pagination pagination = statsProperties.getPagination();
+        if (requested == null || requested <= 0) {
+            return pagination.getDefaultSize();
+        }
+        return Math.min(requested, pagination.getMaxSize());
+    }
+
+    // Валідує всі файли до першого запису, щоб вони потім пішли в БД одним пакетом через saveAll
+    private List<FileStats> prepareFiles(String projectId, List<FileStats> files) {
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        Set<String> filePaths = new HashSet<>();
+        for (FileStats file : files) {
+            validateFileStats(file);
+            // (project_id, file_path) унікальний на рівні схеми
+            if (!filePaths.add(file.getFilePath())) {
+                throw new ValidationException("Duplicate file path: " + file.getFilePath());
+            }
+            file.setProjectId(projectId);
+
+            if (file.getDailyStats() != null && !file.getDailyStats().isEmpty()) {
+                file.calculateTotalTimes();
+            }
+        }
+        return files;
+    }
+
+    // Зводить файли проєкту за натуральним ключем (projectId, filePath): незмінені рядки не чіпаються,
+    // змінені оновлюються через dirty checking, нові вставляються, а відсутні в запиті (лише для PUT) видаляються.
+    // Оновлення та вставки йдуть JDBC-пакетами, видалення — bulk-операторами порціями по QueryChunks.MAX_IN_SIZE
+    private List<FileStats> reconcileFiles(List<FileStats> existingFiles, List<FileStats> incoming, boolean removeMissing) {
+        Map<String, FileStats> existing = new HashMap<>();
+        for (FileStats file : existingFiles) {
+            existing.put(file.getFilePath(), file);
+        }
+
+        List<FileStats> result = new ArrayList<>();
+        List<FileStats> touched = new ArrayList<>();
+        List<FileStats> newFiles = new ArrayList<>();
+        for (FileStats file : incoming) {
+            FileStats current = existing.remove(file.getFilePath());
+            if (current == null) {
+                newFiles.add(file);
+                touched.add(file);
+                result.add(file);
+                continue;
+            }
+
+            // Hibernate порівнює значення при flush, тож присвоєння тих самих значень не породжує UPDATE
+            current.setType(file.getType());
+            current.setCodingTime(file.getCodingTime());
+            current.setOpenTime(file.getOpenTime());
+            applyDailyStats(current.getDailyStats(), file.getDailyStats() != null ? file.getDailyStats() : Map.of());
+            touched.add(current);
+            result.add(current);
+        }
+
+        // Ряди переносяться в представлення режиму до bulk-видалення: воно скидає контекст,
+        // і кожен змінений файл отримує рівно один UPDATE
+        storeDailyStats(touched);
+        fileStatsRepository.saveAll(newFiles);
+
+        if (removeMissing) {
+            // Видалені сутності лишаються в контексті незміненими, тому flush їх не зачіпає
+            QueryChunks.forEachChunk(existing.values().stream().map(FileStats::getId).toList(), fileStatsRepository::deleteByIdIn);
+        } else {
+            result.addAll(existing.values());
+        }
+        return result;
+    }
+
+    // Аналог aggregate*InRange з in-memory індексу; userId == null — по всіх користувачах
+    private DashboardTotals indexedTotals(String userId, DateRange range) {
+        long fromDay = range.getFrom().toEpochDay();
+        long toDay = range.getTo().toEpochDay();
+        return new WindowedTotals(
+                timeSeriesEngine.activeProjectCount(userId, fromDay, toDay),
+                timeSeriesEngine.codingTime(userId, fromDay, toDay),
+                timeSeriesEngine.openTime(userId, fromDay, toDay));
+    }
+
+    // Основний шлях для дашборда з межами дат: суми за вікно беруться з user_daily_rollup (userId == null — по всіх).
+    // Денні лічильники проєктів не складаються в кількість різних проєктів, тому її дає user_project_day
+    // (в обох режимах зберігання, без декодування рядів)
+    private DashboardTotals rollupTotals(String userId, DateRange range) {
+        RollupTotals sums = userId != null
+                ? rollupRepository.sumByUserIdInRange(userId, range.getFrom(), range.getTo())
+                : rollupRepository.sumAllInRange(range.getFrom(), range.getTo());
+        long projectCount = userId != null
+                ? projectDayRepository.countProjectsByUserIdInRange(userId, range.getFrom(), range.getTo())
+                : projectDayRepository.countProjectsInRange(range.getFrom(), range.getTo());
+        return new WindowedTotals(projectCount, sums.getTotalCodingTime(), sums.getTotalOpenTime());
+    }
+
+    // Без opt-in індексу ряд користувача читається з user_daily_rollup одним діапазоном ключа
+    private TimeSeriesEngine.Series loadUserSeries(String userId) {
+        Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+        for (UserDailyRollup day : rollupRepository.findByUserId(userId)) {
+            dailyStats.put(day.getId().getDate(), new DailyStats(day.getCodingTime(), day.getOpenTime()));
+        }
+        return TimeSeriesEngine.Series.of(dailyStats);
+    }
+
+    // Для упакованих рядів підзапит по *_daily_stats не знаходить дат, тому lastActiveDate береться з декодованого ряду
+    private List<ProjectSummary> withPackedLastActiveDate(List<ProjectSummary> items) {
+        Map<String, LocalDate> lastActive = new HashMap<>();
+        for (ProjectStats project : projectStatsRepository.findAllById(items.stream().map(ProjectSummary::getProjectId).toList())) {
+            lastActive.put(project.getProjectId(), lastActiveDate(project.getDailyStats()));
+        }
+        return items.stream()
+                .<ProjectSummary>map(item -> new PackedProjectSummary(item, lastActive.get(item.getProjectId())))
+                .toList();
+    }
+
+    private List<FileSummary> withPackedFileLastActiveDate(List<FileSummary> items) {
+        Map<String, LocalDate> lastActive = new HashMap<>();
+        for (FileStats file : fileStatsRepository.findAllById(items.stream().map(FileSummary::getId).toList())) {
+            lastActive.put(file.getId(), lastActiveDate(file.getDailyStats()));
+        }
+        return items.stream()
+                .<FileSummary>map(item -> new PackedFileSummary(item, lastActive.get(item.getId())))
+                .toList();
+    }
+
+    private LocalDate lastActiveDate(Map<LocalDate, DailyStats> dailyStats) {
+        return dailyStats.keySet().stream().max(LocalDate::compareTo).orElse(null);
+    }
+
+    private boolean isPackedStorage() {
+        return statsProperties.getStorage().isPacked();
+    }
+
+    private void storeDailyStats(ProjectStats project, List<FileStats> files) {
+        project.storeDailyStats(isPackedStorage());
+        storeDailyStats(files);
+    }
+
+    private void storeDailyStats(List<FileStats> files) {
+        for (FileStats file : files) {
+            file.storeDailyStats(isPackedStorage());
+        }
+    }
+
+    private void attachFiles(List<ProjectStats> projects) {
+        Map<String, List<FileStats>> filesByProject = new HashMap<>();
+        QueryChunks.forEachChunk(projectIds(projects), chunk -> {
+            for (FileStats file : fileStatsRepository.findByProjectIdIn(chunk)) {
+                filesByProject.computeIfAbsent(file.getProjectId(), k -> new ArrayList<>()).add(file);
+            }
+        });
+
+        for (ProjectStats project : projects) {
+            project.setFiles(filesByProject.getOrDefault(project.getProjectId(), new ArrayList<>()));
+        }
+    }
+
+    // Будує відокремлені від сесії копії проєктів, у яких dailyStats, файли та тотали обмежені вікном дат.
+    // Керовані сутності не змінюються, інакше Hibernate видалив би рядки поза вікном при flush
+    private List<ProjectStats> windowed(List<ProjectStats> projects, DateRange range) {
+        List<String> projectIds = projectIds(projects);
+
+        Map<String, Map<LocalDate, DailyStats>> dailyByProject = new HashMap<>();
+        if (isPackedStorage()) {
+            // Упакований ряд не видно в SQL, тому вікно вирізається після декодування
+            for (ProjectStats project : projects) {
+                dailyByProject.put(project.getProjectId(), window(project.getDailyStats(), range));
+            }
+        } else {
+            QueryChunks.forEachChunk(projectIds, chunk -> {
+                for (DailyStatsRow row : projectStatsRepository.findDailyStatsInRange(chunk, range.getFrom(), range.getTo())) {
+                    dailyByProject.computeIfAbsent(row.getProjectId(), k -> new HashMap<>())
+                            .put(row.getDate(), new DailyStats(row.getCodingTime(), row.getOpenTime()));
+                }
+            });
+        }
+        Map<String, List<FileStats>> filesByProject = loadWindowedFiles(projectIds, range);
+
+        List<ProjectStats> result = new ArrayList<>();
+        for (ProjectStats project : projects) {
+            ProjectStats copy = new ProjectStats();
+            copy.setProjectId(project.getProjectId());
+            copy.setProjectPath(project.getProjectPath());
+            copy.setGithubBadgeVisible(project.isGithubBadgeVisible());
+            copy.setUser(project.getUser());
+            copy.setDailyStats(dailyByProject.getOrDefault(project.getProjectId(), new HashMap<>()));
+            copy.calculateTotalTimes();
+            copy.setFiles(filesByProject.getOrDefault(project.getProjectId(), new ArrayList<>()));
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private Map<String, List<FileStats>> loadWindowedFiles(List<String> projectIds, DateRange range) {
+        if (isPackedStorage()) {
+            return loadWindowedPackedFiles(projectIds, range);
+        }
+
+        Map<String, FileStats> filesById = new LinkedHashMap<>();
+        QueryChunks.forEachChunk(projectIds, chunk -> {
+            for (FileDailyStatsRow row : fileStatsRepository.findDailyStatsInRange(chunk, range.getFrom(), range.getTo())) {
+                FileStats file = filesById.computeIfAbsent(row.getFileId(), id -> {
+                    FileStats copy = new FileStats();
+                    copy.setId(id);
+                    copy.setProjectId(row.getProjectId());
+                    copy.setFilePath(row.getFilePath());
+                    copy.setType(row.getType());
+                    return copy;
+                });
+                file.getDailyStats().put(row.getDate(), new DailyStats(row.getCodingTime(), row.getOpenTime()));
+            }
+        });
+
+        Map<String, List<FileStats>> filesByProject = new HashMap<>();
+        for (FileStats file : filesById.values()) {
+            file.calculateTotalTimes();
+            filesByProject.computeIfAbsent(file.getProjectId(), k -> new ArrayList<>()).add(file);
+        }
+        return filesByProject;
+    }
+
+    private Map<String, List<FileStats>> loadWindowedPackedFiles(List<String> projectIds, DateRange range) {
+        Map<String, List<FileStats>> filesByProject = new HashMap<>();
+        QueryChunks.forEachChunk(projectIds, chunk -> {
+            for (FileStats file : fileStatsRepository.findByProjectIdIn(chunk)) {
+                Map<LocalDate, DailyStats> windowedStats = window(file.getDailyStats(), range);
+                // Як і у SQL-варіанті, файли без активності у вікні не повертаються
+                if (windowedStats.isEmpty()) {
+                    continue;
+                }
+
+                FileStats copy = new FileStats();
+                copy.setId(file.getId());
+                copy.setProjectId(file.getProjectId());
+                copy.setFilePath(file.getFilePath());
+                copy.setType(file.getType());
+                copy.setDailyStats(windowedStats);
+                copy.calculateTotalTimes();
+                filesByProject.computeIfAbsent(file.getProjectId(), k -> new ArrayList<>()).add(copy);
+            }
+        });
+        return filesByProject;
+    }
+
+    private Map<LocalDate, DailyStats> window(Map<LocalDate, DailyStats> dailyStats, DateRange range) {
+        Map<LocalDate, DailyStats> result = new HashMap<>();
+        dailyStats.forEach((date, stats) -> {
+            if (!date.isBefore(range.getFrom()) && !date.isAfter(range.getTo())) {
+                result.put(date, new DailyStats(stats.getCodingTime(), stats.getOpenTime()));
+            }
+        });
+        return result;
+    }
+
+    private List<String> projectIds(List<ProjectStats> projects) {
+        return projects.stream()
+                .map(ProjectStats::getProjectId)
+                .toList();
+    }
+
     private void calculateProjectDailyStats(ProjectStats project, List<FileStats> files) {
         Map<LocalDate, DailyStats> projectDailyStats = new HashMap<>();
 
@@ -485,10 +1231,45 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
             }
         }
 
-        project.setDailyStats(projectDailyStats);
+        if (project.getDailyStats() == null) {
+            project.setDailyStats(projectDailyStats);
+        } else {
+            applyDailyStats(project.getDailyStats(), projectDailyStats);
+        }
+    }
+
+    // Змінює існуючу мапу на місці: Hibernate тоді пише лише змінені дати замість видалення
+    // та повторної вставки всієї колекції *_daily_stats
+    private void applyDailyStats(Map<LocalDate, DailyStats> current, Map<LocalDate, DailyStats> calculated) {
+        current.keySet().retainAll(calculated.keySet());
+        calculated.forEach((date, stats) -> {
+            if (!stats.equals(current.get(date))) {
+                current.put(date, stats);
+            }
+        });
+    }
+
+    // У буферизованому режимі файли створюються лише при скиданні, тому тип нових файлів перевіряємо одразу
+    private void validateNewFileTypes(String projectId, List<Heartbeat> heartbeats) {
+        Set<String> untypedPaths = new HashSet<>();
+        for (Heartbeat heartbeat : heartbeats) {
+            if (heartbeat.getType() == null || heartbeat.getType().trim().isEmpty()) {
+                untypedPaths.add(heartbeat.getFilePath());
+            }
+        }
+        if (untypedPaths.isEmpty()) {
+            return;
+        }
+
+        for (FileStats file : fileStatsRepository.findByProjectIdAndFilePathIn(projectId, untypedPaths)) {
+            untypedPaths.remove(file.getFilePath());
+        }
+        if (!untypedPaths.isEmpty()) {
+            throw new ValidationException("File type is required for new file: " + untypedPaths.iterator().next());
+        }
     }
 
-    private void validateFileStats(FileStats file) {
+    static void validateFileStats(FileStats file) {
         if (file.getFilePath() == null || file.getFilePath().trim().isEmpty()) {
             throw new ValidationException("File path is required");
         }
@@ -519,4 +1300,101 @@ public class ProjectStatsServiceImpl implements ProjectStatsService {
         }
         return project;
     }
-}
\ No newline at end of file
+
+    private record WindowedTotals(long projectCount, long codingTime, long openTime) implements DashboardTotals {
+        @Override
+        public Long getProjectCount() {
+            return projectCount;
+        }
+
+        @Override
+        public Long getTotalCodingTime() {
+            return codingTime;
+        }
+
+        @Override
+        public Long getTotalOpenTime() {
+            return openTime;
+        }
+
+        @Override
+        public Double getAverageCodingTime() {
+            return projectCount == 0 ? 0.0 : (double) codingTime / projectCount;
+        }
+    }
+
+    public static final class PackedProjectSummary implements ProjectSummary {
+        private final ProjectSummary summary;
+        private final LocalDate lastActiveDate;
+
+        private PackedProjectSummary(ProjectSummary summary, LocalDate lastActiveDate) {
+            this.summary = summary;
+            this.lastActiveDate = lastActiveDate;
+        }
+
+        @Override
+        public String getProjectId() {
+            return summary.getProjectId();
+        }
+
+        @Override
+        public String getProjectPath() {
+            return summary.getProjectPath();
+        }
+
+        @Override
+        public Long getTotalCodingTime() {
+            return summary.getTotalCodingTime();
+        }
+
+        @Override
+        public Long getTotalOpenTime() {
+            return summary.getTotalOpenTime();
+        }
+
+        @Override
+        public LocalDate getLastActiveDate() {
+            return lastActiveDate;
+        }
+    }
+
+    public static final class PackedFileSummary implements FileSummary {
+        private final FileSummary summary;
+        private final LocalDate lastActiveDate;
+
+        private PackedFileSummary(FileSummary summary, LocalDate lastActiveDate) {
+            this.summary = summary;
+            this.lastActiveDate = lastActiveDate;
+        }
+
+        @Override
+        public String getId() {
+            return summary.getId();
+        }
+
+        @Override
+        public String getFilePath() {
+            return summary.getFilePath();
+        }
+
+        @Override
+        public String getType() {
+            return summary.getType();
+        }
+
+        @Override
+        public Long getCodingTime() {
+            return summary.getCodingTime();
+        }
+
+        @Override
+        public Long getOpenTime() {
+            return summary.getOpenTime();
+        }
+
+        @Override
+        public LocalDate getLastActiveDate() {
+            return lastActiveDate;
+        }
+    }
+}
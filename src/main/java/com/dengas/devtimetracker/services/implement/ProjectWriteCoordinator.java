@@ -0,0 +1,96 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Узгоджує конкурентні записи одного проєкту.
+ * <p>
+ * Усередині вузла записи серіалізуються смугастими локами за projectId, які тримаються до коміту,
+ * тож паралельні синхронізації з двох вікон IDE виконуються по черзі на свіжому стані.
+ * Між вузлами захищає @Version на ProjectStats: інкрементні записи (heartbeats) при конфлікті
+ * повторюються з нуля — прирости застосовуються до перечитаного стану, тому нічого не губиться;
+ * повні перезаписи (PUT/PATCH) отримують OptimisticLockingFailureException і відповідь 409.
+ */
+@Component
+public class ProjectWriteCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectWriteCoordinator.class);
+
+    private final Lock[] locks;
+    private final StatsProperties.Concurrency properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter retryCounter;
+
+    public ProjectWriteCoordinator(StatsProperties statsProperties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.properties = statsProperties.getConcurrency();
+        this.locks = new Lock[properties.getLockStripes()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        // Власна транзакція на кожну спробу: повтор у зовнішній транзакції, позначеній rollback-only, не має сенсу
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retryCounter = Counter.builder("stats.project_writes.retries")
+                .description("Number of project writes retried after a concurrent modification")
+                .register(meterRegistry);
+    }
+
+    public <T> T write(String projectId, Supplier<T> action) {
+        Lock lock = locks[Math.floorMod(projectId.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Лише для записів, які можна безпечно застосувати повторно до перечитаного стану.
+    // Порушення унікальності — це паралельна вставка того самого файлу чи дати, повтор її знайде
+    public <T> T writeWithRetry(String projectId, Supplier<T> action) {
+        int maxAttempts = properties.getMaxAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write(projectId, action);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retryCounter.increment();
+                logger.debug("Concurrent modification of project {}, retrying (attempt {}): {}", projectId, attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Випадкова затримка розводить вузли, що конфліктують знову і знову
+    private void backOff(int attempt) {
+        long maxDelay = properties.getRetryBackoff().toMillis() * attempt;
+        if (maxDelay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying write of project", e);
+        }
+    }
+}
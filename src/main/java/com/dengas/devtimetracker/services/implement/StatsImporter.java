@@ -0,0 +1,340 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.ImportProgress;
+import com.dengas.devtimetracker.dto.ImportRecord;
+import com.dengas.devtimetracker.factory.UserFactory;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.model.User;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Потоковий імпорт історії з NDJSON: один рядок — статистика одного файлу проєкту.
+ * <p>
+ * Рядки читаються по одному і валідуються тими ж правилами, що й файли в POST /projects;
+ * валідні записи накопичуються до stats.bulk-import.batch-size і записуються пакетом —
+ * окремою транзакцією на кожен проєкт пакета під локом ProjectWriteCoordinator.
+ * У пам'яті тримаються лише поточний пакет і відповідність шляху проєкту його id,
+ * тож обсяг імпорту на пам'ять не впливає. Події (помилки, прогрес, підсумок) пишуться у відповідь
+ * рядками NDJSON одразу, без накопичення.
+ */
+@Component
+public class StatsImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsImporter.class);
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final FileStatsRepository fileStatsRepository;
+    private final UserRepository userRepository;
+    private final UserFactory userFactory;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final StatsWriteBuffer writeBuffer;
+    private final BadgeCache badgeCache;
+    private final UserRollupWriter rollupWriter;
+    private final TimeSeriesEngine timeSeriesEngine;
+    private final StatsProperties statsProperties;
+    private final ObjectReader recordReader;
+    private final ObjectWriter eventWriter;
+
+    public StatsImporter(ProjectStatsRepository projectStatsRepository,
+                         FileStatsRepository fileStatsRepository,
+                         UserRepository userRepository,
+                         UserFactory userFactory,
+                         ProjectWriteCoordinator writeCoordinator,
+                         StatsWriteBuffer writeBuffer,
+                         BadgeCache badgeCache,
+                         UserRollupWriter rollupWriter,
+                         TimeSeriesEngine timeSeriesEngine,
+                         StatsProperties statsProperties,
+                         ObjectMapper objectMapper) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.fileStatsRepository = fileStatsRepository;
+        this.userRepository = userRepository;
+        this.userFactory = userFactory;
+        this.writeCoordinator = writeCoordinator;
+        this.writeBuffer = writeBuffer;
+        this.badgeCache = badgeCache;
+        this.rollupWriter = rollupWriter;
+        this.timeSeriesEngine = timeSeriesEngine;
+        this.statsProperties = statsProperties;
+        this.recordReader = objectMapper.readerFor(ImportRecord.class);
+        // Вихідний потік належить контейнеру: Jackson не повинен закривати його після кожної події
+        this.eventWriter = objectMapper.writerFor(ImportProgress.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public void importStats(InputStream input, OutputStream output, Jwt jwt) throws IOException {
+        Import run = new Import(jwt, output);
+        int batchSize = statsProperties.getBulkImport().getBatchSize();
+
+        // Кожен рядок розбирається окремо, тож зіпсований рядок не зриває розбір решти потоку
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ParsedRecord> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.records++;
+            try {
+                batch.add(parse(lineNumber, line));
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (ValidationException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                writeBatch(run, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(run, batch);
+        }
+
+        run.emit(ImportProgress.counts(ImportProgress.SUMMARY, run.records, run.imported, run.failed, run.projectsCreated));
+        logger.info("Imported {} of {} records ({} failed, {} projects created) for user {}",
+                run.imported, run.records, run.failed, run.projectsCreated, jwt.getSubject());
+    }
+
+    private ParsedRecord parse(long lineNumber, String line) throws JsonProcessingException {
+        ImportRecord record = recordReader.readValue(line);
+        if (record.getProjectPath() == null || record.getProjectPath().trim().isEmpty()) {
+            throw new ValidationException("Project path is required");
+        }
+
+        FileStats file = new FileStats();
+        file.setFilePath(record.getFilePath());
+        file.setType(record.getType());
+        file.setCodingTime(record.getCodingTime());
+        file.setOpenTime(record.getOpenTime());
+        file.setDailyStats(record.getDailyStats() != null ? new HashMap<>(record.getDailyStats()) : new HashMap<>());
+        ProjectStatsServiceImpl.validateFileStats(file);
+
+        return new ParsedRecord(lineNumber, record.getProjectPath(), file);
+    }
+
+    private void writeBatch(Import run, List<ParsedRecord> batch) throws IOException {
+        Map<String, List<ParsedRecord>> byProject = new LinkedHashMap<>();
+        for (ParsedRecord record : batch) {
+            byProject.computeIfAbsent(record.projectPath(), k -> new ArrayList<>()).add(record);
+        }
+
+        for (Map.Entry<String, List<ParsedRecord>> entry : byProject.entrySet()) {
+            List<ParsedRecord> records = entry.getValue();
+            try {
+                writeProject(run, entry.getKey(), records);
+                run.imported += records.size();
+            } catch (Exception e) {
+                logger.error("Error importing records for project {}: {}", entry.getKey(), e.getMessage(), e);
+                String message = e instanceof ValidationException ? e.getMessage() : "Failed to write record";
+                for (ParsedRecord record : records) {
+                    run.reject(record.line(), message);
+                }
+            }
+        }
+        run.emit(ImportProgress.counts(ImportProgress.PROGRESS, run.records, run.imported, run.failed, run.projectsCreated));
+    }
+
+    private void writeProject(Import run, String projectPath, List<ParsedRecord> records) {
+        String projectId = run.projectIds.get(projectPath);
+        boolean created = false;
+        if (projectId == null) {
+            List<String> existing = projectStatsRepository.findIdsByUserIdAndProjectPath(run.userId, projectPath);
+            if (existing.isEmpty()) {
+                projectId = UUID.randomUUID().toString();
+                created = true;
+            } else {
+                projectId = existing.get(0);
+            }
+        }
+        if (!created && writeBuffer.isEnabled()) {
+            writeBuffer.flushProject(projectId);
+        }
+
+        // Користувач зберігається до транзакції проєкту, щоб відкат пакета не лишив у кеші незбережену сутність
+        User owner = created ? run.user() : null;
+        String id = projectId;
+        writeCoordinator.write(projectId, () -> {
+            ProjectStats project = owner != null
+                    ? newProject(id, projectPath, owner)
+                    : projectStatsRepository.findById(id).orElseThrow();
+            apply(project, records);
+            return project;
+        });
+
+        run.projectIds.put(projectPath, projectId);
+        if (created) {
+            run.projectsCreated++;
+        }
+    }
+
+    private ProjectStats newProject(String projectId, String projectPath, User owner) {
+        ProjectStats project = new ProjectStats();
+        project.setProjectId(projectId);
+        project.setProjectPath(projectPath);
+        project.setUser(owner);
+        project.setTotalCodingTime(0L);
+        project.setTotalOpenTime(0L);
+        project.setDailyStats(new HashMap<>());
+        return projectStatsRepository.save(project);
+    }
+
+    // Значення записів замінюють наявні; до проєкту додається лише різниця, без перечитування всіх його файлів
+    private void apply(ProjectStats project, List<ParsedRecord> records) {
+        boolean packed = statsProperties.getStorage().isPacked();
+        String projectId = project.getProjectId();
+
+        Set<String> filePaths = new HashSet<>();
+        for (ParsedRecord record : records) {
+            filePaths.add(record.file().getFilePath());
+        }
+        Map<String, FileStats> files = new HashMap<>();
+        for (FileStats file : fileStatsRepository.findByProjectIdAndFilePathIn(projectId, filePaths)) {
+            files.put(file.getFilePath(), file);
+        }
+
+        Map<String, FileStats> touched = new LinkedHashMap<>();
+        List<FileStats> newFiles = new ArrayList<>();
+        long codingDelta = 0;
+        long openDelta = 0;
+        UserRollupWriter.Delta rollup = new UserRollupWriter.Delta();
+        for (ParsedRecord record : records) {
+            FileStats incoming = record.file();
+            FileStats file = files.get(incoming.getFilePath());
+            if (file == null) {
+                file = new FileStats();
+                file.setProjectId(projectId);
+                file.setFilePath(incoming.getFilePath());
+                file.setCodingTime(0L);
+                file.setOpenTime(0L);
+                files.put(file.getFilePath(), file);
+                newFiles.add(file);
+            }
+            if (touched.put(file.getFilePath(), file) == null) {
+                // Імпорт може змінити тип файлу, тож його внесок у мови віднімається цілком і додається після змін
+                rollup.addLanguages(file, -1);
+            }
+            file.setType(incoming.getType());
+
+            long codingBefore = valueOf(file.getCodingTime());
+            long openBefore = valueOf(file.getOpenTime());
+            Map<LocalDate, DailyStats> incomingDaily = incoming.getDailyStats();
+            if (incomingDaily.isEmpty()) {
+                file.setCodingTime(incoming.getCodingTime());
+                file.setOpenTime(incoming.getOpenTime());
+            } else {
+                for (Map.Entry<LocalDate, DailyStats> entry : incomingDaily.entrySet()) {
+                    DailyStats value = entry.getValue();
+                    DailyStats previous = file.getDailyStats().put(entry.getKey(), new DailyStats(value.getCodingTime(), value.getOpenTime()));
+                    long dayCodingDelta = value.getCodingTime() - (previous != null ? valueOf(previous.getCodingTime()) : 0L);
+                    long dayOpenDelta = value.getOpenTime() - (previous != null ? valueOf(previous.getOpenTime()) : 0L);
+                    boolean newProjectDay = addToProjectDay(project, entry.getKey(), dayCodingDelta, dayOpenDelta);
+                    rollup.add(entry.getKey(), dayCodingDelta, dayOpenDelta, newProjectDay ? 1 : 0, previous == null ? 1 : 0);
+                    if (newProjectDay) {
+                        rollup.addProjectDay(projectId, entry.getKey(), 1);
+                    }
+                }
+                file.calculateTotalTimes();
+            }
+            codingDelta += valueOf(file.getCodingTime()) - codingBefore;
+            openDelta += valueOf(file.getOpenTime()) - openBefore;
+        }
+
+        for (FileStats file : touched.values()) {
+            rollup.addLanguages(file, 1);
+            file.storeDailyStats(packed);
+        }
+        project.setTotalCodingTime(valueOf(project.getTotalCodingTime()) + codingDelta);
+        project.setTotalOpenTime(valueOf(project.getTotalOpenTime()) + openDelta);
+        project.storeDailyStats(packed);
+
+        fileStatsRepository.saveAll(newFiles);
+        rollupWriter.apply(UserRollupWriter.userIdOf(project), rollup);
+        badgeCache.evictAfterCommit(projectId);
+        timeSeriesEngine.replaceProjectAfterCommit(project);
+    }
+
+    // Повертає true, якщо день проєкту створено цим приростом
+    private boolean addToProjectDay(ProjectStats project, LocalDate date, long codingDelta, long openDelta) {
+        if (codingDelta == 0 && openDelta == 0) {
+            return false;
+        }
+        Map<LocalDate, DailyStats> dailyStats = project.getDailyStats();
+        DailyStats current = dailyStats.get(date);
+        dailyStats.put(date, new DailyStats(
+                (current != null ? valueOf(current.getCodingTime()) : 0L) + codingDelta,
+                (current != null ? valueOf(current.getOpenTime()) : 0L) + openDelta));
+        return current == null;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private record ParsedRecord(long line, String projectPath, FileStats file) {
+    }
+
+    // Стан одного виклику імпорту
+    private final class Import {
+        private final Jwt jwt;
+        private final String userId;
+        private final OutputStream output;
+        private final Map<String, String> projectIds = new HashMap<>();
+        private User user;
+        private long records;
+        private long imported;
+        private long failed;
+        private long projectsCreated;
+
+        private Import(Jwt jwt, OutputStream output) {
+            this.jwt = jwt;
+            this.userId = jwt.getSubject();
+            this.output = output;
+        }
+
+        private User user() {
+            if (user == null) {
+                user = userRepository.findById(userId)
+                        .orElseGet(() -> userRepository.save(userFactory.createFromJwt(jwt)));
+            }
+            return user;
+        }
+
+        private void reject(long line, String message) throws IOException {
+            failed++;
+            emit(ImportProgress.error(line, message));
+        }
+
+        private void emit(ImportProgress event) throws IOException {
+            eventWriter.writeValue(output, event);
+            output.write('\n');
+            output.flush();
+        }
+    }
+}
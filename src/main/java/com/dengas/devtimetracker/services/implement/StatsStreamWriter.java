@@ -0,0 +1,421 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.SmileConfig;
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.utils.DailySeriesCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Потокова видача списків проєктів і файлів (?stream=true).
+ * <p>
+ * Рядки читаються одним forward-only курсором (fetch size з stats.streaming.fetch-size) і одразу пишуться
+ * JsonGenerator у відповідь у тому ж конверті ResponseWrapper, тож пам'ять не залежить від кількості рядків.
+ * Поля ті самі, що й у звичайній відповіді, окрім user: з нього пишуться лише власні колонки, без команд.
+ * Тотали пишуться після dailyStats, бо для вікна дат вони рахуються під час проходу.
+ * Помилку після початку запису вже не передати статусом, тому відповідь обривається і JSON лишається незавершеним:
+ * генератор не дописує відкриті масиви й об'єкти при закритті, інакше клієнт отримав би валідний, але обрізаний список.
+ */
+@Component
+public class StatsStreamWriter {
+
+    private static final String NULL_TEXT = "cast(null as varchar(255))";
+    private static final String NULL_BIGINT = "cast(null as bigint)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final StatsProperties statsProperties;
+
+    public StatsStreamWriter(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             MappingJackson2SmileHttpMessageConverter smileConverter,
+                             StatsProperties statsProperties) {
+        // Окремий JdbcTemplate: fetch size потрібен лише тут, а PostgreSQL тримає курсор тільки в транзакції
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(statsProperties.getStreaming().getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.smileMapper = smileConverter.getObjectMapper();
+        this.statsProperties = statsProperties;
+    }
+
+    // Smile лише при явному запиті, як і для звичайних відповідей; інакше JSON
+    public static MediaType negotiate(String accept) {
+        if (accept != null) {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (!mediaType.isWildcardType() && mediaType.isCompatibleWith(SmileConfig.APPLICATION_SMILE)) {
+                    return SmileConfig.APPLICATION_SMILE;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // userId == null — усі проєкти (адміністратор)
+    public StreamingResponseBody projects(String userId, DateRange range, MediaType mediaType) {
+        boolean packed = statsProperties.getStorage().isPacked();
+        List<Object> args = new ArrayList<>();
+        String sql = projectBranch(userId, range, packed, args)
+                + " union all "
+                + fileBranch(userId, range, packed, args)
+                + " order by project_id, kind, file_path" + (packed ? "" : ", date");
+        return output -> write(output, mediaType, generator -> {
+            RowWriter writer = new RowWriter(generator, range, packed, true);
+            jdbcTemplate.query(sql, writer, args.toArray());
+            writer.finish();
+        });
+    }
+
+    public StreamingResponseBody files(String projectId, DateRange range, MediaType mediaType) {
+        boolean packed = statsProperties.getStorage().isPacked();
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select f.project_id, f.id as file_id, f.file_path, f.type as file_type, " +
+                "f.coding_time as file_coding_time, f.open_time as file_open_time, ");
+        if (packed) {
+            sql.append("f.daily_series as series from file_stats f");
+        } else {
+            sql.append("d.date, d.coding_time, d.open_time from file_stats f ").append(fileDaysJoin(range, args));
+        }
+        sql.append(" where f.project_id = ? order by f.file_path").append(packed ? "" : ", d.date");
+        args.add(projectId);
+        return output -> write(output, mediaType, generator -> {
+            RowWriter writer = new RowWriter(generator, range, packed, false);
+            jdbcTemplate.query(sql.toString(), writer, args.toArray());
+            writer.finish();
+        });
+    }
+
+    private String projectBranch(String userId, DateRange range, boolean packed, List<Object> args) {
+        StringBuilder sql = new StringBuilder("select p.project_id, 0 as kind, p.project_path, p.github_badge_visible, " +
+                "p.total_coding_time, p.total_open_time, u.id as user_id, u.email, u.username, u.created_at, u.updated_at, " +
+                NULL_TEXT + " as file_id, " + NULL_TEXT + " as file_path, " + NULL_TEXT + " as file_type, " +
+                NULL_BIGINT + " as file_coding_time, " + NULL_BIGINT + " as file_open_time, ");
+        if (packed) {
+            sql.append("p.daily_series as series from project_stats p left join users u on u.id = p.user_id");
+        } else {
+            sql.append("d.date, d.coding_time, d.open_time from project_stats p left join users u on u.id = p.user_id " +
+                    "left join project_daily_stats d on d.project_id = p.project_id");
+            if (range.isBounded()) {
+                sql.append(" and d.date between ? and ?");
+                args.add(range.getFrom());
+                args.add(range.getTo());
+            }
+        }
+        appendUserFilter(sql, userId, args);
+        return sql.toString();
+    }
+
+    private String fileBranch(String userId, DateRange range, boolean packed, List<Object> args) {
+        StringBuilder sql = new StringBuilder("select p.project_id, 1, " + NULL_TEXT + ", cast(null as boolean), " +
+                NULL_BIGINT + ", " + NULL_BIGINT + ", " + NULL_TEXT + ", " + NULL_TEXT + ", " + NULL_TEXT + ", " +
+                "cast(null as timestamp), cast(null as timestamp), " +
+                "f.id, f.file_path, f.type, f.coding_time, f.open_time, ");
+        if (packed) {
+            sql.append("f.daily_series from project_stats p join file_stats f on f.project_id = p.project_id");
+        } else {
+            sql.append("d.date, d.coding_time, d.open_time from project_stats p join file_stats f on f.project_id = p.project_id ")
+                    .append(fileDaysJoin(range, args));
+        }
+        appendUserFilter(sql, userId, args);
+        return sql.toString();
+    }
+
+    // У вікні дат, як і в звичайній відповіді, файли без активності не повертаються
+    private String fileDaysJoin(DateRange range, List<Object> args) {
+        if (!range.isBounded()) {
+            return "left join file_daily_stats d on d.file_id = f.id";
+        }
+        args.add(range.getFrom());
+        args.add(range.getTo());
+        return "join file_daily_stats d on d.file_id = f.id and d.date between ? and ?";
+    }
+
+    private void appendUserFilter(StringBuilder sql, String userId, List<Object> args) {
+        if (userId != null) {
+            sql.append(" where p.user_id = ?");
+            args.add(userId);
+        }
+    }
+
+    private void write(OutputStream output, MediaType mediaType, GeneratorAction action) throws IOException {
+        ObjectMapper mapper = SmileConfig.APPLICATION_SMILE.isCompatibleWith(mediaType) ? smileMapper : objectMapper;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeArrayFieldStart("data");
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        action.run(generator);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("timestamp", LocalDateTime.now().toString());
+            generator.writeNumberField("status", HttpStatus.OK.value());
+            generator.writeEndObject();
+        }
+    }
+
+    @FunctionalInterface
+    private interface GeneratorAction {
+        void run(JsonGenerator generator) throws IOException;
+    }
+
+    // Рядки йдуть упорядковано: проєкт (kind 0, по рядку на день), далі його файли (kind 1) по шляху і даті
+    private static class RowWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private final DateRange range;
+        private final boolean packed;
+        private final boolean nested;
+
+        private String projectId;
+        private boolean projectDaysOpen;
+        private final Totals projectTotals = new Totals();
+        private String fileId;
+        private final Totals fileTotals = new Totals();
+
+        RowWriter(JsonGenerator generator, DateRange range, boolean packed, boolean nested) {
+            this.generator = generator;
+            this.range = range;
+            this.packed = packed;
+            this.nested = nested;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (nested && rs.getInt("kind") == 0) {
+                    onProjectRow(rs);
+                } else {
+                    onFileRow(rs);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void onProjectRow(ResultSet rs) throws SQLException, IOException {
+            String id = rs.getString("project_id");
+            if (!id.equals(projectId)) {
+                finishProject();
+                startProject(rs, id);
+            }
+            writeDays(rs, projectTotals);
+        }
+
+        private void onFileRow(ResultSet rs) throws SQLException, IOException {
+            if (projectDaysOpen) {
+                closeProjectDays();
+            }
+            String id = rs.getString("file_id");
+            if (packed) {
+                // Упакований ряд приходить одним рядком, тож порожнє вікно відомо до початку запису файлу
+                SortedMap<LocalDate, DailyStats> days = packedDays(rs);
+                if (range.isBounded() && days.isEmpty()) {
+                    return;
+                }
+                startFile(rs, id);
+                for (Map.Entry<LocalDate, DailyStats> day : days.entrySet()) {
+                    writeDay(day.getKey(), day.getValue().getCodingTime(), day.getValue().getOpenTime(), fileTotals);
+                }
+                finishFile();
+                return;
+            }
+            if (!id.equals(fileId)) {
+                finishFile();
+                startFile(rs, id);
+            }
+            writeDays(rs, fileTotals);
+        }
+
+        private void startProject(ResultSet rs, String id) throws SQLException, IOException {
+            projectId = id;
+            projectTotals.reset(nullableLong(rs, "total_coding_time"), nullableLong(rs, "total_open_time"));
+            generator.writeStartObject();
+            generator.writeStringField("projectId", id);
+            generator.writeStringField("projectPath", rs.getString("project_path"));
+            generator.writeBooleanField("githubBadgeVisible", rs.getBoolean("github_badge_visible"));
+            String userId = rs.getString("user_id");
+            if (userId == null) {
+                generator.writeNullField("user");
+            } else {
+                generator.writeObjectFieldStart("user");
+                generator.writeStringField("id", userId);
+                generator.writeStringField("email", rs.getString("email"));
+                generator.writeStringField("username", rs.getString("username"));
+                writeDateTime("createdAt", rs.getObject("created_at", LocalDateTime.class));
+                writeDateTime("updatedAt", rs.getObject("updated_at", LocalDateTime.class));
+                generator.writeEndObject();
+            }
+            generator.writeObjectFieldStart("dailyStats");
+            projectDaysOpen = true;
+        }
+
+        private void closeProjectDays() throws IOException {
+            generator.writeEndObject();
+            projectTotals.write(generator, "totalCodingTime", "totalOpenTime", range.isBounded());
+            generator.writeArrayFieldStart("files");
+            projectDaysOpen = false;
+        }
+
+        private void finishProject() throws IOException {
+            if (projectId == null) {
+                return;
+            }
+            finishFile();
+            if (projectDaysOpen) {
+                closeProjectDays();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            projectId = null;
+        }
+
+        private void startFile(ResultSet rs, String id) throws SQLException, IOException {
+            fileId = id;
+            fileTotals.reset(nullableLong(rs, "file_coding_time"), nullableLong(rs, "file_open_time"));
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeStringField("projectId", rs.getString("project_id"));
+            generator.writeStringField("filePath", rs.getString("file_path"));
+            generator.writeStringField("type", rs.getString("file_type"));
+            generator.writeObjectFieldStart("dailyStats");
+        }
+
+        private void finishFile() throws IOException {
+            if (fileId == null) {
+                return;
+            }
+            generator.writeEndObject();
+            fileTotals.write(generator, "codingTime", "openTime", range.isBounded());
+            generator.writeEndObject();
+            fileId = null;
+        }
+
+        void finish() throws IOException {
+            if (nested) {
+                finishProject();
+            } else {
+                finishFile();
+            }
+        }
+
+        private void writeDays(ResultSet rs, Totals totals) throws SQLException, IOException {
+            if (packed) {
+                for (Map.Entry<LocalDate, DailyStats> day : packedDays(rs).entrySet()) {
+                    writeDay(day.getKey(), day.getValue().getCodingTime(), day.getValue().getOpenTime(), totals);
+                }
+                return;
+            }
+            LocalDate date = rs.getObject("date", LocalDate.class);
+            if (date != null) {
+                writeDay(date, nullableLong(rs, "coding_time"), nullableLong(rs, "open_time"), totals);
+            }
+        }
+
+        private SortedMap<LocalDate, DailyStats> packedDays(ResultSet rs) throws SQLException {
+            SortedMap<LocalDate, DailyStats> days = new TreeMap<>();
+            DailySeriesCodec.decode(rs.getBytes("series")).forEach((date, stats) -> {
+                if (!date.isBefore(range.getFrom()) && !date.isAfter(range.getTo())) {
+                    days.put(date, stats);
+                }
+            });
+            return days;
+        }
+
+        private void writeDay(LocalDate date, Long codingTime, Long openTime, Totals totals) throws IOException {
+            generator.writeObjectFieldStart(date.toString());
+            writeNullableNumber(generator, "codingTime", codingTime);
+            writeNullableNumber(generator, "openTime", openTime);
+            generator.writeEndObject();
+            totals.add(codingTime, openTime);
+        }
+
+        private void writeDateTime(String field, LocalDateTime value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeStringField(field, value.toString());
+            }
+        }
+
+        private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+            long value = rs.getLong(column);
+            return rs.wasNull() ? null : value;
+        }
+    }
+
+    // Збережені тотали для всієї історії або сума днів, що потрапили у вікно
+    private static class Totals {
+        private Long storedCodingTime;
+        private Long storedOpenTime;
+        private long codingTime;
+        private long openTime;
+
+        void reset(Long storedCodingTime, Long storedOpenTime) {
+            this.storedCodingTime = storedCodingTime;
+            this.storedOpenTime = storedOpenTime;
+            this.codingTime = 0;
+            this.openTime = 0;
+        }
+
+        void add(Long codingTime, Long openTime) {
+            this.codingTime += codingTime != null ? codingTime : 0L;
+            this.openTime += openTime != null ? openTime : 0L;
+        }
+
+        void write(JsonGenerator generator, String codingField, String openField, boolean windowed) throws IOException {
+            if (windowed) {
+                generator.writeNumberField(codingField, codingTime);
+                generator.writeNumberField(openField, openTime);
+                return;
+            }
+            writeNullableNumber(generator, codingField, storedCodingTime);
+            writeNullableNumber(generator, openField, storedOpenTime);
+        }
+    }
+
+    private static void writeNullableNumber(JsonGenerator generator, String field, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+}
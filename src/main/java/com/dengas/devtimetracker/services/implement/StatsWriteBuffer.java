@@ -0,0 +1,275 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.exceptions.ResourceNotFoundException;
+import com.dengas.devtimetracker.exceptions.WriteBufferFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind буфер для heartbeats: прирости з однаковим (projectId, filePath, date) сумуються в пам'яті
+ * і скидаються в БД пакетами — по одній транзакції на проєкт — за інтервалом, при досягненні порогу
+ * розміру та при зупинці застосунку.
+ * <p>
+ * Розмір буфера обмежений: прирости, які не вдалося записати після stats.write-buffer.max-flush-attempts спроб,
+ * відкидаються з метрикою, а при заповненому буфері запит чекає на скидання і, якщо місця так і не з'явилося,
+ * відхиляється з {@link WriteBufferFullException}.
+ */
+@Component
+public class StatsWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsWriteBuffer.class);
+
+    private final HeartbeatWriter heartbeatWriter;
+    private final StatsProperties.WriteBuffer properties;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter droppedCounter;
+    private final Counter exhaustedCounter;
+    private final Counter rejectedCounter;
+
+    // Читацький лок береться при додаванні приростів, письмовий — лише на час підміни мапи при скиданні
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile ConcurrentHashMap<BufferKey, PendingDelta> pending = new ConcurrentHashMap<>();
+
+    public StatsWriteBuffer(HeartbeatWriter heartbeatWriter,
+                            StatsProperties statsProperties,
+                            MeterRegistry meterRegistry) {
+        this.heartbeatWriter = heartbeatWriter;
+        this.properties = statsProperties.getWriteBuffer();
+
+        Gauge.builder("stats.write_buffer.depth", this, StatsWriteBuffer::size)
+                .description("Number of pending (projectId, filePath, date) deltas")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.write_buffer.flush")
+                .description("Time spent flushing the write-behind buffer")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("stats.write_buffer.flushed")
+                .description("Number of buffered deltas written to the database")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("stats.write_buffer.dropped")
+                .description("Number of buffered deltas dropped without being written")
+                .tag("reason", "invalid")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("stats.write_buffer.dropped")
+                .description("Number of buffered deltas dropped without being written")
+                .tag("reason", "retries_exhausted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("stats.write_buffer.rejected")
+                .description("Number of heartbeats rejected because the buffer stayed full after a flush")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    // При досягненні порогу скидання виконується в потоці запиту, що обмежує ріст буфера під навантаженням
+    public void enqueue(String projectId, List<Heartbeat> heartbeats) {
+        if (pending.size() >= properties.getMaxSize()) {
+            awaitCapacity(heartbeats.size());
+        }
+        merge(projectId, heartbeats, 0);
+    }
+
+    // На відміну від flush(), запит чекає на скидання, що вже виконується, а не пропускає його
+    private void awaitCapacity(int incoming) {
+        flushLock.lock();
+        try {
+            // Поки потік чекав на лок, буфер міг скинути інший потік
+            if (pending.size() >= properties.getMaxSize()) {
+                write(drain(null), false);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+
+        // Прирости, що не записались, повертаються в буфер — при недоступній БД місця не звільняється
+        if (pending.size() >= properties.getMaxSize()) {
+            rejectedCounter.increment(incoming);
+            throw new WriteBufferFullException("Heartbeat buffer is full, please retry later");
+        }
+    }
+
+    private void merge(String projectId, List<Heartbeat> heartbeats, int attempts) {
+        swapLock.readLock().lock();
+        try {
+            for (Heartbeat heartbeat : heartbeats) {
+                BufferKey key = new BufferKey(projectId, heartbeat.getFilePath(), heartbeat.getDate());
+                pending.compute(key, (k, delta) -> delta == null
+                        ? new PendingDelta(heartbeat, attempts)
+                        : delta.add(heartbeat, attempts));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@statsProperties.writeBuffer.flushInterval.toMillis()}")
+    public void scheduledFlush() {
+        if (isEnabled()) {
+            flush();
+        }
+    }
+
+    // Якщо скидання вже виконується іншим потоком, поточний виклик нічого не робить
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            write(drain(null), false);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Скидає прирости одного проєкту перед повним перезаписом його статистики. Помилка запису прокидається далі,
+    // щоб перезапис не відбувся: інакше повернуті в буфер прирости лягли б поверх нового стану
+    public void flushProject(String projectId) {
+        flushLock.lock();
+        try {
+            write(drain(projectId), true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void discardProject(String projectId) {
+        int discarded = drain(projectId).values().stream().mapToInt(batch -> batch.heartbeats.size()).sum();
+        if (discarded > 0) {
+            logger.info("Discarded {} buffered deltas of deleted project {}", discarded, projectId);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            Map<String, Batch> remaining = drain(null);
+            if (!remaining.isEmpty()) {
+                logger.info("Flushing write-behind buffer on shutdown ({} projects)", remaining.size());
+                write(remaining, false);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Map<String, Batch> drain(String projectId) {
+        Map<BufferKey, PendingDelta> drained;
+        swapLock.writeLock().lock();
+        try {
+            if (projectId == null) {
+                drained = pending;
+                pending = new ConcurrentHashMap<>();
+            } else {
+                drained = new HashMap<>();
+                pending.entrySet().removeIf(entry -> {
+                    if (entry.getKey().projectId().equals(projectId)) {
+                        drained.put(entry.getKey(), entry.getValue());
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        // Проєкт пишеться однією транзакцією, тож лічильник спроб у нього спільний
+        Map<String, Batch> byProject = new HashMap<>();
+        drained.forEach((key, delta) -> {
+            Batch batch = byProject.computeIfAbsent(key.projectId(), k -> new Batch());
+            batch.heartbeats.add(new Heartbeat(key.filePath(), delta.type, key.date(), delta.codingDelta, delta.openDelta));
+            batch.attempts = Math.max(batch.attempts, delta.attempts);
+        });
+        return byProject;
+    }
+
+    private void write(Map<String, Batch> byProject, boolean rethrow) {
+        if (byProject.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> byProject.forEach((projectId, batch) -> {
+            List<Heartbeat> heartbeats = batch.heartbeats;
+            try {
+                heartbeatWriter.write(projectId, heartbeats);
+                flushedCounter.increment(heartbeats.size());
+            } catch (ResourceNotFoundException | ValidationException e) {
+                droppedCounter.increment(heartbeats.size());
+                logger.warn("Dropping {} buffered deltas of project {}: {}", heartbeats.size(), projectId, e.getMessage());
+            } catch (RuntimeException e) {
+                int attempts = batch.attempts + 1;
+                if (attempts >= properties.getMaxFlushAttempts()) {
+                    exhaustedCounter.increment(heartbeats.size());
+                    logger.error("Dropping {} buffered deltas of project {} after {} failed flush attempts: {}",
+                            heartbeats.size(), projectId, attempts, e.getMessage(), e);
+                } else {
+                    // Тимчасова помилка БД — повертаємо прирости в буфер для наступної спроби
+                    logger.error("Failed to flush buffered deltas of project {} (attempt {}): {}",
+                            projectId, attempts, e.getMessage(), e);
+                    merge(projectId, heartbeats, attempts);
+                }
+                if (rethrow) {
+                    throw e;
+                }
+            }
+        }));
+    }
+
+    private record BufferKey(String projectId, String filePath, LocalDate date) {
+    }
+
+    private static final class Batch {
+        private final List<Heartbeat> heartbeats = new ArrayList<>();
+        private int attempts;
+    }
+
+    private static final class PendingDelta {
+        private String type;
+        private long codingDelta;
+        private long openDelta;
+        private int attempts;
+
+        private PendingDelta(Heartbeat heartbeat, int attempts) {
+            this.type = heartbeat.getType();
+            this.codingDelta = heartbeat.getCodingDelta();
+            this.openDelta = heartbeat.getOpenDelta();
+            this.attempts = attempts;
+        }
+
+        // Викликається лише всередині ConcurrentHashMap.compute, тому окрема синхронізація не потрібна
+        private PendingDelta add(Heartbeat heartbeat, int attempts) {
+            if (type == null) {
+                type = heartbeat.getType();
+            }
+            codingDelta += heartbeat.getCodingDelta();
+            openDelta += heartbeat.getOpenDelta();
+            this.attempts = Math.max(this.attempts, attempts);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory індекс щоденних рядів кожного користувача та проєкту на примітивних масивах long[],
+ * індексованих epoch-day. Префіксні суми тримаються в деревах Фенвіка, тому сума за довільний
+ * діапазон і за останні N днів рахується за O(log n), а тотали по днях тижня — за O(1), без алокацій.
+ * <p>
+ * Індекс будується з БД під час старту (до того, як веб-сервер приймає запити) і оновлюється
+ * після коміту кожного запису. Стан локальний для інстансу, тому при кількох вузлах індекс
+ * слід вимикати через stats.analytics.enabled — запити тоді йдуть у БД.
+ * <p>
+ * Під час повторної побудови (rebuild після масового завантаження) оновлення після коміту не застосовуються
+ * до мап, що будуються чи замінюються: проєкт лише позначається застарілим і перечитується з БД після підміни.
+ * До завершення цього кроку індекс не готовий і запити йдуть у БД.
+ */
+@Component
+public class TimeSeriesEngine implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesEngine.class);
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final StatsProperties.Analytics properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Map<String, ProjectEntry> projects = new ConcurrentHashMap<>();
+    private volatile Map<String, Series> users = new ConcurrentHashMap<>();
+    // Проєкти кожного користувача: кількість активних рахується лише серед них
+    private volatile Map<String, Set<String>> userProjects = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Оновлення беруть read-лок, rebuild — write-лок лише для перемикання режиму,
+    // тож на момент початку побудови жодне оновлення вже не пише в старі мапи
+    private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private final Set<String> staleProjects = ConcurrentHashMap.newKeySet();
+
+    public TimeSeriesEngine(ProjectStatsRepository projectStatsRepository,
+                            StatsProperties statsProperties,
+                            PlatformTransactionManager transactionManager) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.properties = statsProperties.getAnalytics();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    // Поки індекс не готовий (вимкнений або зупинений після помилки), запити мають іти в БД
+    public boolean isReady() {
+        return ready && properties.isEnabled();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        ready = false;
+        setRebuilding(true);
+        Map<String, ProjectEntry> rebuiltProjects = new ConcurrentHashMap<>();
+        Map<String, Series> rebuiltUsers = new ConcurrentHashMap<>();
+        Map<String, Set<String>> rebuiltUserProjects = new ConcurrentHashMap<>();
+
+        try {
+            int page = 0;
+            boolean hasNext = true;
+            while (hasNext) {
+                PageRequest request = PageRequest.of(page++, REBUILD_BATCH_SIZE, Sort.by("projectId"));
+                // Кожна сторінка читається в окремій транзакції, щоб контекст персистентності не ріс
+                hasNext = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    Slice<ProjectStats> slice = projectStatsRepository.findAll(request);
+                    for (ProjectStats project : slice) {
+                        ProjectEntry entry = new ProjectEntry(userIdOf(project), Series.of(project.getDailyStats()));
+                        rebuiltProjects.put(project.getProjectId(), entry);
+                        if (entry.userId() != null) {
+                            rebuiltUsers.computeIfAbsent(entry.userId(), k -> new Series()).merge(entry.series(), 1);
+                            rebuiltUserProjects.computeIfAbsent(entry.userId(), k -> ConcurrentHashMap.newKeySet())
+                                    .add(project.getProjectId());
+                        }
+                    }
+                    return slice.hasNext();
+                }));
+            }
+        } catch (RuntimeException e) {
+            // Старт застосунку не блокується: без індексу запити просто йдуть у БД
+            setRebuilding(false);
+            staleProjects.clear();
+            disable(e);
+            return;
+        }
+
+        projects = rebuiltProjects;
+        users = rebuiltUsers;
+        userProjects = rebuiltUserProjects;
+
+        try {
+            reloadStaleProjects();
+        } catch (RuntimeException e) {
+            staleProjects.clear();
+            disable(e);
+            return;
+        }
+        ready = true;
+        logger.info("Time series index built: {} projects, {} users in {} ms",
+                rebuiltProjects.size(), rebuiltUsers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Проєкти, закомічені під час побудови, перечитуються з БД, поки нових застарілих не залишиться.
+    // Інші оновлення в цей час лише додають проєкти до staleProjects, тож мапи змінює тільки цей потік
+    private void reloadStaleProjects() {
+        while (true) {
+            updateLock.writeLock().lock();
+            try {
+                if (staleProjects.isEmpty()) {
+                    rebuilding = false;
+                    return;
+                }
+            } finally {
+                updateLock.writeLock().unlock();
+            }
+
+            List<String> projectIds = new ArrayList<>(staleProjects);
+            staleProjects.removeAll(projectIds);
+            for (String projectId : projectIds) {
+                ProjectEntry entry = transactionTemplate.execute(status -> projectStatsRepository.findById(projectId)
+                        .map(project -> new ProjectEntry(userIdOf(project), Series.of(project.getDailyStats())))
+                        .orElse(null));
+                if (entry != null) {
+                    replaceEntry(projectId, entry);
+                } else {
+                    unlink(projectId, projects.remove(projectId));
+                }
+            }
+        }
+    }
+
+    private void setRebuilding(boolean value) {
+        updateLock.writeLock().lock();
+        try {
+            rebuilding = value;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    // Прирости застосовуються після коміту, щоб відкочений запис не потрапив в індекс
+    public void recordHeartbeatsAfterCommit(ProjectStats project, List<Heartbeat> heartbeats) {
+        String projectId = project.getProjectId();
+        String userId = userIdOf(project);
+        afterCommit(projectId, () -> {
+            Series projectSeries = projects.computeIfAbsent(projectId, k -> {
+                link(projectId, userId);
+                return new ProjectEntry(userId, new Series());
+            }).series();
+            Series userSeries = userId != null ? users.computeIfAbsent(userId, k -> new Series()) : null;
+            for (Heartbeat heartbeat : heartbeats) {
+                long day = heartbeat.getDate().toEpochDay();
+                projectSeries.add(day, heartbeat.getCodingDelta(), heartbeat.getOpenDelta());
+                if (userSeries != null) {
+                    userSeries.add(day, heartbeat.getCodingDelta(), heartbeat.getOpenDelta());
+                }
+            }
+        });
+    }
+
+    // Ряд будується одразу зі стану в транзакції, а підміняється в індексі після коміту
+    public void replaceProjectAfterCommit(ProjectStats project) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String projectId = project.getProjectId();
+        ProjectEntry entry;
+        try {
+            entry = new ProjectEntry(userIdOf(project), Series.of(project.getDailyStats()));
+        } catch (IllegalArgumentException e) {
+            disable(e);
+            return;
+        }
+        afterCommit(projectId, () -> replaceEntry(projectId, entry));
+    }
+
+    public void removeProjectAfterCommit(String projectId) {
+        afterCommit(projectId, () -> unlink(projectId, projects.remove(projectId)));
+    }
+
+    private void replaceEntry(String projectId, ProjectEntry entry) {
+        ProjectEntry previous = projects.put(projectId, entry);
+        unlink(projectId, previous);
+        if (entry.userId() != null) {
+            users.computeIfAbsent(entry.userId(), k -> new Series()).merge(entry.series(), 1);
+            link(projectId, entry.userId());
+        }
+    }
+
+    public Series userSeries(String userId) {
+        Series series = users.get(userId);
+        return series != null ? series : Series.EMPTY;
+    }
+
+    public Series projectSeries(String projectId) {
+        ProjectEntry entry = projects.get(projectId);
+        return entry != null ? entry.series() : Series.EMPTY;
+    }
+
+    // userId == null — по всіх користувачах
+    public long codingTime(String userId, long fromDay, long toDay) {
+        if (userId != null) {
+            return userSeries(userId).codingTime(fromDay, toDay);
+        }
+        long total = 0;
+        for (Series series : users.values()) {
+            total += series.codingTime(fromDay, toDay);
+        }
+        return total;
+    }
+
+    public long openTime(String userId, long fromDay, long toDay) {
+        if (userId != null) {
+            return userSeries(userId).openTime(fromDay, toDay);
+        }
+        long total = 0;
+        for (Series series : users.values()) {
+            total += series.openTime(fromDay, toDay);
+        }
+        return total;
+    }
+
+    // Як і aggregate*InRange, рахує проєкти, що мають хоча б один день у вікні.
+    // Для користувача перебираються лише його проєкти, для адміністратора (userId == null) — усі
+    public long activeProjectCount(String userId, long fromDay, long toDay) {
+        long count = 0;
+        if (userId == null) {
+            for (ProjectEntry entry : projects.values()) {
+                if (entry.series().activeDays(fromDay, toDay) > 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        for (String projectId : userProjects.getOrDefault(userId, Set.of())) {
+            ProjectEntry entry = projects.get(projectId);
+            if (entry != null && entry.series().activeDays(fromDay, toDay) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void link(String projectId, String userId) {
+        if (userId != null) {
+            userProjects.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(projectId);
+        }
+    }
+
+    private void unlink(String projectId, ProjectEntry entry) {
+        if (entry == null || entry.userId() == null) {
+            return;
+        }
+        Series userSeries = users.get(entry.userId());
+        if (userSeries != null) {
+            userSeries.merge(entry.series(), -1);
+        }
+        Set<String> owned = userProjects.get(entry.userId());
+        if (owned != null) {
+            owned.remove(projectId);
+        }
+    }
+
+    private void afterCommit(String projectId, Runnable update) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(projectId, update);
+                }
+            });
+        } else {
+            apply(projectId, update);
+        }
+    }
+
+    // Помилка оновлення не повинна ламати вже закомічений запис: індекс вимикається до наступного rebuild
+    private void apply(String projectId, Runnable update) {
+        updateLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                staleProjects.add(projectId);
+                return;
+            }
+            update.run();
+        } catch (RuntimeException e) {
+            disable(e);
+        } finally {
+            updateLock.readLock().unlock();
+        }
+    }
+
+    private void disable(RuntimeException e) {
+        ready = false;
+        logger.warn("Time series index disabled, falling back to database: {}", e.getMessage());
+    }
+
+    // getId() на lazy-проксі користувача не ініціалізує його
+    private static String userIdOf(ProjectStats project) {
+        return project.getUser() != null ? project.getUser().getId() : null;
+    }
+
+    private record ProjectEntry(String userId, Series series) {
+    }
+
+    /**
+     * Щоденний ряд з префіксними сумами. Значення зберігаються в щільних масивах від baseDay,
+     * суми — у деревах Фенвіка (індекси з 1). Масиви ростуть удвічі, тож оновлення амортизовано O(log n).
+     * Активні дні (activeDays) відмічаються лише прямими записами add; агрегований ряд користувача,
+     * зібраний через merge, їх не веде.
+     */
+    public static final class Series {
+
+        static final Series EMPTY = new Series();
+
+        private static final int INITIAL_CAPACITY = 64;
+        // Понад сторіччя щоденної історії; захищає від величезних масивів через хибні дати
+        private static final int MAX_SPAN_DAYS = 40_000;
+
+        private long baseDay;
+        private long[] coding = new long[0];
+        private long[] open = new long[0];
+        private boolean[] active = new boolean[0];
+        private long[] codingTree = new long[1];
+        private long[] openTree = new long[1];
+        private long[] activeTree = new long[1];
+        private final long[] codingByDayOfWeek = new long[7];
+        private final long[] openByDayOfWeek = new long[7];
+
+        public static Series of(Map<LocalDate, DailyStats> dailyStats) {
+            Series series = new Series();
+            if (dailyStats == null || dailyStats.isEmpty()) {
+                return series;
+            }
+
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (LocalDate date : dailyStats.keySet()) {
+                first = Math.min(first, date.toEpochDay());
+                last = Math.max(last, date.toEpochDay());
+            }
+            series.reallocate(first, checkedSpan(first, last));
+
+            dailyStats.forEach((date, stats) -> {
+                int index = (int) (date.toEpochDay() - series.baseDay);
+                long codingTime = stats.getCodingTime() != null ? stats.getCodingTime() : 0L;
+                long openTime = stats.getOpenTime() != null ? stats.getOpenTime() : 0L;
+                series.coding[index] = codingTime;
+                series.open[index] = openTime;
+                series.active[index] = true;
+                series.codingByDayOfWeek[dayOfWeekIndex(date.toEpochDay())] += codingTime;
+                series.openByDayOfWeek[dayOfWeekIndex(date.toEpochDay())] += openTime;
+            });
+            series.rebuildTrees();
+            return series;
+        }
+
+        synchronized void add(long day, long codingDelta, long openDelta) {
+            add(day, codingDelta, openDelta, true);
+        }
+
+        // Додає (sign = 1) або віднімає (sign = -1) значення іншого ряду. Порядок локів завжди
+        // «цей ряд -> other», а ряди проєктів ніколи не мержаться в інші ряди, тож дедлоку немає
+        synchronized void merge(Series other, int sign) {
+            synchronized (other) {
+                for (int i = 0; i < other.coding.length; i++) {
+                    if (other.active[i]) {
+                        add(other.baseDay + i, sign * other.coding[i], sign * other.open[i], false);
+                    }
+                }
+            }
+        }
+
+        public synchronized long codingTime(long fromDay, long toDay) {
+            return rangeSum(codingTree, fromDay, toDay);
+        }
+
+        public synchronized long openTime(long fromDay, long toDay) {
+            return rangeSum(openTree, fromDay, toDay);
+        }
+
+        public synchronized long activeDays(long fromDay, long toDay) {
+            return rangeSum(activeTree, fromDay, toDay);
+        }
+
+        public synchronized long codingTimeOn(DayOfWeek dayOfWeek) {
+            return codingByDayOfWeek[dayOfWeek.ordinal()];
+        }
+
+        public synchronized long openTimeOn(DayOfWeek dayOfWeek) {
+            return openByDayOfWeek[dayOfWeek.ordinal()];
+        }
+
+        private void add(long day, long codingDelta, long openDelta, boolean markActive) {
+            int index = indexOf(day);
+            coding[index] += codingDelta;
+            open[index] += openDelta;
+            update(codingTree, index, codingDelta);
+            update(openTree, index, openDelta);
+            if (markActive && !active[index]) {
+                active[index] = true;
+                update(activeTree, index, 1);
+            }
+            codingByDayOfWeek[dayOfWeekIndex(day)] += codingDelta;
+            openByDayOfWeek[dayOfWeekIndex(day)] += openDelta;
+        }
+
+        private long rangeSum(long[] tree, long fromDay, long toDay) {
+            long from = Math.max(fromDay, baseDay);
+            long to = Math.min(toDay, baseDay + coding.length - 1);
+            if (coding.length == 0 || from > to) {
+                return 0;
+            }
+            return prefixSum(tree, (int) (to - baseDay) + 1) - prefixSum(tree, (int) (from - baseDay));
+        }
+
+        // Розширює масиви так, щоб день потрапив у діапазон; запас дорівнює поточній довжині
+        private int indexOf(long day) {
+            if (coding.length == 0) {
+                reallocate(day - INITIAL_CAPACITY / 2, INITIAL_CAPACITY);
+            }
+            long lastDay = baseDay + coding.length - 1;
+            if (day < baseDay || day > lastDay) {
+                long first = Math.min(day, baseDay);
+                long last = Math.max(day, lastDay);
+                checkedSpan(first, last);
+
+                long slack = coding.length;
+                long newFirst = day < baseDay ? Math.max(first - slack, last - MAX_SPAN_DAYS + 1) : first;
+                long newLast = day > lastDay ? Math.min(last + slack, newFirst + MAX_SPAN_DAYS - 1) : last;
+                reallocate(newFirst, (int) (newLast - newFirst + 1));
+            }
+            return (int) (day - baseDay);
+        }
+
+        private void reallocate(long newBaseDay, int length) {
+            long[] newCoding = new long[length];
+            long[] newOpen = new long[length];
+            boolean[] newActive = new boolean[length];
+            int offset = (int) (baseDay - newBaseDay);
+            if (coding.length > 0) {
+                System.arraycopy(coding, 0, newCoding, offset, coding.length);
+                System.arraycopy(open, 0, newOpen, offset, open.length);
+                System.arraycopy(active, 0, newActive, offset, active.length);
+            }
+            baseDay = newBaseDay;
+            coding = newCoding;
+            open = newOpen;
+            active = newActive;
+            rebuildTrees();
+        }
+
+        // Лінійна побудова дерев Фенвіка з масивів значень
+        private void rebuildTrees() {
+            int length = coding.length;
+            codingTree = new long[length + 1];
+            openTree = new long[length + 1];
+            activeTree = new long[length + 1];
+            for (int i = 1; i <= length; i++) {
+                codingTree[i] += coding[i - 1];
+                openTree[i] += open[i - 1];
+                activeTree[i] += active[i - 1] ? 1 : 0;
+                int parent = i + (i & -i);
+                if (parent <= length) {
+                    codingTree[parent] += codingTree[i];
+                    openTree[parent] += openTree[i];
+                    activeTree[parent] += activeTree[i];
+                }
+            }
+        }
+
+        private static void update(long[] tree, int index, long delta) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private static long prefixSum(long[] tree, int count) {
+            long sum = 0;
+            for (int i = count; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private static int checkedSpan(long first, long last) {
+            if (last - first + 1 > MAX_SPAN_DAYS) {
+                throw new IllegalArgumentException("Daily series spans more than " + MAX_SPAN_DAYS + " days");
+            }
+            return (int) (last - first + 1);
+        }
+
+        // 1970-01-01 (epoch-day 0) — четвер; індекс відповідає DayOfWeek.ordinal()
+        private static int dayOfWeekIndex(long day) {
+            return (int) Math.floorMod(day + 3, 7L);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.TopFile;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.utils.DailySeriesCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Рейтинг файлів за часом кодування у вікні дат, без завантаження списку файлів.
+ * <p>
+ * Без вікна файли впорядковуються за збереженими тоталами, у вікні з представленням rows — за сумою
+ * file_daily_stats; в обох випадках рейтинг рахує база (ORDER BY ... LIMIT).
+ * Упаковані ряди база розібрати не може, тож вони читаються курсором і відбираються купою розміру limit.
+ */
+@Component
+public class TopFilesQuery {
+
+    // Рівні значення впорядковуються за id, щоб рейтинг не залежав від плану запиту
+    private static final Comparator<TopFile> RANKING = Comparator.comparingLong(TopFile::getCodingTime).reversed()
+            .thenComparing(TopFile::getId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsProperties statsProperties;
+
+    public TopFilesQuery(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         StatsProperties statsProperties) {
+        // Як і в StatsStreamWriter: PostgreSQL читає курсором з fetch size лише в транзакції
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(statsProperties.getStreaming().getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.statsProperties = statsProperties;
+    }
+
+    // userId == null — без обмеження власником (проєкт уже перевірено), projectId/type == null — без фільтра
+    public List<TopFile> top(String userId, String projectId, String type, DateRange range, int limit) {
+        if (range.isBounded() && statsProperties.getStorage().isPacked()) {
+            return transactionTemplate.execute(status -> packedTop(userId, projectId, type, range, limit));
+        }
+
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select f.id, f.project_id, f.file_path, f.type, ");
+        if (range.isBounded()) {
+            sql.append("sum(coalesce(d.coding_time, 0)) as coding_time, sum(coalesce(d.open_time, 0)) as open_time " +
+                    "from file_daily_stats d join file_stats f on f.id = d.file_id " +
+                    "join project_stats p on p.project_id = f.project_id where d.date between ? and ?");
+            args.add(range.getFrom());
+            args.add(range.getTo());
+        } else {
+            sql.append("coalesce(f.coding_time, 0) as coding_time, coalesce(f.open_time, 0) as open_time " +
+                    "from file_stats f join project_stats p on p.project_id = f.project_id where 1 = 1");
+        }
+        appendFilters(sql, userId, projectId, type, args);
+        if (range.isBounded()) {
+            sql.append(" group by f.id, f.project_id, f.file_path, f.type");
+        }
+        sql.append(" order by coding_time desc, f.id limit ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new TopFile(
+                rs.getString("id"), rs.getString("project_id"), rs.getString("file_path"), rs.getString("type"),
+                rs.getLong("coding_time"), rs.getLong("open_time")), args.toArray());
+    }
+
+    private List<TopFile> packedTop(String userId, String projectId, String type, DateRange range, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select f.id, f.project_id, f.file_path, f.type, f.daily_series " +
+                "from file_stats f join project_stats p on p.project_id = f.project_id where f.daily_series is not null");
+        appendFilters(sql, userId, projectId, type, args);
+
+        // Вершина купи — найслабший з відібраних файлів, тож пам'ять обмежена limit незалежно від кількості рядків
+        PriorityQueue<TopFile> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        jdbcTemplate.query(sql.toString(), rs -> {
+            long codingTime = 0;
+            long openTime = 0;
+            boolean active = false;
+            for (Map.Entry<LocalDate, DailyStats> day : DailySeriesCodec.decode(rs.getBytes("daily_series")).entrySet()) {
+                LocalDate date = day.getKey();
+                if (!date.isBefore(range.getFrom()) && !date.isAfter(range.getTo())) {
+                    codingTime += valueOf(day.getValue().getCodingTime());
+                    openTime += valueOf(day.getValue().getOpenTime());
+                    active = true;
+                }
+            }
+            // Як і в rows, файл без днів у вікні до рейтингу не потрапляє
+            if (!active) {
+                return;
+            }
+            TopFile file = new TopFile(rs.getString("id"), rs.getString("project_id"), rs.getString("file_path"),
+                    rs.getString("type"), codingTime, openTime);
+            if (heap.size() < limit) {
+                heap.add(file);
+            } else if (RANKING.compare(file, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(file);
+            }
+        }, args.toArray());
+
+        List<TopFile> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private void appendFilters(StringBuilder sql, String userId, String projectId, String type, List<Object> args) {
+        if (userId != null) {
+            sql.append(" and p.user_id = ?");
+            args.add(userId);
+        }
+        if (projectId != null) {
+            sql.append(" and f.project_id = ?");
+            args.add(projectId);
+        }
+        if (type != null) {
+            sql.append(" and f.type = ?");
+            args.add(type);
+        }
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,160 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.RollupVerificationResult;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.model.UserDailyRollup;
+import com.dengas.devtimetracker.model.UserLanguageRollup;
+import com.dengas.devtimetracker.model.UserProjectDay;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserDailyRollupRepository;
+import com.dengas.devtimetracker.repositories.UserLanguageRollupRepository;
+import com.dengas.devtimetracker.repositories.UserProjectDayRepository;
+import com.dengas.devtimetracker.utils.QueryChunks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Звіряє user_daily_rollup, user_language_rollup та user_project_day з робочими таблицями: для кожного користувача підсумки перераховуються
+ * з його проєктів і файлів (в обох режимах зберігання) і порівнюються із записаними.
+ * Розбіжності логуються та публікуються метрикою; з repair вони застосовуються як приріст, тож так само
+ * заповнюється таблиця після переходу на режим packed, де міграція V8 не бачить рядків *_daily_stats.
+ */
+@Component
+public class UserRollupVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRollupVerifier.class);
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final FileStatsRepository fileStatsRepository;
+    private final UserDailyRollupRepository rollupRepository;
+    private final UserLanguageRollupRepository languageRollupRepository;
+    private final UserProjectDayRepository projectDayRepository;
+    private final UserRollupWriter rollupWriter;
+    private final StatsProperties.Rollup properties;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong lastDaysDrifted = new AtomicLong();
+
+    public UserRollupVerifier(ProjectStatsRepository projectStatsRepository,
+                              FileStatsRepository fileStatsRepository,
+                              UserDailyRollupRepository rollupRepository,
+                              UserLanguageRollupRepository languageRollupRepository,
+                              UserProjectDayRepository projectDayRepository,
+                              UserRollupWriter rollupWriter,
+                              PlatformTransactionManager transactionManager,
+                              StatsProperties statsProperties,
+                              MeterRegistry meterRegistry) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.fileStatsRepository = fileStatsRepository;
+        this.rollupRepository = rollupRepository;
+        this.languageRollupRepository = languageRollupRepository;
+        this.projectDayRepository = projectDayRepository;
+        this.rollupWriter = rollupWriter;
+        this.properties = statsProperties.getRollup();
+
+        // Обидва читання користувача йдуть з одного знімка: паралельний запис видно або в обох, або в жодному
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        Gauge.builder("stats.rollup.drifted_days", lastDaysDrifted, AtomicLong::get)
+                .description("Number of rollup rows that differed from source tables in the last verification")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "#{@statsProperties.rollup.verifyCron}")
+    public void scheduledVerify() {
+        verify(null, properties.isRepair());
+    }
+
+    // userId == null — усі користувачі
+    public RollupVerificationResult verify(String userId, boolean repair) {
+        long start = System.nanoTime();
+        Set<String> userIds = new TreeSet<>();
+        if (userId != null) {
+            userIds.add(userId);
+        } else {
+            userIds.addAll(projectStatsRepository.findOwnerIds());
+            // Підсумки користувачів, у яких проєктів уже немає, теж мають зійтися до нуля
+            userIds.addAll(rollupRepository.findUserIds());
+            userIds.addAll(languageRollupRepository.findUserIds());
+            userIds.addAll(projectDayRepository.findUserIds());
+        }
+
+        RollupVerificationResult result = new RollupVerificationResult();
+        result.setRepaired(repair);
+        for (String id : userIds) {
+            try {
+                Integer drifted = transactionTemplate.execute(status -> verifyUser(id, repair));
+                result.setUsersChecked(result.getUsersChecked() + 1);
+                if (drifted != null && drifted > 0) {
+                    result.setUsersDrifted(result.getUsersDrifted() + 1);
+                    result.setDaysDrifted(result.getDaysDrifted() + drifted);
+                }
+            } catch (ConcurrencyFailureException e) {
+                // Рядок змінили після знімка; користувача буде перевірено наступного разу
+                result.setUsersSkipped(result.getUsersSkipped() + 1);
+                logger.warn("Skipped user_daily_rollup verification for user {}: {}", id, e.getMessage());
+            }
+        }
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        lastDaysDrifted.set(result.getDaysDrifted());
+
+        logger.info("user_daily_rollup verified in {} ms: {} users checked, {} drifted ({} days), {} skipped, repair {}",
+                result.getElapsedMillis(), result.getUsersChecked(), result.getUsersDrifted(),
+                result.getDaysDrifted(), result.getUsersSkipped(), repair);
+        return result;
+    }
+
+    // Повертає кількість рядків (днів, днів мов і днів проєктів) з розбіжністю. Виправлення — теж приріст (очікуване мінус записане),
+    // тому воно комутує з паралельними записами так само, як і звичайні шляхи запису
+    private int verifyUser(String userId, boolean repair) {
+        List<ProjectStats> projects = projectStatsRepository.findByUserId(userId);
+        Map<String, List<FileStats>> filesByProject = new HashMap<>();
+        List<String> projectIds = projects.stream().map(ProjectStats::getProjectId).toList();
+        QueryChunks.forEachChunk(projectIds, chunk -> {
+            for (FileStats file : fileStatsRepository.findByProjectIdIn(chunk)) {
+                filesByProject.computeIfAbsent(file.getProjectId(), k -> new ArrayList<>()).add(file);
+            }
+        });
+
+        UserRollupWriter.Delta drift = new UserRollupWriter.Delta();
+        for (ProjectStats project : projects) {
+            drift.addProject(project.getProjectId(), project.getDailyStats(), filesByProject.getOrDefault(project.getProjectId(), List.of()), 1);
+        }
+        for (UserDailyRollup day : rollupRepository.findByUserId(userId)) {
+            drift.add(day.getId().getDate(), -day.getCodingTime(), -day.getOpenTime(), -day.getProjectCount(), -day.getFileCount());
+        }
+        for (UserLanguageRollup day : languageRollupRepository.findByUserId(userId)) {
+            drift.addLanguage(day.getId().getType(), day.getId().getDate(), -day.getCodingTime(), -day.getOpenTime());
+        }
+        for (UserProjectDay day : projectDayRepository.findByUserId(userId)) {
+            drift.addProjectDay(day.getId().getProjectId(), day.getId().getDate(), -1);
+        }
+
+        if (!drift.isEmpty()) {
+            logger.warn("user_daily_rollup drift for user {}: {} rows differ from source tables", userId, drift.size());
+            if (repair) {
+                rollupWriter.apply(userId, drift);
+            }
+        }
+        return drift.size();
+    }
+}
@@ -0,0 +1,268 @@
+package com.dengas.devtimetracker.services.implement;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Підтримує user_daily_rollup, user_language_rollup та user_project_day приростами в транзакції запису, що їх спричинила.
+ * <p>
+ * Шляхи запису збирають {@link Delta} — різницю внеску проєкту до і після зміни — і застосовують її
+ * атомарним upsert-ом «значення = значення + приріст». Прирости комутативні, тому паралельні записи різних
+ * проєктів одного користувача не губляться, а повтор транзакції після конфлікту застосовує свій приріст заново.
+ */
+@Component
+public class UserRollupWriter {
+
+    private static final String POSTGRES_UPSERT_SQL = "insert into user_daily_rollup " +
+            "(user_id, date, coding_time, open_time, project_count, file_count) values (?, ?, ?, ?, ?, ?) " +
+            "on conflict (user_id, date) do update set " +
+            "coding_time = user_daily_rollup.coding_time + excluded.coding_time, " +
+            "open_time = user_daily_rollup.open_time + excluded.open_time, " +
+            "project_count = user_daily_rollup.project_count + excluded.project_count, " +
+            "file_count = user_daily_rollup.file_count + excluded.file_count";
+
+    // Стандартний MERGE для інших баз (H2 у тестовому профілі)
+    private static final String MERGE_UPSERT_SQL = "merge into user_daily_rollup r using (values (" +
+            "cast(? as varchar(255)), cast(? as date), cast(? as bigint), cast(? as bigint), cast(? as bigint), cast(? as bigint))) " +
+            "s (user_id, date, coding_time, open_time, project_count, file_count) " +
+            "on r.user_id = s.user_id and r.date = s.date " +
+            "when matched then update set coding_time = r.coding_time + s.coding_time, open_time = r.open_time + s.open_time, " +
+            "project_count = r.project_count + s.project_count, file_count = r.file_count + s.file_count " +
+            "when not matched then insert (user_id, date, coding_time, open_time, project_count, file_count) " +
+            "values (s.user_id, s.date, s.coding_time, s.open_time, s.project_count, s.file_count)";
+
+    private static final String POSTGRES_LANGUAGE_UPSERT_SQL = "insert into user_language_rollup " +
+            "(user_id, date, type, coding_time, open_time) values (?, ?, ?, ?, ?) " +
+            "on conflict (user_id, date, type) do update set " +
+            "coding_time = user_language_rollup.coding_time + excluded.coding_time, " +
+            "open_time = user_language_rollup.open_time + excluded.open_time";
+
+    private static final String MERGE_LANGUAGE_UPSERT_SQL = "merge into user_language_rollup r using (values (" +
+            "cast(? as varchar(255)), cast(? as date), cast(? as varchar(255)), cast(? as bigint), cast(? as bigint))) " +
+            "s (user_id, date, type, coding_time, open_time) " +
+            "on r.user_id = s.user_id and r.date = s.date and r.type = s.type " +
+            "when matched then update set coding_time = r.coding_time + s.coding_time, open_time = r.open_time + s.open_time " +
+            "when not matched then insert (user_id, date, type, coding_time, open_time) " +
+            "values (s.user_id, s.date, s.type, s.coding_time, s.open_time)";
+
+    private static final String POSTGRES_PROJECT_DAY_INSERT_SQL = "insert into user_project_day (user_id, date, project_id) " +
+            "values (?, ?, ?) on conflict do nothing";
+
+    private static final String MERGE_PROJECT_DAY_INSERT_SQL = "merge into user_project_day r using (values (" +
+            "cast(? as varchar(255)), cast(? as date), cast(? as varchar(255)))) s (user_id, date, project_id) " +
+            "on r.user_id = s.user_id and r.date = s.date and r.project_id = s.project_id " +
+            "when not matched then insert (user_id, date, project_id) values (s.user_id, s.date, s.project_id)";
+
+    private static final String DELETE_PROJECT_DAY_SQL = "delete from user_project_day " +
+            "where user_id = ? and date = ? and project_id = ?";
+
+    // День без жодного проєкту чи файлу користувача більше не потрібен
+    private static final String DELETE_EMPTY_SQL = "delete from user_daily_rollup " +
+            "where user_id = ? and date = ? and project_count <= 0 and file_count <= 0";
+
+    private static final String DELETE_EMPTY_LANGUAGE_SQL = "delete from user_language_rollup " +
+            "where user_id = ? and date = ? and type = ? and coding_time = 0 and open_time = 0";
+
+    // Так само позначає файли без типу міграція V9
+    static final String UNKNOWN_TYPE = "UNKNOWN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+    private final String languageUpsertSql;
+    private final String projectDayInsertSql;
+
+    public UserRollupWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        boolean postgres = isPostgres(jdbcTemplate);
+        this.upsertSql = postgres ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+        this.languageUpsertSql = postgres ? POSTGRES_LANGUAGE_UPSERT_SQL : MERGE_LANGUAGE_UPSERT_SQL;
+        this.projectDayInsertSql = postgres ? POSTGRES_PROJECT_DAY_INSERT_SQL : MERGE_PROJECT_DAY_INSERT_SQL;
+    }
+
+    // userId == null — проєкт без власника, до підсумків не входить
+    public void apply(String userId, Delta delta) {
+        if (userId == null || delta.isEmpty()) {
+            return;
+        }
+
+        // Дати пишуться за зростанням, тож транзакції, що зачіпають ті самі дні користувача, не блокують одна одну навхрест
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> shrunk = new ArrayList<>();
+        for (Map.Entry<LocalDate, long[]> entry : delta.days.entrySet()) {
+            long[] values = entry.getValue();
+            Date date = Date.valueOf(entry.getKey());
+            upserts.add(new Object[]{userId, date, values[0], values[1], values[2], values[3]});
+            if (values[2] < 0 || values[3] < 0) {
+                shrunk.add(new Object[]{userId, date});
+            }
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsertSql, upserts);
+        }
+        if (!shrunk.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, shrunk);
+        }
+
+        List<Object[]> languageUpserts = new ArrayList<>();
+        List<Object[]> languageShrunk = new ArrayList<>();
+        for (Map.Entry<LanguageDay, long[]> entry : delta.languages.entrySet()) {
+            long[] values = entry.getValue();
+            Date date = Date.valueOf(entry.getKey().date());
+            String type = entry.getKey().type();
+            languageUpserts.add(new Object[]{userId, date, type, values[0], values[1]});
+            if (values[0] < 0 || values[1] < 0) {
+                languageShrunk.add(new Object[]{userId, date, type});
+            }
+        }
+        if (!languageUpserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(languageUpsertSql, languageUpserts);
+        }
+        if (!languageShrunk.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_LANGUAGE_SQL, languageShrunk);
+        }
+
+        // Рядок дня проєкту не має лічильника: додатний підсумок означає, що день з'явився, від'ємний — що зник
+        List<Object[]> projectDayInserts = new ArrayList<>();
+        List<Object[]> projectDayDeletes = new ArrayList<>();
+        for (Map.Entry<ProjectDay, Integer> entry : delta.projectDays.entrySet()) {
+            Object[] row = {userId, Date.valueOf(entry.getKey().date()), entry.getKey().projectId()};
+            (entry.getValue() > 0 ? projectDayInserts : projectDayDeletes).add(row);
+        }
+        if (!projectDayInserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(projectDayInsertSql, projectDayInserts);
+        }
+        if (!projectDayDeletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_PROJECT_DAY_SQL, projectDayDeletes);
+        }
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot detect database for user_daily_rollup upserts", e);
+        }
+    }
+
+    // getId() на lazy-проксі користувача не ініціалізує його
+    static String userIdOf(ProjectStats project) {
+        return project.getUser() != null ? project.getUser().getId() : null;
+    }
+
+    /**
+     * Приріст денних підсумків одного користувача: дата -> [coding, open, проєкти, файли],
+     * (дата, мова) -> [coding, open] та (дата, проєкт) -> +1/-1. Записи з нульовим приростом не пишуться.
+     */
+    public static final class Delta {
+
+        private final TreeMap<LocalDate, long[]> days = new TreeMap<>();
+        private final TreeMap<LanguageDay, long[]> languages = new TreeMap<>();
+        private final TreeMap<ProjectDay, Integer> projectDays = new TreeMap<>();
+
+        public void add(LocalDate date, long codingTime, long openTime, long projects, long files) {
+            long[] values = days.computeIfAbsent(date, k -> new long[4]);
+            values[0] += codingTime;
+            values[1] += openTime;
+            values[2] += projects;
+            values[3] += files;
+            if (values[0] == 0 && values[1] == 0 && values[2] == 0 && values[3] == 0) {
+                days.remove(date);
+            }
+        }
+
+        public void addLanguage(String type, LocalDate date, long codingTime, long openTime) {
+            LanguageDay key = new LanguageDay(date, type != null ? type : UNKNOWN_TYPE);
+            long[] values = languages.computeIfAbsent(key, k -> new long[2]);
+            values[0] += codingTime;
+            values[1] += openTime;
+            if (values[0] == 0 && values[1] == 0) {
+                languages.remove(key);
+            }
+        }
+
+        // Лише рядок user_project_day; лічильник project_count дня змінює add
+        public void addProjectDay(String projectId, LocalDate date, int sign) {
+            ProjectDay key = new ProjectDay(date, projectId);
+            if (projectDays.merge(key, sign, Integer::sum) == 0) {
+                projectDays.remove(key);
+            }
+        }
+
+        // Внесок усіх днів файлу в його мову; sign = -1 перед зміною типу чи днів, sign = 1 — після
+        public void addLanguages(FileStats file, int sign) {
+            if (file.getDailyStats() == null) {
+                return;
+            }
+            for (Map.Entry<LocalDate, DailyStats> entry : file.getDailyStats().entrySet()) {
+                DailyStats stats = entry.getValue();
+                addLanguage(file.getType(), entry.getKey(), sign * valueOf(stats.getCodingTime()), sign * valueOf(stats.getOpenTime()));
+            }
+        }
+
+        // Внесок стану проєкту: sign = 1 — стан після запису, sign = -1 — до нього.
+        // Значення копіюються одразу, тож мапи після виклику можна змінювати на місці
+        public void addProject(String projectId, Map<LocalDate, DailyStats> dailyStats, Collection<FileStats> files, int sign) {
+            if (dailyStats != null) {
+                for (Map.Entry<LocalDate, DailyStats> entry : dailyStats.entrySet()) {
+                    DailyStats stats = entry.getValue();
+                    add(entry.getKey(), sign * valueOf(stats.getCodingTime()), sign * valueOf(stats.getOpenTime()), sign, 0);
+                    addProjectDay(projectId, entry.getKey(), sign);
+                }
+            }
+            for (FileStats file : files) {
+                if (file.getDailyStats() != null) {
+                    for (LocalDate date : file.getDailyStats().keySet()) {
+                        add(date, 0, 0, 0, sign);
+                    }
+                }
+                addLanguages(file, sign);
+            }
+        }
+
+        public boolean isEmpty() {
+            return days.isEmpty() && languages.isEmpty() && projectDays.isEmpty();
+        }
+
+        // Кількість змінених рядків усіх трьох таблиць
+        public int size() {
+            return days.size() + languages.size() + projectDays.size();
+        }
+
+        private static long valueOf(Long value) {
+            return value != null ? value : 0L;
+        }
+    }
+
+    // Порядок (дата, мова) збігається з первинним ключем, тож блокування рядків беруться в одному порядку
+    private record LanguageDay(LocalDate date, String type) implements Comparable<LanguageDay> {
+        @Override
+        public int compareTo(LanguageDay other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : type.compareTo(other.type);
+        }
+    }
+
+    private record ProjectDay(LocalDate date, String projectId) implements Comparable<ProjectDay> {
+        @Override
+        public int compareTo(ProjectDay other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : projectId.compareTo(other.projectId);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dengas.devtimetracker.utils;
+
+import com.dengas.devtimetracker.model.DailyStats;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Упакований формат щоденного ряду статистики (колонка daily_series).
+ * <p>
+ * Структура: [версія][стартовий epoch-day, zigzag][кількість днів], далі для кожного дня
+ * [пропуск днів від попереднього][codingTime][openTime]. Усі числа записуються як varint,
+ * тому для ряду без розривів пропуск займає один байт, а типова пара (coding, open) — 2-3 байти на значення.
+ */
+public final class DailySeriesCodec {
+
+    // Верхня межа розміру колонки: понад сторіччя щоденної історії з великими значеннями
+    public static final int MAX_ENCODED_LENGTH = 1_000_000;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private DailySeriesCodec() {
+    }
+
+    // Порожній ряд не зберігається: повертається null
+    public static byte[] encode(Map<LocalDate, DailyStats> series) {
+        if (series == null || series.isEmpty()) {
+            return null;
+        }
+
+        TreeMap<LocalDate, DailyStats> sorted = new TreeMap<>(series);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + sorted.size() * 5);
+
+        long firstDay = sorted.firstKey().toEpochDay();
+        writeVarint(out, FORMAT_VERSION);
+        writeVarint(out, zigZag(firstDay));
+        writeVarint(out, sorted.size());
+
+        long previousDay = firstDay - 1;
+        for (Map.Entry<LocalDate, DailyStats> entry : sorted.entrySet()) {
+            long day = entry.getKey().toEpochDay();
+            writeVarint(out, day - previousDay - 1);
+            previousDay = day;
+
+            DailyStats stats = entry.getValue();
+            writeVarint(out, stats.getCodingTime() != null ? stats.getCodingTime() : 0L);
+            writeVarint(out, stats.getOpenTime() != null ? stats.getOpenTime() : 0L);
+        }
+        return out.toByteArray();
+    }
+
+    public static Map<LocalDate, DailyStats> decode(byte[] data) {
+        Map<LocalDate, DailyStats> series = new HashMap<>();
+        if (data == null || data.length == 0) {
+            return series;
+        }
+
+        Reader in = new Reader(data);
+        long version = in.readVarint();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported daily series format version: " + version);
+        }
+
+        long day = unZigZag(in.readVarint()) - 1;
+        long count = in.readVarint();
+        for (long i = 0; i < count; i++) {
+            day += in.readVarint() + 1;
+            long codingTime = in.readVarint();
+            long openTime = in.readVarint();
+            series.put(LocalDate.ofEpochDay(day), new DailyStats(codingTime, openTime));
+        }
+        return series;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated daily series");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in daily series");
+        }
+    }
+}
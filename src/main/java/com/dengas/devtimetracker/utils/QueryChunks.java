@@ -0,0 +1,22 @@
+package com.dengas.devtimetracker.utils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Розбиття списку ідентифікаторів на порції для запитів виду IN (...).
+ */
+public final class QueryChunks {
+
+    // Максимальна кількість ідентифікаторів в одному IN (...) запиті
+    public static final int MAX_IN_SIZE = 500;
+
+    private QueryChunks() {
+    }
+
+    public static <T> void forEachChunk(List<T> ids, Consumer<List<T>> action) {
+        for (int from = 0; from < ids.size(); from += MAX_IN_SIZE) {
+            action.accept(ids.subList(from, Math.min(from + MAX_IN_SIZE, ids.size())));
+        }
+    }
+}
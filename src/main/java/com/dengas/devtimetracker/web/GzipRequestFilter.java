@@ -0,0 +1,267 @@
+package com.dengas.devtimetracker.web;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Розпакування тіл запитів з Content-Encoding: gzip.
+ * <p>
+ * Тіло розпаковується потоком при читанні, тож контролери, імпорт NDJSON та IdempotencyFilter
+ * (відбиток рахується з розпакованих байтів) бачать звичайний запит без Content-Encoding.
+ * Обсяг розпакованих даних обмежено stats.compression.max-inflated-size.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String IDENTITY = "identity";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxInflatedBytes;
+
+    public GzipRequestFilter(ObjectMapper objectMapper, StatsProperties statsProperties) {
+        this.objectMapper = objectMapper;
+        this.enabled = statsProperties.getCompression().isRequestGzipEnabled();
+        this.maxInflatedBytes = statsProperties.getCompression().getMaxInflatedSize().toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return !enabled || encoding == null || encoding.trim().equalsIgnoreCase(IDENTITY);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim();
+        if (!encoding.equalsIgnoreCase(GZIP)) {
+            response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, GZIP);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), ResponseWrapper.error(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Unsupported Content-Encoding: " + encoding, "UNSUPPORTED_ENCODING"));
+            return;
+        }
+        chain.doFilter(new GzipRequestWrapper(request, maxInflatedBytes), response);
+    }
+
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        GzipRequestWrapper(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() has already been called for this request");
+            }
+            if (inputStream == null) {
+                inputStream = new InflatingInputStream(super.getInputStream(), maxInflatedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        // Довжина розпакованого тіла наперед невідома
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHiddenHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHiddenHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHiddenHeader(name))
+                    .toList());
+        }
+
+        private boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    // Блокуюче читання розпаковує тіло потоком. При неблокуючому (setReadListener) стиснуте тіло спершу
+    // накопичується з контейнера без блокування, а розпаковується вже з пам'яті після onAllDataRead.
+    // Стиснуте тіло не може перевищувати ліміт розпакованого, тож буфер обмежено тим самим maxInflatedBytes
+    private static class InflatingInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+        private final long maxInflatedBytes;
+        private InputStream delegate;
+        private long inflated;
+        private boolean finished;
+        private boolean ready = true;
+
+        InflatingInputStream(ServletInputStream compressed, long maxInflatedBytes) {
+            this.compressed = compressed;
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = delegate().read();
+            count(value < 0 ? -1 : 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate().read(buffer, offset, length);
+            count(read);
+            return read;
+        }
+
+        // GZIPInputStream читає заголовок у конструкторі, тому створюється лише при першому читанні
+        private InputStream delegate() throws IOException {
+            if (!ready) {
+                throw new IllegalStateException("Compressed request body is not fully received yet");
+            }
+            if (delegate == null) {
+                delegate = new GZIPInputStream(compressed);
+            }
+            return delegate;
+        }
+
+        private void count(int read) throws IOException {
+            if (read < 0) {
+                finished = true;
+                return;
+            }
+            inflated += read;
+            if (inflated > maxInflatedBytes) {
+                throw new IOException("Decompressed request body exceeds " + maxInflatedBytes + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (readListener == null) {
+                throw new NullPointerException("ReadListener is null");
+            }
+            if (delegate != null) {
+                throw new IllegalStateException("Request body is already being read");
+            }
+            ready = false;
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            compressed.setReadListener(new ReadListener() {
+                private boolean rejected;
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8192];
+                    while (compressed.isReady()) {
+                        int read = compressed.read(buffer);
+                        if (read < 0) {
+                            return;
+                        }
+                        // Після відмови решта тіла дочитується і відкидається, щоб контейнер завершив запит
+                        if (rejected) {
+                            continue;
+                        }
+                        body.write(buffer, 0, read);
+                        if (body.size() > maxInflatedBytes) {
+                            rejected = true;
+                            body.reset();
+                            readListener.onError(new IOException("Compressed request body exceeds " + maxInflatedBytes + " bytes"));
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (rejected) {
+                        return;
+                    }
+                    delegate = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()));
+                    ready = true;
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            } else {
+                compressed.close();
+            }
+        }
+    }
+}
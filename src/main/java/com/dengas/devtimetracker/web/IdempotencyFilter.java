@@ -0,0 +1,177 @@
+package com.dengas.devtimetracker.web;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.IdempotentResponse;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.exceptions.IdempotencyStoreFullException;
+import com.dengas.devtimetracker.services.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Обробка заголовка Idempotency-Key на записах статистики проєктів.
+ * <p>
+ * Перший запит з ключем резервує його і виконується як звичайно; успішна відповідь зберігається
+ * у IdempotencyStore і на повтори віддається як є, без повторного виклику сервісу.
+ * Ключ діє в межах користувача і прив'язаний до відбитка запиту (метод, шлях, тіло).
+ * Фільтр зареєстровано після ланцюжка Spring Security, тож автентифікація вже відома.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String PROJECTS_PATH = "/api/v1/stats/projects";
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH");
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper, StatsProperties statsProperties) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.enabled = statsProperties.getIdempotency().isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !appliesTo(request.getMethod(), urlPathHelper.getPathWithinApplication(request));
+    }
+
+    // Також визначає, для яких операцій OpenAPI документує заголовок Idempotency-Key
+    public static boolean appliesTo(String method, String path) {
+        return METHODS.contains(method) && path.startsWith(PROJECTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters long", "VALIDATION_ERROR");
+            return;
+        }
+
+        // Без автентифікації запит однаково буде відхилено контролером, зберігати нічого
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String storeKey = sha256(authentication.getName() + '\n' + idempotencyKey);
+        IdempotentResponse stored;
+        try {
+            stored = store.reserve(storeKey);
+        } catch (IdempotencyStoreFullException e) {
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), "SERVICE_UNAVAILABLE");
+            return;
+        }
+        if (stored != null) {
+            replay(request, response, stored);
+            return;
+        }
+
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request);
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(cachingRequest, cachingResponse);
+            // Помилки не зберігаються: після 4xx/5xx клієнт може виправити запит або повторити його з тим самим ключем
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                // Відбиток рахується з повного тіла, як і при повторі, навіть якщо парсер не дочитав хвіст
+                StreamUtils.drain(cachingRequest.getInputStream());
+                store.complete(storeKey, new IdempotentResponse(
+                        fingerprint(request, cachingRequest.getContentAsByteArray()),
+                        status,
+                        cachingResponse.getContentType(),
+                        cachingResponse.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.release(storeKey);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, IdempotentResponse stored) throws IOException {
+        if (stored.isInProgress()) {
+            writeError(response, HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed", "IDEMPOTENCY_KEY_IN_PROGRESS");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        if (!fingerprint(request, body).equals(stored.getFingerprint())) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request", "IDEMPOTENCY_KEY_REUSED");
+            return;
+        }
+
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String code) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ResponseWrapper.error(status, message, code));
+    }
+
+    private String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ' ');
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String sha256(String value) {
+        return HexFormat.of().formatHex(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Дні активності проєктів користувача (див. UserRollupWriter): рядок на кожен день, що є в рядах проєкту.
+-- Кількість різних проєктів за вікно не складається з денних project_count, тому її рахує count(distinct)
+-- по діапазону первинного ключа (user_id, date, project_id) в обох режимах зберігання.
+-- Зовнішнього ключа немає, як і в user_daily_rollup: звірка та відновлення — UserRollupVerifier.
+
+create table if not exists user_project_day (
+    user_id    varchar(255) not null,
+    date       date         not null,
+    project_id varchar(255) not null,
+    primary key (user_id, date, project_id)
+);
+
+-- Адмінський дашборд рахує проєкти за вікном без user_id
+create index if not exists idx_user_project_day_date on user_project_day (date);
+
+-- Початкове заповнення з представлення rows; ряди режиму packed заповнює UserRollupVerifier з repair
+insert into user_project_day (user_id, date, project_id)
+select p.user_id, d.date, d.project_id
+from project_daily_stats d join project_stats p on p.project_id = d.project_id
+where p.user_id is not null;
@@ -0,0 +1,68 @@
+-- Базова схема, яку раніше створював Hibernate (ddl-auto: update).
+-- На існуючих базах не виконується: baseline-on-migrate позначає їх як версію 1.
+
+create table users (
+    id          varchar(255) not null,
+    created_at  timestamp(6),
+    email       varchar(255),
+    updated_at  timestamp(6),
+    username    varchar(255),
+    primary key (id)
+);
+
+create table team (
+    id      bigserial not null,
+    name    varchar(255),
+    lead_id varchar(255),
+    primary key (id),
+    constraint fk_team_lead foreign key (lead_id) references users
+);
+
+create table team_members (
+    team_id bigint       not null,
+    user_id varchar(255) not null,
+    primary key (team_id, user_id),
+    constraint fk_team_members_team foreign key (team_id) references team,
+    constraint fk_team_members_user foreign key (user_id) references users
+);
+
+create table project_stats (
+    project_id           varchar(255) not null,
+    github_badge_visible boolean      not null,
+    project_path         varchar(255),
+    total_coding_time    bigint,
+    total_open_time      bigint,
+    user_id              varchar(255),
+    primary key (project_id),
+    constraint fk_project_stats_user foreign key (user_id) references users
+);
+
+-- Первинний ключ (project_id, date) є унікальним індексом для вибірок по проєкту та діапазону дат
+create table project_daily_stats (
+    project_id  varchar(255) not null,
+    coding_time bigint,
+    open_time   bigint,
+    date        date         not null,
+    primary key (project_id, date),
+    constraint fk_project_daily_stats_project foreign key (project_id) references project_stats
+);
+
+create table file_stats (
+    id          varchar(255) not null,
+    coding_time bigint,
+    file_path   varchar(255),
+    open_time   bigint,
+    project_id  varchar(255),
+    type        varchar(255),
+    primary key (id)
+);
+
+-- Первинний ключ (file_id, date) є унікальним індексом для вибірок по файлу та діапазону дат
+create table file_daily_stats (
+    file_id     varchar(255) not null,
+    coding_time bigint,
+    open_time   bigint,
+    date        date         not null,
+    primary key (file_id, date),
+    constraint fk_file_daily_stats_file foreign key (file_id) references file_stats
+);
@@ -0,0 +1,31 @@
+-- Індекси для запитів, що раніше виконувались повним скануванням:
+-- findByProjectId / deleteByProjectId по file_stats, findByUserId по project_stats,
+-- а також унікальний ключ (project_id, file_path).
+-- Ключі (file_id, date) та (project_id, date) вже є первинними ключами таблиць *_daily_stats (див. V1),
+-- тому окремі індекси для них лише подвоїли б вартість запису.
+
+-- ddl-auto: update міг залишити дублікати шляхів у межах проєкту; лишаємо рядок з найбільшим часом
+delete from file_daily_stats
+where file_id in (
+    select id from (
+        select id, row_number() over (partition by project_id, file_path order by coding_time desc nulls last, id) as rn
+        from file_stats
+    ) ranked
+    where ranked.rn > 1
+);
+
+delete from file_stats
+where id in (
+    select id from (
+        select id, row_number() over (partition by project_id, file_path order by coding_time desc nulls last, id) as rn
+        from file_stats
+    ) ranked
+    where ranked.rn > 1
+);
+
+-- Провідна колонка project_id покриває також пошук і видалення файлів проєкту
+create unique index if not exists uk_file_stats_project_file_path
+    on file_stats (project_id, file_path);
+
+create index if not exists idx_project_stats_user_id
+    on project_stats (user_id);
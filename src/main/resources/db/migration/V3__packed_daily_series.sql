@@ -0,0 +1,6 @@
+-- Упакований щоденний ряд для режиму stats.storage.mode=packed (формат див. DailySeriesCodec).
+-- Дані з *_daily_stats переносяться DailySeriesMigrator на старті застосунку, бо кодування виконується в Java.
+
+alter table file_stats add column if not exists daily_series bytea;
+
+alter table project_stats add column if not exists daily_series bytea;
@@ -0,0 +1,4 @@
+-- Версія для оптимістичного блокування конкурентних записів проєкту (див. ProjectWriteCoordinator).
+-- Існуючі рядки отримують версію 0.
+
+alter table project_stats add column if not exists version bigint not null default 0;
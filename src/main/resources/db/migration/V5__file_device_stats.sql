@@ -0,0 +1,12 @@
+-- Внески пристроїв у комірки (файл, дата): накопичений кожним пристроєм час (див. DeviceContribution).
+-- Первинний ключ (file_id, date, device_id) також обслуговує вибірку внесків пристрою по файлах.
+
+create table if not exists file_device_stats (
+    file_id     varchar(255) not null,
+    date        date         not null,
+    device_id   varchar(255) not null,
+    coding_time bigint,
+    open_time   bigint,
+    primary key (file_id, date, device_id),
+    constraint fk_file_device_stats_file foreign key (file_id) references file_stats
+);
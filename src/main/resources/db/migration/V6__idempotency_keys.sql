@@ -0,0 +1,15 @@
+-- Сховище Idempotency-Key для stats.idempotency.store=jdbc (див. JdbcIdempotencyStore).
+-- Рядок без body — резерв запиту, що ще виконується.
+
+create table if not exists idempotency_keys (
+    idempotency_key varchar(64)  not null,
+    fingerprint     varchar(64),
+    status          integer,
+    content_type    varchar(255),
+    body            bytea,
+    expires_at      timestamp(6) not null,
+    primary key (idempotency_key)
+);
+
+create index if not exists idx_idempotency_keys_expires_at
+    on idempotency_keys (expires_at);
@@ -0,0 +1,8 @@
+-- Пошук проєкту за шляхом (GET /projects/by-path, імпорт) фільтрує по (user_id, project_path).
+-- Провідна колонка user_id покриває і findByUserId, тому окремий індекс по user_id більше не потрібен.
+-- Індекс не унікальний: ранні версії могли створити кілька проєктів з одним шляхом.
+
+create index if not exists idx_project_stats_user_path
+    on project_stats (user_id, project_path);
+
+drop index if exists idx_project_stats_user_id;
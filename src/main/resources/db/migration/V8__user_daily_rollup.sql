@@ -0,0 +1,31 @@
+-- Денний підсумок користувача (див. UserRollupWriter): сума днів його проєктів і кількість активних проєктів і файлів.
+-- Підтримується приростами в транзакціях запису; первинний ключ (user_id, date) обслуговує вибірки за вікном дат.
+-- Зовнішнього ключа немає: це похідна модель читання, звірка та відновлення — UserRollupVerifier.
+
+create table if not exists user_daily_rollup (
+    user_id       varchar(255) not null,
+    date          date         not null,
+    coding_time   bigint       not null default 0,
+    open_time     bigint       not null default 0,
+    project_count bigint       not null default 0,
+    file_count    bigint       not null default 0,
+    primary key (user_id, date)
+);
+
+-- Початкове заповнення з представлення rows; ряди режиму packed заповнює UserRollupVerifier з repair
+insert into user_daily_rollup (user_id, date, coding_time, open_time, project_count, file_count)
+select coalesce(pd.user_id, fd.user_id), coalesce(pd.date, fd.date),
+       coalesce(pd.coding_time, 0), coalesce(pd.open_time, 0), coalesce(pd.project_count, 0), coalesce(fd.file_count, 0)
+from (
+    select p.user_id, d.date, sum(coalesce(d.coding_time, 0)) as coding_time, sum(coalesce(d.open_time, 0)) as open_time,
+           count(*) as project_count
+    from project_daily_stats d join project_stats p on p.project_id = d.project_id
+    where p.user_id is not null
+    group by p.user_id, d.date
+) pd
+full join (
+    select p.user_id, d.date, count(*) as file_count
+    from file_daily_stats d join file_stats f on f.id = d.file_id join project_stats p on p.project_id = f.project_id
+    where p.user_id is not null
+    group by p.user_id, d.date
+) fd on fd.user_id = pd.user_id and fd.date = pd.date;
@@ -0,0 +1,20 @@
+-- Денний час користувача за мовою (file_stats.type), підтримується разом з user_daily_rollup (див. UserRollupWriter).
+-- Первинний ключ (user_id, date, type): вибірка за вікном — один діапазон ключа, розмір якого залежить
+-- від кількості днів і мов, а не файлів.
+
+create table if not exists user_language_rollup (
+    user_id     varchar(255) not null,
+    date        date         not null,
+    type        varchar(255) not null,
+    coding_time bigint       not null default 0,
+    open_time   bigint       not null default 0,
+    primary key (user_id, date, type)
+);
+
+-- Початкове заповнення з представлення rows; ряди режиму packed заповнює UserRollupVerifier з repair
+insert into user_language_rollup (user_id, date, type, coding_time, open_time)
+select p.user_id, d.date, coalesce(f.type, 'UNKNOWN'), sum(coalesce(d.coding_time, 0)), sum(coalesce(d.open_time, 0))
+from file_daily_stats d join file_stats f on f.id = d.file_id join project_stats p on p.project_id = f.project_id
+where p.user_id is not null
+group by p.user_id, d.date, coalesce(f.type, 'UNKNOWN')
+having sum(coalesce(d.coding_time, 0)) <> 0 or sum(coalesce(d.open_time, 0)) <> 0;
@@ -0,0 +1,370 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.SmileConfig;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.web.GzipRequestFilter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "stats.compression.max-inflated-size=1MB")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ContentNegotiationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentNegotiationTest.class);
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Autowired
+    private GzipRequestFilter gzipRequestFilter;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @Test
+    void smileAndGzip_RoundTripTheSameModels() throws Exception {
+        ObjectMapper smileMapper = SmileConfig.smileObjectMapper(objectMapperBuilder);
+        ProjectStats project = project("/negotiation", 20, 3);
+
+        byte[] created = mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .contentType(SmileConfig.APPLICATION_SMILE)
+                        .accept(SmileConfig.APPLICATION_SMILE)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzip(smileMapper.writeValueAsBytes(project))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode createdData = smileMapper.readTree(created).get("data");
+        String projectId = createdData.get("projectId").asText();
+        assertEquals(20 * 3 * 10L, createdData.get("totalCodingTime").asLong());
+
+        // Та сама сутність у JSON і Smile дає однакове дерево, а Smile-відповідь читається назад у модель
+        byte[] smileBody = mockMvc.perform(get("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .accept(SmileConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        String jsonBody = mockMvc.perform(get("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode smileData = smileMapper.readTree(smileBody).get("data");
+        assertEquals(objectMapper.readTree(jsonBody).get("data"), smileData);
+        assertTrue(smileBody.length < jsonBody.length());
+
+        ProjectStats decoded = smileMapper.treeToValue(smileData, ProjectStats.class);
+        assertEquals(20, decoded.getFiles().size());
+        assertEquals(new DailyStats(10L, 20L), decoded.getFiles().get(0).getDailyStats().get(DAY));
+
+        // Gzip працює і для звичайного JSON
+        String patch = "{\"files\": [{\"filePath\": \"/negotiation/Extra.java\", \"type\": \"JAVA\", " +
+                "\"dailyStats\": {\"" + DAY + "\": {\"codingTime\": 5, \"openTime\": 5}}}]}";
+        mockMvc.perform(patch("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzip(patch.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void compressedRequests_AreValidated() throws Exception {
+        mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        // 2 МБ пробілів стискаються до кількох кілобайт, але розпакування зупиняється на ліміті
+        byte[] bomb = gzip(("{\"projectPath\": \"/bomb\"" + " ".repeat(2 * 1024 * 1024) + "}").getBytes());
+        assertTrue(bomb.length < 16 * 1024);
+        mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(bomb))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content("not gzip".getBytes()))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Неблокуюче читання: стиснуте тіло надходить порціями, слухач застосунку бачить уже розпаковані байти
+    @Test
+    void compressedRequests_SupportReadListener() throws Exception {
+        byte[] body = ("{\"projectPath\": \"/async\"" + " ".repeat(64 * 1024) + "}").getBytes();
+        byte[] compressed = gzip(body);
+        NonBlockingInputStream input = new NonBlockingInputStream(compressed);
+        RecordingReadListener listener = startNonBlockingRead(input);
+
+        input.deliver(compressed.length / 2);
+        assertEquals(0, listener.received.size());
+        input.deliver(compressed.length);
+        input.complete();
+        assertNull(listener.error);
+        assertTrue(listener.allDataRead);
+        assertArrayEquals(body, listener.received.toByteArray());
+    }
+
+    // Стиснуте тіло понад max-inflated-size не накопичується в пам'яті, а відхиляється через onError
+    @Test
+    void compressedRequests_RejectOversizedBodyInNonBlockingMode() throws Exception {
+        byte[] compressed = new byte[2 * 1024 * 1024];
+        new Random(42).nextBytes(compressed);
+        NonBlockingInputStream input = new NonBlockingInputStream(compressed);
+        RecordingReadListener listener = startNonBlockingRead(input);
+
+        input.deliver(compressed.length / 4);
+        assertNull(listener.error);
+        input.deliver(compressed.length);
+        input.complete();
+        assertTrue(listener.error instanceof IOException);
+        assertFalse(listener.allDataRead);
+        assertEquals(0, listener.received.size());
+        assertTrue(input.isFinished());
+    }
+
+    private RecordingReadListener startNonBlockingRead(NonBlockingInputStream input) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/stats/projects") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return input;
+            }
+        };
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        RecordingReadListener listener = new RecordingReadListener();
+        gzipRequestFilter.doFilter(request, new MockHttpServletResponse(), (filtered, response) -> {
+            assertNull(((HttpServletRequest) filtered).getHeader(HttpHeaders.CONTENT_ENCODING));
+            listener.stream = filtered.getInputStream();
+            listener.stream.setReadListener(listener);
+            assertFalse(listener.stream.isReady());
+        });
+        return listener;
+    }
+
+    // Запуск: mvn test -Dtest=ContentNegotiationTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_PayloadSizeAndCpuFor10kFiles() throws Exception {
+        ObjectMapper smileMapper = SmileConfig.smileObjectMapper(objectMapperBuilder);
+        ResponseWrapper<ProjectStats> response = ResponseWrapper.success(project("/users/dev/projects/monorepo", 10_000, 14));
+
+        byte[] json = objectMapper.writeValueAsBytes(response);
+        byte[] smile = smileMapper.writeValueAsBytes(response);
+        logger.info("10k files x 14 days: JSON {} bytes (gzip {}), Smile {} bytes (gzip {})",
+                json.length, gzip(json).length, smile.length, gzip(smile).length);
+
+        // Розбір у ті самі моделі, що й у контролері, а не в дерево вузлів
+        TypeReference<ResponseWrapper<ProjectStats>> type = new TypeReference<>() {
+        };
+        int iterations = 50;
+        measure("JSON", iterations, () -> objectMapper.writeValueAsBytes(response), () -> objectMapper.readValue(json, type));
+        measure("Smile", iterations, () -> smileMapper.writeValueAsBytes(response), () -> smileMapper.readValue(smile, type));
+        assertTrue(smile.length < json.length);
+    }
+
+    private void measure(String format, int iterations, IoTask serialize, IoTask deserialize) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Прогрів JIT, щоб заміри не включали компіляцію
+        for (int i = 0; i < iterations; i++) {
+            serialize.run();
+            deserialize.run();
+        }
+
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            serialize.run();
+        }
+        long serializeNanos = (threads.getCurrentThreadCpuTime() - start) / iterations;
+
+        start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            deserialize.run();
+        }
+        long deserializeNanos = (threads.getCurrentThreadCpuTime() - start) / iterations;
+
+        logger.info("{}: serialize {} ms CPU, parse {} ms CPU per payload", format,
+                String.format("%.2f", serializeNanos / 1_000_000.0), String.format("%.2f", deserializeNanos / 1_000_000.0));
+    }
+
+    private static class RecordingReadListener implements ReadListener {
+
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private ServletInputStream stream;
+        private boolean allDataRead;
+        private Throwable error;
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            byte[] buffer = new byte[4096];
+            int read;
+            while (stream.isReady() && (read = stream.read(buffer)) != -1) {
+                received.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            allDataRead = true;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+    }
+
+    // Імітація вхідного потоку контейнера в неблокуючому режимі: читати можна лише вже отримані байти
+    private static class NonBlockingInputStream extends ServletInputStream {
+
+        private final byte[] data;
+        private int received;
+        private int position;
+        private ReadListener listener;
+
+        NonBlockingInputStream(byte[] data) {
+            this.data = data;
+        }
+
+        void deliver(int upTo) throws IOException {
+            received = upTo;
+            listener.onDataAvailable();
+        }
+
+        void complete() throws IOException {
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == data.length) {
+                return -1;
+            }
+            if (!isReady()) {
+                throw new IllegalStateException("Read while not ready");
+            }
+            int count = Math.min(length, received - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position == data.length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return position < received;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private ProjectStats project(String projectPath, int fileCount, int days) {
+        List<FileStats> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+            for (int day = 0; day < days; day++) {
+                dailyStats.put(DAY.minusDays(day), new DailyStats(10L, 20L));
+            }
+            FileStats file = new FileStats();
+            file.setFilePath(projectPath + "/src/main/java/com/example/module" + i % 50 + "/Class" + i + ".java");
+            file.setType(i % 5 == 0 ? "MARKDOWN" : "JAVA");
+            file.setDailyStats(dailyStats);
+            files.add(file);
+        }
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(files);
+        return project;
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(jwt -> jwt.subject(userId).claim("email", "negotiation@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}
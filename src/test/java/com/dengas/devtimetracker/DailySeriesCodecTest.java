@@ -0,0 +1,59 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.utils.DailySeriesCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DailySeriesCodecTest {
+
+    @Test
+    void roundTrip_PreservesGapsAndLargeValues() {
+        Map<LocalDate, DailyStats> series = new HashMap<>();
+        series.put(LocalDate.of(2025, 5, 30), new DailyStats(1800L, 3600L));
+        series.put(LocalDate.of(2025, 5, 31), new DailyStats(0L, 60L));
+        series.put(LocalDate.of(2025, 9, 1), new DailyStats(86_400L * 365, Long.MAX_VALUE));
+        series.put(LocalDate.of(1969, 12, 31), new DailyStats(5L, 5L));
+
+        assertEquals(series, DailySeriesCodec.decode(DailySeriesCodec.encode(series)));
+    }
+
+    @Test
+    void encode_ConsecutiveDaysCostFewBytesPerDay() {
+        Map<LocalDate, DailyStats> series = new HashMap<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 365; i++) {
+            series.put(start.plusDays(i), new DailyStats(1200L, 3000L));
+        }
+
+        byte[] encoded = DailySeriesCodec.encode(series);
+
+        // 1 байт пропуску + 2 байти на кожне значення
+        assertTrue(encoded.length <= 8 + 365 * 5, "encoded size: " + encoded.length);
+        assertEquals(series, DailySeriesCodec.decode(encoded));
+    }
+
+    @Test
+    void emptySeries_IsNotStored() {
+        assertNull(DailySeriesCodec.encode(new HashMap<>()));
+        assertTrue(DailySeriesCodec.decode(null).isEmpty());
+    }
+
+    @Test
+    void decode_RejectsTruncatedData() {
+        Map<LocalDate, DailyStats> series = Map.of(LocalDate.of(2025, 5, 30), new DailyStats(1800L, 3600L));
+        byte[] encoded = DailySeriesCodec.encode(series);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> DailySeriesCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,219 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.IdempotentResponse;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.exceptions.IdempotencyStoreFullException;
+import com.dengas.devtimetracker.services.implement.InMemoryIdempotencyStore;
+import com.dengas.devtimetracker.services.implement.JdbcIdempotencyStore;
+import com.dengas.devtimetracker.web.IdempotencyFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class IdempotencyKeyTest {
+
+    private static final String HEARTBEATS = """
+            {"heartbeats": [{"filePath": "/idempotency/App.java", "type": "JAVA", "date": "2025-05-30", "codingDelta": 30, "openDelta": 60}]}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @Test
+    void retriedWrites_AreAppliedOnce() throws Exception {
+        String createKey = UUID.randomUUID().toString();
+        String project = "{\"projectPath\": \"/idempotency\", \"files\": []}";
+        MvcResult created = mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .header("Idempotency-Key", createKey)
+                        .contentType(MediaType.APPLICATION_JSON).content(project))
+                .andExpect(status().isCreated())
+                .andReturn();
+        MvcResult replayed = mockMvc.perform(post("/api/v1/stats/projects").with(user())
+                        .header("Idempotency-Key", createKey)
+                        .contentType(MediaType.APPLICATION_JSON).content(project))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+        assertEquals(created.getResponse().getContentAsString(), replayed.getResponse().getContentAsString());
+        assertEquals(1, projectStatsRepository.findByUserId(userId).size());
+
+        String projectId = objectMapper.readTree(created.getResponse().getContentAsString()).at("/data/projectId").asText();
+        String heartbeatKey = UUID.randomUUID().toString();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", projectId).with(user())
+                            .header("Idempotency-Key", heartbeatKey)
+                            .contentType(MediaType.APPLICATION_JSON).content(HEARTBEATS))
+                    .andExpect(status().isOk());
+        }
+        ProjectStats stored = projectStatsRepository.findById(projectId).orElseThrow();
+        assertEquals(30L, stored.getTotalCodingTime());
+        assertEquals(60L, stored.getTotalOpenTime());
+
+        // Той самий ключ з іншим тілом — помилка клієнта, а не повтор
+        JsonNode reused = objectMapper.readTree(mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", projectId)
+                        .with(user())
+                        .header("Idempotency-Key", heartbeatKey)
+                        .contentType(MediaType.APPLICATION_JSON).content(HEARTBEATS.replace("30", "45")))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("IDEMPOTENCY_KEY_REUSED", reused.at("/error/code").asText());
+
+        // Без ключа кожен запит — окремий запис
+        mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON).content(HEARTBEATS))
+                .andExpect(status().isOk());
+        assertEquals(60L, projectStatsRepository.findById(projectId).orElseThrow().getTotalCodingTime());
+    }
+
+    @Test
+    void failedWrites_ReleaseTheKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", "missing").with(user())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(HEARTBEATS))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", "missing").with(user())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(HEARTBEATS))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void jdbcStore_ReservesCompletesAndExpiresKeys() throws Exception {
+        // У тестовому профілі схему створює Hibernate, тож таблицю з V6 відтворюємо вручну
+        jdbcTemplate.execute("create table if not exists idempotency_keys (idempotency_key varchar(64) primary key, " +
+                "fingerprint varchar(64), status integer, content_type varchar(255), body varbinary, expires_at timestamp(6) not null)");
+        StatsProperties properties = new StatsProperties();
+        properties.getIdempotency().setTtl(Duration.ofMillis(200));
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, properties);
+
+        String key = UUID.randomUUID().toString().replace("-", "");
+        assertNull(store.reserve(key));
+        assertTrue(store.reserve(key).isInProgress());
+
+        store.release(key);
+        assertNull(store.reserve(key));
+        byte[] body = "{\"success\":true}".getBytes();
+        store.complete(key, new IdempotentResponse("fingerprint", 200, MediaType.APPLICATION_JSON_VALUE, body));
+
+        IdempotentResponse stored = store.reserve(key);
+        assertEquals("fingerprint", stored.getFingerprint());
+        assertEquals(200, stored.getStatus());
+        assertArrayEquals(body, stored.getBody());
+
+        // Завершений запис не знімається release, але після TTL ключ знову вільний
+        store.release(key);
+        assertFalse(store.reserve(key).isInProgress());
+        Thread.sleep(300);
+        assertNull(store.reserve(key));
+    }
+
+    // Поток нових ключів не може витіснити резерв запиту, що ще виконується: повтор інакше записав би вдруге
+    @Test
+    void memoryStore_KeepsInProgressKeysWhenFull() throws Exception {
+        StatsProperties properties = new StatsProperties();
+        properties.getIdempotency().setMaxEntries(1);
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties);
+
+        assertNull(store.reserve("first"));
+        assertThrows(IdempotencyStoreFullException.class, () -> store.reserve("second"));
+        assertTrue(store.reserve("first").isInProgress());
+
+        IdempotencyFilter filter = new IdempotencyFilter(store, objectMapper, properties);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/stats/projects");
+        request.addHeader("Idempotency-Key", "second");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(userId, null, "ROLE_client_user"));
+        try {
+            filter.doFilter(request, response, (req, res) -> {
+                throw new AssertionError("write must not run when the key cannot be reserved");
+            });
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        assertEquals(503, response.getStatus());
+        assertEquals("SERVICE_UNAVAILABLE", objectMapper.readTree(response.getContentAsString()).at("/error/code").asText());
+
+        // Завершений запис витісняється, щоб звільнити місце
+        store.complete("first", new IdempotentResponse("fingerprint", 200, MediaType.APPLICATION_JSON_VALUE, new byte[0]));
+        assertNull(store.reserve("second"));
+        assertThrows(IdempotencyStoreFullException.class, () -> store.reserve("first"));
+    }
+
+    @Test
+    void openApi_DocumentsHeaderOnFilteredWritesOnly() throws Exception {
+        JsonNode paths = objectMapper.readTree(mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("paths");
+
+        Set<String> documented = new TreeSet<>();
+        paths.fields().forEachRemaining(path -> path.getValue().fields().forEachRemaining(operation -> {
+            for (JsonNode parameter : operation.getValue().path("parameters")) {
+                if ("Idempotency-Key".equals(parameter.path("name").asText())) {
+                    assertEquals("header", parameter.path("in").asText());
+                    documented.add(operation.getKey() + " " + path.getKey());
+                }
+            }
+        }));
+        assertEquals(Set.of(
+                "post /api/v1/stats/projects",
+                "put /api/v1/stats/projects/{projectId}",
+                "patch /api/v1/stats/projects/{projectId}",
+                "post /api/v1/stats/projects/{projectId}/heartbeats",
+                "post /api/v1/stats/projects/{projectId}/device-counters"), documented);
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(jwt -> jwt.subject(userId).claim("email", "idempotency@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}
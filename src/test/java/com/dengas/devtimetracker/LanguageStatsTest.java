@@ -0,0 +1,157 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.UserRollupVerifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LanguageStatsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private UserRollupVerifier rollupVerifier;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "languages@example.com")
+            .build();
+
+    @Test
+    void languages_FollowWritesAndDateWindow() throws Exception {
+        String projectId = createProject(userId, "/languages/app", Map.of(
+                "/languages/app/App.java", file("JAVA", Map.of(DAY, new DailyStats(60L, 90L), DAY.plusDays(1), new DailyStats(30L, 30L))),
+                "/languages/app/README.md", file("MARKDOWN", Map.of(DAY, new DailyStats(10L, 40L)))));
+        // Чужі проєкти до відповіді не потрапляють
+        createProject(UUID.randomUUID().toString(), "/languages/foreign", Map.of(
+                "/languages/foreign/main.py", file("PYTHON", Map.of(DAY, new DailyStats(500L, 500L)))));
+
+        HeartbeatRequest heartbeats = new HeartbeatRequest();
+        heartbeats.setHeartbeats(List.of(
+                new Heartbeat("/languages/app/App.java", null, DAY, 5L, 5L),
+                new Heartbeat("/languages/app/main.py", "PYTHON", DAY.plusDays(1), 20L, 25L)));
+        projectStatsService.recordHeartbeats(projectId, heartbeats, jwt);
+
+        assertEquals(Map.of("JAVA", List.of(95L, 125L), "PYTHON", List.of(20L, 25L), "MARKDOWN", List.of(10L, 40L)),
+                languages(get("/api/v1/stats/languages")));
+        assertEquals(Map.of("JAVA", List.of(65L, 95L), "MARKDOWN", List.of(10L, 40L)),
+                languages(get("/api/v1/stats/languages").param("from", DAY.toString()).param("to", DAY.toString())));
+
+        // Імпорт змінює тип файлу: увесь його час переходить до нової мови
+        mockMvc.perform(post("/api/v1/stats/import").with(user())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"projectPath\":\"/languages/app\",\"filePath\":\"/languages/app/README.md\",\"type\":\"TEXT\"," +
+                                "\"dailyStats\":{\"2024-06-04\":{\"codingTime\":1,\"openTime\":2}}}"))
+                .andExpect(status().isOk());
+        assertEquals(Map.of("JAVA", List.of(95L, 125L), "PYTHON", List.of(20L, 25L), "TEXT", List.of(11L, 42L)),
+                languages(get("/api/v1/stats/languages")));
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+
+        mockMvc.perform(delete("/api/v1/stats/projects/{projectId}", projectId).with(user()))
+                .andExpect(status().isOk());
+        assertEquals(Map.of(), languages(get("/api/v1/stats/languages")));
+
+        JsonNode invalid = perform(get("/api/v1/stats/languages")
+                .param("from", DAY.toString()).param("to", DAY.minusDays(1).toString()), status().isBadRequest());
+        assertEquals("VALIDATION_ERROR", invalid.at("/error/code").asText());
+    }
+
+    // Відповідь відсортована за codingTime, тож порядок мапи збігається з порядком елементів
+    private Map<String, List<Long>> languages(MockHttpServletRequestBuilder request) throws Exception {
+        Map<String, List<Long>> result = new LinkedHashMap<>();
+        long previous = Long.MAX_VALUE;
+        for (JsonNode item : perform(request, status().isOk()).get("data")) {
+            long codingTime = item.get("codingTime").asLong();
+            assertTrue(codingTime <= previous);
+            previous = codingTime;
+            result.put(item.get("type").asText(), List.of(codingTime, item.get("openTime").asLong()));
+        }
+        return result;
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        String body = mockMvc.perform(request.with(user()))
+                .andExpect(expected)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private FileStats file(String type, Map<LocalDate, DailyStats> dailyStats) {
+        FileStats file = new FileStats();
+        file.setType(type);
+        file.setDailyStats(new HashMap<>(dailyStats));
+        return file;
+    }
+
+    private String createProject(String ownerId, String projectPath, Map<String, FileStats> filesByPath) {
+        Jwt owner = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(ownerId)
+                .claim("email", "languages@example.com")
+                .build();
+        List<FileStats> files = new ArrayList<>();
+        filesByPath.forEach((filePath, file) -> {
+            file.setFilePath(filePath);
+            files.add(file);
+        });
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(files);
+        return projectStatsService.createProject(project, owner).getData().getProjectId();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(userId).claim("email", "languages@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}
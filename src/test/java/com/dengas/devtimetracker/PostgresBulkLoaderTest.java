@@ -0,0 +1,159 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.BulkLoadResult;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// COPY є лише у PostgreSQL, тому тест працює з локальною базою з application.yml (docker compose up postgres-app)
+// і вмикається явно: mvn test -Dtest=PostgresBulkLoaderTest -Dpostgres=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "postgres", matches = "true")
+public class PostgresBulkLoaderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2023, 3, 1);
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "bulk@example.com")
+            .build();
+
+    private final Jwt admin = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("resource_access", Map.of("devTimeTracker-rest-api", Map.of("roles", List.of("client_admin"))))
+            .build();
+
+    @Test
+    void bulkLoad_MergesStagedRowsIntoLiveTables() {
+        String existingId = createExistingProject();
+        String csv = String.join("\n",
+                "user_id,project_path,file_path,type,date,coding_time,open_time",
+                userId + ",/bulk/existing,/bulk/existing/Main.java,JAVA," + DAY + ",250,300",
+                userId + ",/bulk/existing,/bulk/existing/Main.java,JAVA," + DAY.plusDays(1) + ",5,5",
+                userId + ",/bulk/new,/bulk/new/a.py,PYTHON," + DAY + ",7,9",
+                userId + ",/bulk/new,/bulk/new/b.py,PYTHON," + DAY + ",3,1",
+                userId + ",/bulk/new,/bulk/new/b.py,PYTHON," + DAY.plusDays(2) + ",-1,1",
+                UUID.randomUUID() + ",/bulk/ghost,/bulk/ghost/x.py,PYTHON," + DAY + ",1,1",
+                "");
+
+        BulkLoadResult result = load(csv);
+        assertEquals(6, result.getRowsStaged());
+        assertEquals(2, result.getRowsRejected());
+        assertEquals(1, result.getProjectsCreated());
+        assertEquals(2, result.getFilesCreated());
+        assertEquals(4, result.getFileDaysWritten());
+
+        // Значення за DAY замінено (100 -> 250), файл без рядків у CSV не змінився
+        assertProject(existingId, 255L + 40L, 305L + 80L);
+        assertDay(existingId, DAY, 290L, 380L);
+        String newId = projectStatsRepository.findIdsByUserIdAndProjectPath(userId, "/bulk/new").get(0);
+        assertProject(newId, 10L, 10L);
+
+        // Повторне завантаження нічого не подвоює і не створює нових записів
+        BulkLoadResult repeated = load(csv);
+        assertEquals(0, repeated.getProjectsCreated());
+        assertEquals(0, repeated.getFilesCreated());
+        assertProject(existingId, 295L, 385L);
+        assertProject(newId, 10L, 10L);
+    }
+
+    @Test
+    void bulkLoad_RejectsMalformedCsvWithoutWriting() {
+        String csv = "user_id,project_path,file_path,type,date,coding_time,open_time\n" +
+                userId + ",/bulk/broken,/bulk/broken/a.py,PYTHON," + DAY + ",abc,1\n";
+        ResponseWrapper<BulkLoadResult> response = projectStatsService.bulkLoad(stream(csv), admin);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        assertTrue(projectStatsRepository.findIdsByUserIdAndProjectPath(userId, "/bulk/broken").isEmpty());
+
+        assertEquals(HttpStatus.FORBIDDEN.value(), projectStatsService.bulkLoad(stream(csv), jwt).getStatus());
+    }
+
+    private BulkLoadResult load(String csv) {
+        ResponseWrapper<BulkLoadResult> response = projectStatsService.bulkLoad(stream(csv), admin);
+        assertTrue(response.isSuccess(), () -> String.valueOf(response.getError()));
+        return response.getData();
+    }
+
+    private ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertProject(String projectId, long codingTime, long openTime) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+            assertEquals(codingTime, project.getTotalCodingTime());
+            assertEquals(openTime, project.getTotalOpenTime());
+            assertEquals(codingTime, project.getDailyStats().values().stream().mapToLong(DailyStats::getCodingTime).sum());
+
+            long fileCoding = 0;
+            for (FileStats file : fileStatsRepository.findByProjectId(projectId)) {
+                assertEquals(file.getCodingTime(), file.getDailyStats().values().stream().mapToLong(DailyStats::getCodingTime).sum());
+                fileCoding += file.getCodingTime();
+            }
+            assertEquals(codingTime, fileCoding);
+        });
+    }
+
+    private void assertDay(String projectId, LocalDate date, long codingTime, long openTime) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+            assertEquals(new DailyStats(codingTime, openTime), project.getDailyStats().get(date));
+        });
+    }
+
+    private String createExistingProject() {
+        FileStats main = new FileStats();
+        main.setFilePath("/bulk/existing/Main.java");
+        main.setType("JAVA");
+        main.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(100L, 200L))));
+
+        FileStats readme = new FileStats();
+        readme.setFilePath("/bulk/existing/README.md");
+        readme.setType("MARKDOWN");
+        readme.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(40L, 80L))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/bulk/existing");
+        project.setFiles(new ArrayList<>(List.of(main, readme)));
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+}
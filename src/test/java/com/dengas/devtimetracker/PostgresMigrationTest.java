@@ -0,0 +1,114 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.UserRollupVerifier;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Усі міграції на порожній схемі PostgreSQL і старт контексту з ddl-auto: validate з application.yml.
+// H2 з тестового профілю не виконує V7 (drop індексу під зовнішнім ключем), тому, як і PostgresBulkLoaderTest,
+// тест працює з локальною базою і вмикається явно: mvn test -Dtest=PostgresMigrationTest -Dpostgres=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "postgres", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostgresMigrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2023, 4, 3);
+
+    // Окрема схема на кожен запуск, тож наявні дані бази не заважають і не змінюються
+    private static final String SCHEMA = "migration_test_" + UUID.randomUUID().toString().replace("-", "");
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) {
+        registry.add("spring.flyway.default-schema", () -> SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> SCHEMA);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private UserRollupVerifier rollupVerifier;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "migration@example.com")
+            .build();
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+    }
+
+    @Test
+    void migrations_ApplyToEmptySchemaAndMatchEntities() {
+        // Контекст уже піднявся, тобто Hibernate звірив маппінг зі схемою після міграцій
+        assertEquals(0, flyway.info().pending().length);
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied.length >= 10);
+        for (MigrationInfo migration : applied) {
+            assertTrue(migration.getState().isApplied() && !migration.getState().isFailed(),
+                    "migration " + migration.getVersion() + " is " + migration.getState());
+        }
+    }
+
+    @Test
+    void writes_UsePostgresUpsertsOnMigratedSchema() {
+        FileStats file = new FileStats();
+        file.setFilePath("/migration/app/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(10L, 20L))));
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/migration/app");
+        project.setFiles(new ArrayList<>(List.of(file)));
+        String projectId = projectStatsService.createProject(project, jwt).getData().getProjectId();
+
+        HeartbeatRequest heartbeats = new HeartbeatRequest();
+        heartbeats.setHeartbeats(List.of(
+                new Heartbeat("/migration/app/App.java", null, DAY, 5L, 5L),
+                new Heartbeat("/migration/app/main.py", "PYTHON", DAY.plusDays(1), 1L, 1L)));
+        assertTrue(projectStatsService.recordHeartbeats(projectId, heartbeats, jwt).isSuccess());
+
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+        Map<String, Object> dashboard = projectStatsService.getDashboardStats(DateRange.of(DAY, DAY.plusDays(1)), jwt).getData();
+        assertEquals(1L, dashboard.get("totalProjects"));
+        assertEquals(16L, dashboard.get("totalCodingTime"));
+    }
+}
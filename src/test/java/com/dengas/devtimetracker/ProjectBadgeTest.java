@@ -0,0 +1,196 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.Badge;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.BadgeCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProjectBadgeTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 11, 4);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private BadgeCache badgeCache;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @Test
+    void badge_ServesEtagAndCacheControl() throws Exception {
+        String projectId = createProject(3600L);
+
+        MvcResult result = mockMvc.perform(badge(projectId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag != null && etag.startsWith("\""), "missing ETag");
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("1h 0min"));
+
+        mockMvc.perform(badge(projectId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(badge(projectId).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void badge_IsEvictedByEveryWrite() throws Exception {
+        String projectId = createProject(3600L);
+        String etag = assertBadge(projectId, "1h 0min", null);
+
+        mockMvc.perform(post("/api/v1/stats/projects/{projectId}/heartbeats", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"heartbeats\": [{\"filePath\": \"/badge/app/App.java\", \"date\": \"2024-11-04\", " +
+                                "\"codingDelta\": 60, \"openDelta\": 60}]}"))
+                .andExpect(status().isOk());
+        etag = assertBadge(projectId, "1h 1min", etag);
+
+        mockMvc.perform(patch("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"githubBadgeVisible\": true, \"files\": [{\"filePath\": \"/badge/app/util.py\", \"type\": \"PYTHON\", " +
+                                "\"dailyStats\": {\"2024-11-05\": {\"codingTime\": 600, \"openTime\": 600}}}]}"))
+                .andExpect(status().isOk());
+        etag = assertBadge(projectId, "1h 11min", etag);
+
+        mockMvc.perform(put("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"projectPath\": \"/badge/app\", \"githubBadgeVisible\": true, " +
+                                "\"files\": [{\"filePath\": \"/badge/app/App.java\", \"type\": \"JAVA\", " +
+                                "\"dailyStats\": {\"2024-11-04\": {\"codingTime\": 7200, \"openTime\": 7200}}}]}"))
+                .andExpect(status().isOk());
+        etag = assertBadge(projectId, "2h 0min", etag);
+
+        mockMvc.perform(delete("/api/v1/stats/projects/{projectId}", projectId).with(user()))
+                .andExpect(status().isOk());
+        assertBadge(projectId, "Not Found", etag);
+    }
+
+    @Test
+    void badge_MissesAreNotCached() {
+        String projectId = UUID.randomUUID().toString();
+        AtomicInteger renders = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            Badge badge = badgeCache.get(projectId, "#4c1", () -> {
+                renders.incrementAndGet();
+                return projectStatsService.getBadge(projectId, "#4c1");
+            });
+            assertEquals(false, badge.isFound());
+        }
+        assertEquals(2, renders.get());
+    }
+
+    // Інвалідація іншого проєкту під час рендерингу не заважає закешувати бейдж, а власна — заважає
+    @Test
+    void badge_OnlyOwnEvictionDropsConcurrentRender() {
+        String projectA = UUID.randomUUID().toString();
+        String projectB = UUID.randomUUID().toString();
+        AtomicInteger renders = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            badgeCache.get(projectA, "#4c1", () -> {
+                renders.incrementAndGet();
+                badgeCache.evict(projectB);
+                return new Badge(new byte[0], "\"a\"", true);
+            });
+        }
+        assertEquals(1, renders.get());
+
+        renders.set(0);
+        for (int i = 0; i < 2; i++) {
+            badgeCache.get(projectB, "#4c1", () -> {
+                renders.incrementAndGet();
+                badgeCache.evict(projectB);
+                return new Badge(new byte[0], "\"b\"", true);
+            });
+        }
+        assertEquals(2, renders.get());
+    }
+
+    // Повертає ETag нового бейджа; previousEtag != null — бейдж мав змінитися після запису
+    private String assertBadge(String projectId, String expectedValue, String previousEtag) throws Exception {
+        MvcResult result = mockMvc.perform(badge(projectId)).andExpect(status().isOk()).andReturn();
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains(expectedValue),
+                "badge does not show " + expectedValue);
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        if (previousEtag != null) {
+            assertNotEquals(previousEtag, etag);
+        }
+        return etag;
+    }
+
+    private MockHttpServletRequestBuilder badge(String projectId) {
+        return get("/api/v1/stats/badge").param("projectId", projectId);
+    }
+
+    private String createProject(long codingTime) {
+        Jwt owner = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(userId)
+                .claim("email", "badge@example.com")
+                .build();
+        FileStats file = new FileStats();
+        file.setFilePath("/badge/app/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(codingTime, codingTime))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/badge/app");
+        project.setGithubBadgeVisible(true);
+        project.setFiles(new ArrayList<>(List.of(file)));
+        return projectStatsService.createProject(project, owner).getData().getProjectId();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(userId).claim("email", "badge@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}
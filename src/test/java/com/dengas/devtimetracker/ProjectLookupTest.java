@@ -0,0 +1,100 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProjectLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @Test
+    void findByPath_FollowsCreateRenameAndDelete() throws Exception {
+        String projectId = createProject(userId, "/lookup/app");
+
+        // Повторний пошук обслуговується кешем і повертає той самий проєкт
+        assertEquals(projectId, lookup("/lookup/app", status().isOk()).at("/data/projectId").asText());
+        assertEquals(projectId, lookup("/lookup/app", status().isOk()).at("/data/projectId").asText());
+        lookup("/lookup/missing", status().isNotFound());
+
+        // Перейменування інвалідує кеш користувача
+        mockMvc.perform(patch("/api/v1/stats/projects/{projectId}", projectId).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"projectPath\": \"/lookup/renamed\"}"))
+                .andExpect(status().isOk());
+        lookup("/lookup/app", status().isNotFound());
+        assertEquals(projectId, lookup("/lookup/renamed", status().isOk()).at("/data/projectId").asText());
+
+        mockMvc.perform(delete("/api/v1/stats/projects/{projectId}", projectId).with(user()))
+                .andExpect(status().isOk());
+        lookup("/lookup/renamed", status().isNotFound());
+    }
+
+    @Test
+    void findByPath_IsScopedToCurrentUser() throws Exception {
+        createProject(UUID.randomUUID().toString(), "/lookup/foreign");
+        lookup("/lookup/foreign", status().isNotFound());
+
+        JsonNode blank = lookup(" ", status().isBadRequest());
+        assertEquals("VALIDATION_ERROR", blank.at("/error/code").asText());
+    }
+
+    private JsonNode lookup(String path, ResultMatcher expected) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/stats/projects/by-path").param("path", path).with(user()))
+                .andExpect(expected)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private String createProject(String ownerId, String projectPath) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(ownerId)
+                .claim("email", "lookup@example.com")
+                .build();
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(new ArrayList<>());
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(userId).claim("email", "lookup@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.model.User;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class ProjectStatsBatchLoadingTest {
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        fileStatsRepository.deleteAll();
+        projectStatsRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("batch@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void getAllProjectStats_QueryCountDoesNotGrowWithProjectCount() {
+        createProjects(3);
+        long fewProjectsQueries = countQueriesForAdminListing(3);
+
+        createProjects(57);
+        long manyProjectsQueries = countQueriesForAdminListing(60);
+
+        assertEquals(fewProjectsQueries, manyProjectsQueries);
+    }
+
+    private long countQueriesForAdminListing(int expectedProjects) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResponseWrapper<List<ProjectStats>> response = projectStatsService.getAllProjectStats(DateRange.unbounded(), adminJwt());
+
+        assertTrue(response.isSuccess());
+        assertEquals(expectedProjects, response.getData().size());
+        response.getData().forEach(project -> assertEquals(2, project.getFiles().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createProjects(int count) {
+        for (int i = 0; i < count; i++) {
+            ProjectStats project = new ProjectStats();
+            project.setProjectId(UUID.randomUUID().toString());
+            project.setProjectPath("/batch/project-" + i);
+            project.setUser(user);
+            projectStatsRepository.save(project);
+
+            for (String name : List.of("App.java", "README.md")) {
+                FileStats file = new FileStats();
+                file.setProjectId(project.getProjectId());
+                file.setFilePath(project.getProjectPath() + "/" + name);
+                file.setType("JAVA");
+                fileStatsRepository.save(file);
+            }
+        }
+    }
+
+    private Jwt adminJwt() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(UUID.randomUUID().toString())
+                .claim("resource_access", Map.of(
+                        "devTimeTracker-rest-api", Map.of("roles", List.of("client_admin"))))
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.model.User;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class ProjectStatsBulkDeleteTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectStatsBulkDeleteTest.class);
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        fileStatsRepository.deleteAll();
+        projectStatsRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("bulk-delete@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void deleteByProjectId_StatementCountDoesNotGrowWithFileCount() {
+        String smallProject = createProject(3);
+        String largeProject = createProject(300);
+        String untouchedProject = createProject(5);
+
+        long smallStatements = countStatementsForDelete(smallProject);
+        long largeStatements = countStatementsForDelete(largeProject);
+
+        assertEquals(smallStatements, largeStatements);
+        assertEquals(0, fileStatsRepository.findByProjectId(largeProject).size());
+        assertEquals(5, fileStatsRepository.findByProjectId(untouchedProject).size());
+        assertEquals(5, jdbcTemplate.queryForObject("select count(*) from file_daily_stats", Integer.class));
+    }
+
+    // Запуск: mvn test -Dtest=ProjectStatsBulkDeleteTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_DeleteProjectWith50kFiles() {
+        int fileCount = 50_000;
+
+        String legacyProject = createProject(fileCount);
+        long legacyStart = System.nanoTime();
+        // Попередня поведінка похідного deleteByProjectId: завантаження сутностей і видалення по одній
+        transactionTemplate.executeWithoutResult(status ->
+                fileStatsRepository.deleteAll(fileStatsRepository.findByProjectId(legacyProject)));
+        long legacyMillis = (System.nanoTime() - legacyStart) / 1_000_000;
+
+        String bulkProject = createProject(fileCount);
+        long bulkStart = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> fileStatsRepository.deleteByProjectId(bulkProject));
+        long bulkMillis = (System.nanoTime() - bulkStart) / 1_000_000;
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from file_stats", Integer.class));
+        logger.info("Delete of {} files: entity-by-entity {} ms, bulk {} ms", fileCount, legacyMillis, bulkMillis);
+    }
+
+    private long countStatementsForDelete(String projectId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> fileStatsRepository.deleteByProjectId(projectId));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Дані вставляються напряму через JDBC, щоб підготовка не впливала на заміри
+    private String createProject(int fileCount) {
+        ProjectStats project = new ProjectStats();
+        project.setProjectId(UUID.randomUUID().toString());
+        project.setProjectPath("/bulk/" + project.getProjectId());
+        project.setUser(user);
+        projectStatsRepository.save(project);
+
+        List<Object[]> files = new ArrayList<>(fileCount);
+        List<Object[]> dailyStats = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String fileId = UUID.randomUUID().toString();
+            files.add(new Object[]{fileId, project.getProjectId(), project.getProjectPath() + "/File" + i + ".java"});
+            dailyStats.add(new Object[]{fileId, Date.valueOf(DAY)});
+        }
+        jdbcTemplate.batchUpdate("insert into file_stats (id, project_id, file_path, type, coding_time, open_time) " +
+                "values (?, ?, ?, 'JAVA', 10, 20)", files);
+        jdbcTemplate.batchUpdate("insert into file_daily_stats (file_id, date, coding_time, open_time) " +
+                "values (?, ?, 10, 20)", dailyStats);
+        return project.getProjectId();
+    }
+}
@@ -0,0 +1,188 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Конкуренція тут значно щільніша за реальну, тому спроб більше, ніж за замовчуванням
+@SpringBootTest(properties = "stats.concurrency.max-attempts=10")
+@ActiveProfiles("test")
+public class ProjectStatsConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectStatsConcurrencyTest.class);
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+    private static final int THREADS = 8;
+    private static final int BATCHES_PER_THREAD = 40;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "concurrency@example.com")
+            .build();
+
+    @Test
+    void concurrentHeartbeats_LoseNoTime() throws Exception {
+        String projectId = createProject(file("/concurrency/Shared.java", 0L));
+
+        // Імітація запису з іншого вузла: змінює проєкт в обхід локу, провокуючи конфлікти версій
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        Future<?> otherNode = executor.submit(() -> {
+            while (running.get()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+                        project.setGithubBadgeVisible(!project.isGithubBadgeVisible());
+                    });
+                } catch (OptimisticLockingFailureException ignored) {
+                    // Той самий конфлікт, що й у heartbeats; для цієї імітації втрата перемикання неважлива
+                }
+                Thread.sleep(50);
+            }
+            return null;
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                int failures = 0;
+                for (int i = 0; i < BATCHES_PER_THREAD; i++) {
+                    HeartbeatRequest request = new HeartbeatRequest();
+                    request.setHeartbeats(List.of(
+                            new Heartbeat("/concurrency/Shared.java", null, DAY.plusDays(i % 3), 1L, 2L),
+                            new Heartbeat("/concurrency/T" + thread + ".java", "JAVA", DAY.plusDays(i % 5), 1L, 2L)));
+                    if (!projectStatsService.recordHeartbeats(projectId, request, jwt).isSuccess()) {
+                        failures++;
+                    }
+                }
+                return failures;
+            }));
+        }
+
+        start.countDown();
+        for (Future<Integer> writer : writers) {
+            assertEquals(0, writer.get(60, TimeUnit.SECONDS));
+        }
+        running.set(false);
+        otherNode.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        long expectedCoding = (long) THREADS * BATCHES_PER_THREAD * 2;
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+            assertEquals(expectedCoding, project.getTotalCodingTime());
+            assertEquals(expectedCoding * 2, project.getTotalOpenTime());
+            assertEquals(expectedCoding, sumCoding(project.getDailyStats()));
+
+            long fileCoding = 0;
+            List<FileStats> files = fileStatsRepository.findByProjectId(projectId);
+            for (FileStats file : files) {
+                assertEquals(file.getCodingTime(), sumCoding(file.getDailyStats()));
+                fileCoding += file.getCodingTime();
+            }
+            assertEquals(expectedCoding, fileCoding);
+            assertEquals(THREADS + 1, files.size());
+        });
+
+        logger.info("Project write retries under contention: {}",
+                (long) meterRegistry.counter("stats.project_writes.retries").count());
+    }
+
+    @Test
+    void concurrentPatches_KeepEveryFile() throws Exception {
+        String projectId = createProject(file("/concurrency/Base.java", 100L));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseWrapper<ProjectStats>>> patches = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            patches.add(executor.submit(() -> {
+                ProjectStats updates = new ProjectStats();
+                updates.setFiles(new ArrayList<>(List.of(file("/concurrency/Patch" + thread + ".java", 10L))));
+                start.await();
+                return projectStatsService.patchProjectStats(projectId, updates, jwt);
+            }));
+        }
+
+        start.countDown();
+        for (Future<ResponseWrapper<ProjectStats>> patch : patches) {
+            assertTrue(patch.get(60, TimeUnit.SECONDS).isSuccess());
+        }
+        executor.shutdown();
+
+        ProjectStats project = projectStatsService.findProjectById(projectId);
+        assertEquals(THREADS + 1, project.getFiles().size());
+        assertEquals(100L + THREADS * 10L, project.getTotalCodingTime());
+    }
+
+    private String createProject(FileStats file) {
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/concurrency");
+        project.setFiles(new ArrayList<>(List.of(file)));
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+
+    private FileStats file(String path, long codingTime) {
+        FileStats file = new FileStats();
+        file.setFilePath(path);
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(codingTime, codingTime * 2))));
+        return file;
+    }
+
+    private long sumCoding(Map<LocalDate, DailyStats> dailyStats) {
+        return dailyStats.values().stream().mapToLong(DailyStats::getCodingTime).sum();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.dengas.devtimetracker.ProjectStatsDailyDiffTest$StatementRecorder")
+@ActiveProfiles("test")
+public class ProjectStatsDailyDiffTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 6, 1);
+    private static final int HISTORY_DAYS = 365;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "diff@example.com")
+            .build();
+
+    @Test
+    void update_SingleDayChangeTouchesOnlyThatRow() {
+        String projectId = projectStatsService.createProject(project(history()), jwt).getData().getProjectId();
+
+        Map<LocalDate, DailyStats> changed = history();
+        changed.put(START.plusDays(100), new DailyStats(150L, 300L));
+
+        StatementRecorder.STATEMENTS.clear();
+        ResponseWrapper<ProjectStats> response = projectStatsService.updateProjectStats(projectId, project(changed), jwt);
+        assertTrue(response.isSuccess());
+
+        List<String> dailyStatements = dailyStatsWrites();
+        assertEquals(1, dailyStatements.size(), dailyStatements.toString());
+        assertTrue(dailyStatements.get(0).startsWith("update"), dailyStatements.get(0));
+
+        assertEquals(HISTORY_DAYS, jdbcTemplate.queryForObject(
+                "select count(*) from project_daily_stats where project_id = ?", Integer.class, projectId));
+        assertEquals(150L, jdbcTemplate.queryForObject(
+                "select coding_time from project_daily_stats where project_id = ? and date = ?",
+                Long.class, projectId, START.plusDays(100)));
+    }
+
+    @Test
+    void update_UnchangedHistoryWritesNoDailyRows() {
+        String projectId = projectStatsService.createProject(project(history()), jwt).getData().getProjectId();
+
+        StatementRecorder.STATEMENTS.clear();
+        assertTrue(projectStatsService.updateProjectStats(projectId, project(history()), jwt).isSuccess());
+
+        assertEquals(List.of(), dailyStatsWrites());
+    }
+
+    private List<String> dailyStatsWrites() {
+        return StatementRecorder.STATEMENTS.stream()
+                .map(sql -> sql.trim().toLowerCase())
+                .filter(sql -> sql.contains("project_daily_stats"))
+                .filter(sql -> sql.startsWith("insert") || sql.startsWith("update") || sql.startsWith("delete"))
+                .toList();
+    }
+
+    private Map<LocalDate, DailyStats> history() {
+        Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+        for (int i = 0; i < HISTORY_DAYS; i++) {
+            dailyStats.put(START.plusDays(i), new DailyStats(100L, 200L));
+        }
+        return dailyStats;
+    }
+
+    private ProjectStats project(Map<LocalDate, DailyStats> dailyStats) {
+        FileStats file = new FileStats();
+        file.setFilePath("/diff/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(dailyStats);
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/diff");
+        project.setFiles(new ArrayList<>(List.of(file)));
+        return project;
+    }
+
+    // Hibernate створює інспектор за іменем класу, тому стан — статичний
+    public static class StatementRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
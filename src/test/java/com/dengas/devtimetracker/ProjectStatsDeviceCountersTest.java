@@ -0,0 +1,159 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.DeviceCounter;
+import com.dengas.devtimetracker.dto.DeviceCountersRequest;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProjectStatsDeviceCountersTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+    private static final String FILE = "/devices/App.java";
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "devices@example.com")
+            .build();
+
+    @Test
+    void deviceCounters_MergeRegardlessOfOrderAndRepetition() {
+        String projectId = createProject();
+
+        // Час без пристрою (heartbeat) лишається частиною суми
+        HeartbeatRequest heartbeats = new HeartbeatRequest();
+        heartbeats.setHeartbeats(List.of(new Heartbeat(FILE, null, DAY, 5L, 5L)));
+        assertTrue(projectStatsService.recordHeartbeats(projectId, heartbeats, jwt).isSuccess());
+
+        sync(projectId, "laptop", counter(FILE, DAY, 100L, 200L));
+        sync(projectId, "desktop", counter(FILE, DAY, 40L, 40L));
+        // Повтор і застаріла (менша) відправка нічого не змінюють
+        sync(projectId, "laptop", counter(FILE, DAY, 100L, 200L));
+        sync(projectId, "laptop", counter(FILE, DAY, 70L, 300L));
+        sync(projectId, "desktop", counter(FILE, DAY.plusDays(1), 10L, 10L), counter("/devices/New.java", DAY, 1L, 1L));
+
+        assertCell(projectId, FILE, DAY, 5L + 100L + 40L, 5L + 300L + 40L);
+        assertCell(projectId, FILE, DAY.plusDays(1), 10L, 10L);
+        assertCell(projectId, "/devices/New.java", DAY, 1L, 1L);
+
+        ProjectStats project = projectStatsService.findProjectById(projectId);
+        assertEquals(5L + 100L + 40L + 10L + 1L, project.getTotalCodingTime());
+        assertEquals(5L + 300L + 40L + 10L + 1L, project.getTotalOpenTime());
+    }
+
+    @Test
+    void deviceCounters_ConcurrentRetriesCountOnce() throws Exception {
+        String projectId = createProject();
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> syncs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // Половина потоків повторює ту саму відправку, половина — відправку іншого пристрою
+            String deviceId = t % 2 == 0 ? "laptop" : "desktop";
+            syncs.add(executor.submit(() -> {
+                start.await();
+                return projectStatsService.syncDeviceCounters(projectId,
+                        request(deviceId, counter(FILE, DAY, 60L, 120L), counter("/devices/Other.java", DAY, 30L, 30L)),
+                        jwt).isSuccess();
+            }));
+        }
+
+        start.countDown();
+        for (Future<Boolean> sync : syncs) {
+            assertTrue(sync.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertCell(projectId, FILE, DAY, 120L, 240L);
+        assertCell(projectId, "/devices/Other.java", DAY, 60L, 60L);
+        ProjectStats project = projectStatsService.findProjectById(projectId);
+        assertEquals(180L, project.getTotalCodingTime());
+        assertEquals(300L, project.getTotalOpenTime());
+    }
+
+    private void sync(String projectId, String deviceId, DeviceCounter... counters) {
+        assertTrue(projectStatsService.syncDeviceCounters(projectId, request(deviceId, counters), jwt).isSuccess());
+    }
+
+    private DeviceCountersRequest request(String deviceId, DeviceCounter... counters) {
+        DeviceCountersRequest request = new DeviceCountersRequest();
+        request.setDeviceId(deviceId);
+        request.setCounters(List.of(counters));
+        return request;
+    }
+
+    private DeviceCounter counter(String filePath, LocalDate date, long codingTime, long openTime) {
+        return new DeviceCounter(filePath, "JAVA", date, codingTime, openTime);
+    }
+
+    private void assertCell(String projectId, String filePath, LocalDate date, long codingTime, long openTime) {
+        transactionTemplate.executeWithoutResult(status -> {
+            FileStats file = fileStatsRepository.findByProjectIdAndFilePathIn(projectId, List.of(filePath)).get(0);
+            assertEquals(new DailyStats(codingTime, openTime), file.getDailyStats().get(date));
+            assertEquals(file.getCodingTime(), file.getDailyStats().values().stream().mapToLong(DailyStats::getCodingTime).sum());
+
+            ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+            long projectCoding = 0;
+            for (FileStats projectFile : fileStatsRepository.findByProjectId(projectId)) {
+                DailyStats cell = projectFile.getDailyStats().get(date);
+                projectCoding += cell != null ? cell.getCodingTime() : 0L;
+            }
+            assertEquals(projectCoding, project.getDailyStats().get(date).getCodingTime());
+        });
+    }
+
+    private String createProject() {
+        FileStats file = new FileStats();
+        file.setFilePath(FILE);
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(0L, 0L))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/devices");
+        project.setFiles(new ArrayList<>(List.of(file)));
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+}
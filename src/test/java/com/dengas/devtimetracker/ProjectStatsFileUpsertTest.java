@@ -0,0 +1,135 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class ProjectStatsFileUpsertTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+    private static final int FILE_COUNT = 200;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "upsert@example.com")
+            .build();
+
+    @Test
+    void put_WritesOnlyChangedNewAndRemovedFiles() {
+        String projectId = createProject();
+        Map<String, String> idsBefore = fileIdsByPath(projectId);
+
+        List<FileStats> files = files();
+        files.remove(0);
+        files.get(0).getDailyStats().put(DAY, new DailyStats(500L, 900L));
+        files.add(file("/upsert/New.java", 10L));
+
+        ProjectStats update = new ProjectStats();
+        update.setProjectPath("/upsert");
+        update.setFiles(files);
+
+        EntityStatistics statistics = fileStatistics();
+        assertTrue(projectStatsService.updateProjectStats(projectId, update, jwt).isSuccess());
+
+        assertEquals(1, statistics.getInsertCount());
+        assertEquals(1, statistics.getUpdateCount());
+
+        Map<String, String> idsAfter = fileIdsByPath(projectId);
+        assertEquals(FILE_COUNT, idsAfter.size());
+        assertFalse(idsAfter.containsKey("/upsert/File0.java"));
+        assertTrue(idsAfter.containsKey("/upsert/New.java"));
+        // Незмінені та оновлені файли зберігають свої рядки
+        assertEquals(idsBefore.get("/upsert/File1.java"), idsAfter.get("/upsert/File1.java"));
+        assertEquals(idsBefore.get("/upsert/File199.java"), idsAfter.get("/upsert/File199.java"));
+
+        ProjectStats project = projectStatsService.findProjectById(projectId);
+        assertEquals(500L + 10L + (FILE_COUNT - 2) * 100L, project.getTotalCodingTime());
+    }
+
+    @Test
+    void patch_UpsertsListedFilesAndKeepsTheRest() {
+        String projectId = createProject();
+
+        ProjectStats updates = new ProjectStats();
+        updates.setFiles(new ArrayList<>(List.of(file("/upsert/File5.java", 300L), file("/upsert/New.java", 10L))));
+
+        EntityStatistics statistics = fileStatistics();
+        assertTrue(projectStatsService.patchProjectStats(projectId, updates, jwt).isSuccess());
+
+        assertEquals(1, statistics.getInsertCount());
+        assertEquals(1, statistics.getUpdateCount());
+        assertEquals(FILE_COUNT + 1, fileStatsRepository.findByProjectId(projectId).size());
+
+        ProjectStats project = projectStatsService.findProjectById(projectId);
+        assertEquals(300L + 10L + (FILE_COUNT - 1) * 100L, project.getTotalCodingTime());
+    }
+
+    private String createProject() {
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/upsert");
+        project.setFiles(files());
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+
+    private List<FileStats> files() {
+        List<FileStats> files = new ArrayList<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            files.add(file("/upsert/File" + i + ".java", 100L));
+        }
+        return files;
+    }
+
+    private FileStats file(String path, long codingTime) {
+        FileStats file = new FileStats();
+        file.setFilePath(path);
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(codingTime, codingTime * 2))));
+        return file;
+    }
+
+    private Map<String, String> fileIdsByPath(String projectId) {
+        return fileStatsRepository.findByProjectId(projectId).stream()
+                .collect(Collectors.toMap(FileStats::getFilePath, FileStats::getId));
+    }
+
+    private EntityStatistics fileStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics.getEntityStatistics(FileStats.class.getName());
+    }
+}
@@ -0,0 +1,155 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.HeartbeatResult;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.model.User;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.repositories.UserRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.StatsWriteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProjectStatsHeartbeatTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatsWriteBuffer writeBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private ProjectStats project;
+
+    @BeforeEach
+    void setUp() {
+        fileStatsRepository.deleteAll();
+        projectStatsRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("heartbeat@example.com");
+        userRepository.save(user);
+
+        project = new ProjectStats();
+        project.setProjectId(UUID.randomUUID().toString());
+        project.setProjectPath("/heartbeat/project");
+        project.setUser(user);
+        project.setDailyStats(Map.of(DAY, new DailyStats(100L, 200L)));
+        project.calculateTotalTimes();
+        projectStatsRepository.save(project);
+
+        FileStats file = new FileStats();
+        file.setProjectId(project.getProjectId());
+        file.setFilePath("/heartbeat/project/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(Map.of(DAY, new DailyStats(100L, 200L)));
+        file.calculateTotalTimes();
+        fileStatsRepository.save(file);
+    }
+
+    @Test
+    void recordHeartbeats_AddsDeltasToExistingAndNewRows() {
+        HeartbeatRequest request = new HeartbeatRequest();
+        request.setHeartbeats(List.of(
+                new Heartbeat("/heartbeat/project/App.java", null, DAY, 30L, 60L),
+                new Heartbeat("/heartbeat/project/App.java", null, DAY.plusDays(1), 10L, 20L),
+                new Heartbeat("/heartbeat/project/Main.java", "JAVA", DAY, 5L, 5L)));
+
+        ResponseWrapper<HeartbeatResult> response = projectStatsService.recordHeartbeats(
+                project.getProjectId(), request, userJwt());
+
+        assertTrue(response.isSuccess());
+        assertEquals(145L, response.getData().getTotalCodingTime());
+        assertEquals(285L, response.getData().getTotalOpenTime());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats stored = projectStatsRepository.findById(project.getProjectId()).orElseThrow();
+            assertEquals(new DailyStats(135L, 265L), stored.getDailyStats().get(DAY));
+            assertEquals(new DailyStats(10L, 20L), stored.getDailyStats().get(DAY.plusDays(1)));
+            assertEquals(145L, stored.getTotalCodingTime());
+
+            FileStats app = fileStatsRepository.findByProjectIdAndFilePathIn(
+                    project.getProjectId(), List.of("/heartbeat/project/App.java")).get(0);
+            assertEquals(new DailyStats(130L, 260L), app.getDailyStats().get(DAY));
+            assertEquals(140L, app.getCodingTime());
+            assertEquals(2, fileStatsRepository.findByProjectId(project.getProjectId()).size());
+        });
+    }
+
+    @Test
+    void recordHeartbeats_NewFileWithoutTypeIsRejectedAtomically() {
+        HeartbeatRequest request = new HeartbeatRequest();
+        request.setHeartbeats(List.of(
+                new Heartbeat("/heartbeat/project/App.java", null, DAY, 30L, 60L),
+                new Heartbeat("/heartbeat/project/Unknown.java", null, DAY, 5L, 5L)));
+
+        ResponseWrapper<HeartbeatResult> response = projectStatsService.recordHeartbeats(
+                project.getProjectId(), request, userJwt());
+
+        assertFalse(response.isSuccess());
+        assertEquals(400, response.getStatus());
+        assertEquals(100L, projectStatsRepository.findById(project.getProjectId()).orElseThrow().getTotalCodingTime());
+    }
+
+    @Test
+    void writeBuffer_CoalescesDeltasByProjectFileAndDate() {
+        for (int i = 0; i < 50; i++) {
+            writeBuffer.enqueue(project.getProjectId(), List.of(
+                    new Heartbeat("/heartbeat/project/App.java", null, DAY, 2L, 4L),
+                    new Heartbeat("/heartbeat/project/App.java", null, DAY.plusDays(1), 1L, 1L)));
+        }
+        assertEquals(2, writeBuffer.size());
+
+        writeBuffer.flush();
+
+        assertEquals(0, writeBuffer.size());
+        ProjectStats stored = projectStatsRepository.findById(project.getProjectId()).orElseThrow();
+        assertEquals(250L, stored.getTotalCodingTime());
+        assertEquals(450L, stored.getTotalOpenTime());
+    }
+
+    private Jwt userJwt() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(user.getId())
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "stats.bulk-import.batch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProjectStatsImportTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "import@example.com")
+            .build();
+
+    @Test
+    void import_WritesValidRecordsAndReportsErrors() throws Exception {
+        String existingId = createExistingProject();
+
+        String ndjson = String.join("\n",
+                "{\"projectPath\":\"/import/a\",\"filePath\":\"/import/a/App.java\",\"type\":\"JAVA\",\"dailyStats\":{\"2024-01-15\":{\"codingTime\":100,\"openTime\":200}}}",
+                "{\"projectPath\":\"/import/a\",\"filePath\":",
+                "{\"projectPath\":\"/import/a\",\"filePath\":\"/import/a/NoType.java\",\"codingTime\":1,\"openTime\":1}",
+                "",
+                "{\"projectPath\":\"/import/a\",\"filePath\":\"/import/a/README.md\",\"type\":\"MARKDOWN\",\"codingTime\":10,\"openTime\":20}",
+                "{\"projectPath\":\"/import/existing\",\"filePath\":\"/import/existing/Main.java\",\"type\":\"JAVA\",\"dailyStats\":{\"2024-01-15\":{\"codingTime\":250,\"openTime\":300},\"2024-01-16\":{\"codingTime\":5,\"openTime\":5}}}",
+                "{\"projectPath\":\"/import/b\",\"filePath\":\"/import/b/b.py\",\"type\":\"PYTHON\",\"dailyStats\":{\"2024-01-16\":{\"codingTime\":7,\"openTime\":9}}}");
+
+        List<JsonNode> events = importNdjson(ndjson);
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(6, summary.get("records").asLong());
+        assertEquals(4, summary.get("imported").asLong());
+        assertEquals(2, summary.get("failed").asLong());
+        assertEquals(2, summary.get("projectsCreated").asLong());
+
+        List<JsonNode> errors = events.stream().filter(e -> e.get("type").asText().equals("error")).toList();
+        assertEquals(2, errors.get(0).get("line").asLong());
+        assertEquals(3, errors.get(1).get("line").asLong());
+        assertEquals("File type is required", errors.get(1).get("message").asText());
+        assertEquals(2, events.stream().filter(e -> e.get("type").asText().equals("progress")).count());
+
+        assertProject("/import/a", 110L, 220L);
+        assertProject("/import/b", 7L, 9L);
+        // Значення за 2024-01-15 замінено (100 -> 250), новий день додано
+        ProjectStats existing = projectStatsService.findProjectById(existingId);
+        assertEquals(255L, existing.getTotalCodingTime());
+        assertDay(existingId, DAY, 250L, 300L);
+
+        // Повторний імпорт тих самих даних нічого не змінює і не створює проєктів
+        JsonNode repeated = last(importNdjson(ndjson));
+        assertEquals(0, repeated.get("projectsCreated").asLong());
+        assertProject("/import/a", 110L, 220L);
+        assertEquals(255L, projectStatsService.findProjectById(existingId).getTotalCodingTime());
+    }
+
+    @Test
+    void import_StreamsLargeInputInBatches() throws Exception {
+        int projects = 5;
+        int filesPerProject = 400;
+        // Вхід генерується на льоту, тож потік ніколи не існує в пам'яті цілком
+        InputStream input = new SequenceInputStream(new Enumeration<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < projects * filesPerProject;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                int project = next % projects;
+                int file = next++ / projects;
+                String line = "{\"projectPath\":\"/bulk/" + project + "\",\"filePath\":\"/bulk/" + project + "/F" + file
+                        + ".java\",\"type\":\"JAVA\",\"dailyStats\":{\"2024-01-15\":{\"codingTime\":3,\"openTime\":4}}}\n";
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        projectStatsService.importStats(input, output, jwt);
+
+        JsonNode summary = last(parse(output.toString(StandardCharsets.UTF_8)));
+        assertEquals(projects * filesPerProject, summary.get("imported").asLong());
+        assertEquals(0, summary.get("failed").asLong());
+        for (int project = 0; project < projects; project++) {
+            assertProject("/bulk/" + project, 3L * filesPerProject, 4L * filesPerProject);
+        }
+    }
+
+    private List<JsonNode> importNdjson(String ndjson) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/stats/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .jwt(token -> token.subject(userId).claim("email", "import@example.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_client_user")))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return parse(body);
+    }
+
+    private List<JsonNode> parse(String ndjson) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private JsonNode last(List<JsonNode> events) {
+        return events.get(events.size() - 1);
+    }
+
+    private void assertProject(String projectPath, long codingTime, long openTime) {
+        List<String> ids = projectStatsRepository.findIdsByUserIdAndProjectPath(userId, projectPath);
+        assertEquals(1, ids.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats project = projectStatsRepository.findById(ids.get(0)).orElseThrow();
+            assertEquals(codingTime, project.getTotalCodingTime());
+            assertEquals(openTime, project.getTotalOpenTime());
+
+            long fileCoding = 0;
+            for (FileStats file : fileStatsRepository.findByProjectId(project.getProjectId())) {
+                fileCoding += file.getCodingTime();
+            }
+            assertEquals(codingTime, fileCoding);
+        });
+    }
+
+    private void assertDay(String projectId, LocalDate date, long codingTime, long openTime) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ProjectStats project = projectStatsRepository.findById(projectId).orElseThrow();
+            assertEquals(new DailyStats(codingTime, openTime), project.getDailyStats().get(date));
+        });
+    }
+
+    private String createExistingProject() {
+        FileStats file = new FileStats();
+        file.setFilePath("/import/existing/Main.java");
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(100L, 200L))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/import/existing");
+        project.setFiles(new ArrayList<>(List.of(file)));
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+}
@@ -0,0 +1,138 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.FileStatsRepository;
+import com.dengas.devtimetracker.repositories.ProjectStatsRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.DailySeriesMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stats.storage.mode=packed")
+@ActiveProfiles("test")
+public class ProjectStatsPackedStorageTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private ProjectStatsRepository projectStatsRepository;
+
+    @Autowired
+    private FileStatsRepository fileStatsRepository;
+
+    @Autowired
+    private DailySeriesMigrator dailySeriesMigrator;
+
+    @Autowired
+    private StatsProperties statsProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "packed@example.com")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        fileStatsRepository.deleteAll();
+        projectStatsRepository.deleteAll();
+    }
+
+    @AfterEach
+    void restoreMode() {
+        statsProperties.getStorage().setMode(StatsProperties.StorageMode.PACKED);
+    }
+
+    @Test
+    void packedMode_StoresNoDailyRowsAndKeepsApiShape() {
+        String projectId = createProject();
+
+        HeartbeatRequest request = new HeartbeatRequest();
+        request.setHeartbeats(List.of(new Heartbeat("/packed/App.java", null, DAY.plusDays(3), 40L, 80L)));
+        assertTrue(projectStatsService.recordHeartbeats(projectId, request, jwt).isSuccess());
+
+        assertEquals(0, countDailyRows());
+
+        ResponseWrapper<ProjectStats> full = projectStatsService.getProjectStats(projectId, DateRange.unbounded(), jwt);
+        assertEquals(new DailyStats(100L, 200L), full.getData().getDailyStats().get(DAY));
+        assertEquals(new DailyStats(40L, 80L), full.getData().getDailyStats().get(DAY.plusDays(3)));
+        assertEquals(140L, full.getData().getTotalCodingTime());
+
+        ResponseWrapper<ProjectStats> windowed = projectStatsService.getProjectStats(
+                projectId, DateRange.of(DAY.plusDays(1), null), jwt);
+        assertEquals(40L, windowed.getData().getTotalCodingTime());
+        assertEquals(1, windowed.getData().getFiles().size());
+
+        Map<String, Object> dashboard = projectStatsService.getDashboardStats(DateRange.of(DAY.plusDays(1), null), jwt).getData();
+        assertEquals(1L, dashboard.get("totalProjects"));
+        assertEquals(40L, dashboard.get("totalCodingTime"));
+    }
+
+    @Test
+    void migrator_ConvertsBetweenRowsAndPackedSeries() {
+        statsProperties.getStorage().setMode(StatsProperties.StorageMode.ROWS);
+        String projectId = createProject();
+        assertEquals(2, countDailyRows());
+
+        statsProperties.getStorage().setMode(StatsProperties.StorageMode.PACKED);
+        dailySeriesMigrator.migrate();
+        assertEquals(0, countDailyRows());
+        assertEquals(100L, projectStatsService.getProjectStats(projectId, DateRange.unbounded(), jwt)
+                .getData().getDailyStats().get(DAY).getCodingTime());
+
+        statsProperties.getStorage().setMode(StatsProperties.StorageMode.ROWS);
+        dailySeriesMigrator.migrate();
+        assertEquals(2, countDailyRows());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from file_stats where daily_series is not null", Integer.class));
+    }
+
+    private String createProject() {
+        FileStats file = new FileStats();
+        file.setFilePath("/packed/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(100L, 200L))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/packed");
+        project.setFiles(new ArrayList<>(List.of(file)));
+
+        ResponseWrapper<ProjectStats> response = projectStatsService.createProject(project, jwt);
+        assertTrue(response.isSuccess());
+        return response.getData().getProjectId();
+    }
+
+    private int countDailyRows() {
+        return jdbcTemplate.queryForObject("select count(*) from file_daily_stats", Integer.class)
+                + jdbcTemplate.queryForObject("select count(*) from project_daily_stats", Integer.class);
+    }
+}
@@ -0,0 +1,249 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.SmileConfig;
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.StatsStreamWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Малий fetch size змушує курсор дочитувати рядки порціями посеред проєктів і файлів
+@SpringBootTest(properties = "stats.streaming.fetch-size=7")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProjectStatsStreamingTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private StatsProperties statsProperties;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "streaming@example.com")
+            .build();
+
+    @Test
+    void streamedListings_MatchMaterializedOnes() throws Exception {
+        String projectId = createProject("/streaming/a", 12, 4);
+        createProject("/streaming/b", 3, 2);
+        createProject("/streaming/empty", 0, 0);
+
+        // Адміністратор бачить усі проєкти, користувач — лише свої
+        assertSameListing(get("/api/v1/stats/projects").with(admin()));
+        assertSameListing(get("/api/v1/stats/projects").with(user()));
+        assertSameListing(get("/api/v1/stats/projects").param("from", DAY.minusDays(1).toString()).with(user()));
+        assertSameListing(get("/api/v1/stats/projects/{projectId}/files", projectId).with(user()));
+        assertSameListing(get("/api/v1/stats/projects/{projectId}/files", projectId)
+                .param("from", DAY.minusDays(2).toString()).param("to", DAY.minusDays(1).toString()).with(user()));
+
+        JsonNode streamed = objectMapper.readTree(perform(get("/api/v1/stats/projects").param("stream", "true").with(user())));
+        assertTrue(streamed.get("success").asBoolean());
+        assertEquals(200, streamed.get("status").asInt());
+        assertTrue(streamed.has("timestamp"));
+        assertEquals(3, streamed.get("data").size());
+    }
+
+    @Test
+    void streamedListings_NegotiateSmileAndReportMissingProjects() throws Exception {
+        String projectId = createProject("/streaming/smile", 5, 3);
+        ObjectMapper smileMapper = SmileConfig.smileObjectMapper(objectMapperBuilder);
+
+        byte[] smile = mockMvc.perform(get("/api/v1/stats/projects/{projectId}/files", projectId).param("stream", "true")
+                        .accept(SmileConfig.APPLICATION_SMILE).with(user()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = perform(get("/api/v1/stats/projects/{projectId}/files", projectId).param("stream", "true").with(user()));
+        assertEquals(objectMapper.readTree(json).get("data"), smileMapper.readTree(smile).get("data"));
+
+        JsonNode missing = objectMapper.readTree(mockMvc.perform(get("/api/v1/stats/projects/{projectId}/files", "missing")
+                        .param("stream", "true").with(user()))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsString());
+        assertFalse(missing.get("success").asBoolean());
+        assertEquals("NOT_FOUND", missing.at("/error/code").asText());
+    }
+
+    // Помилка курсора посеред відповіді не має виглядати як успішний, але обрізаний список
+    @Test
+    void streamedListings_LeaveBodyIncompleteWhenCursorFails() throws Exception {
+        String projectId = createProject("/streaming/broken", 12, 4);
+        StatsStreamWriter writer = new StatsStreamWriter(failingDataSource(20), transactionManager, objectMapper,
+                smileConverter, statsProperties);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThrows(DataAccessException.class,
+                () -> writer.projects(userId, DateRange.unbounded(), MediaType.APPLICATION_JSON).writeTo(output));
+
+        String body = output.toString(StandardCharsets.UTF_8);
+        assertTrue(body.contains(projectId), "rows before the failure are not written");
+        assertThrows(JsonProcessingException.class, () -> objectMapper.readTree(body));
+    }
+
+    // Курсор віддає rowsBeforeFailure рядків, а далі падає, як при обриві з'єднання з БД
+    private DataSource failingDataSource(int rowsBeforeFailure) {
+        AtomicInteger rows = new AtomicInteger();
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return intercept(super.getConnection(), Connection.class, rows, rowsBeforeFailure);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T intercept(T target, Class<T> type, AtomicInteger rows, int rowsBeforeFailure) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (type == ResultSet.class && method.getName().equals("next") && rows.incrementAndGet() > rowsBeforeFailure) {
+                throw new SQLException("Connection reset");
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return intercept(statement, PreparedStatement.class, rows, rowsBeforeFailure);
+            }
+            if (result instanceof ResultSet resultSet && method.getName().equals("executeQuery")) {
+                return intercept(resultSet, ResultSet.class, rows, rowsBeforeFailure);
+            }
+            return result;
+        });
+    }
+
+    private void assertSameListing(MockHttpServletRequestBuilder request) throws Exception {
+        JsonNode materialized = objectMapper.readTree(perform(request)).get("data");
+        JsonNode streamed = objectMapper.readTree(perform(request.param("stream", "true"))).get("data");
+        assertEquals(byKey(materialized), byKey(streamed));
+    }
+
+    // Порядок елементів не гарантує жоден з режимів, тому порівнюються мапи за id
+    private Map<String, JsonNode> byKey(JsonNode items) {
+        Map<String, JsonNode> result = new HashMap<>();
+        for (JsonNode item : items) {
+            ObjectNode copy = item.deepCopy();
+            if (copy.hasNonNull("user")) {
+                // Потокова відповідь містить лише власні поля користувача
+                ObjectNode user = (ObjectNode) copy.get("user");
+                user.retain("id", "email", "username", "createdAt", "updatedAt");
+            }
+            if (copy.has("files")) {
+                copy.set("files", objectMapper.valueToTree(byKey(copy.get("files"))));
+            }
+            result.put(copy.has("projectId") && !copy.has("filePath") ? copy.get("projectId").asText() : copy.get("id").asText(), copy);
+        }
+        return result;
+    }
+
+    private String perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String createProject(String projectPath, int fileCount, int days) {
+        List<FileStats> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+            for (int day = 0; day < days; day++) {
+                dailyStats.put(DAY.minusDays(day), new DailyStats((long) i + day, 2L * (i + day)));
+            }
+            FileStats file = new FileStats();
+            file.setFilePath(projectPath + "/File" + i + ".java");
+            file.setType(i % 2 == 0 ? "JAVA" : "MARKDOWN");
+            file.setDailyStats(dailyStats);
+            files.add(file);
+        }
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(files);
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(userId).claim("email", "streaming@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+
+    private RequestPostProcessor admin() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(UUID.randomUUID().toString())
+                        .claim("resource_access", Map.of("devTimeTracker-rest-api", Map.of("roles", List.of("client_admin")))))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"), new SimpleGrantedAuthority("ROLE_client_admin"));
+    }
+}
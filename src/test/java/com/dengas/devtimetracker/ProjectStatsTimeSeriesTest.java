@@ -0,0 +1,151 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.AnalyticsSummary;
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.ResponseWrapper;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.TimeSeriesEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Індекс opt-in, тож тест вмикає його явно
+@SpringBootTest(properties = "stats.analytics.enabled=true")
+@ActiveProfiles("test")
+public class ProjectStatsTimeSeriesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 30);
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private TimeSeriesEngine timeSeriesEngine;
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(UUID.randomUUID().toString())
+            .claim("email", "series@example.com")
+            .build();
+
+    @Test
+    void series_RangeSumsMatchBruteForce() {
+        Random random = new Random(42);
+        Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            dailyStats.put(DAY.minusDays(random.nextInt(1000)), new DailyStats((long) random.nextInt(5000), (long) random.nextInt(9000)));
+        }
+
+        TimeSeriesEngine.Series series = TimeSeriesEngine.Series.of(dailyStats);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = DAY.minusDays(random.nextInt(1100));
+            LocalDate to = from.plusDays(random.nextInt(300));
+            long expectedCoding = 0;
+            long expectedOpen = 0;
+            for (Map.Entry<LocalDate, DailyStats> entry : dailyStats.entrySet()) {
+                if (!entry.getKey().isBefore(from) && !entry.getKey().isAfter(to)) {
+                    expectedCoding += entry.getValue().getCodingTime();
+                    expectedOpen += entry.getValue().getOpenTime();
+                }
+            }
+            assertEquals(expectedCoding, series.codingTime(from.toEpochDay(), to.toEpochDay()));
+            assertEquals(expectedOpen, series.openTime(from.toEpochDay(), to.toEpochDay()));
+        }
+
+        long fridays = dailyStats.entrySet().stream()
+                .filter(entry -> entry.getKey().getDayOfWeek() == DayOfWeek.FRIDAY)
+                .mapToLong(entry -> entry.getValue().getCodingTime())
+                .sum();
+        assertEquals(fridays, series.codingTimeOn(DayOfWeek.FRIDAY));
+    }
+
+    @Test
+    void writes_KeepIndexInSyncWithRebuild() {
+        String projectId = createProject();
+        String otherProjectId = createProject();
+        // Активний проєкт іншого користувача не входить у лічильник
+        createProject(Jwt.withTokenValue("token").header("alg", "none")
+                .subject(UUID.randomUUID().toString()).claim("email", "other@example.com").build());
+
+        // Дати по обидва боки від існуючого ряду змушують масиви розширюватися в обидва боки
+        HeartbeatRequest request = new HeartbeatRequest();
+        request.setHeartbeats(List.of(
+                new Heartbeat("/series/App.java", null, DAY.plusDays(200), 40L, 80L),
+                new Heartbeat("/series/App.java", null, DAY.minusDays(300), 5L, 10L)));
+        assertTrue(projectStatsService.recordHeartbeats(projectId, request, jwt).isSuccess());
+        assertTrue(projectStatsService.deleteProject(otherProjectId, jwt).isSuccess());
+
+        String userId = jwt.getSubject();
+        long all = Long.MAX_VALUE;
+        assertEquals(145L, timeSeriesEngine.codingTime(userId, Long.MIN_VALUE, all));
+        assertEquals(40L, timeSeriesEngine.codingTime(userId, DAY.plusDays(1).toEpochDay(), all));
+        assertEquals(1L, timeSeriesEngine.activeProjectCount(userId, DAY.toEpochDay(), DAY.toEpochDay()));
+
+        timeSeriesEngine.rebuild();
+
+        assertEquals(145L, timeSeriesEngine.codingTime(userId, Long.MIN_VALUE, all));
+        assertEquals(290L, timeSeriesEngine.openTime(userId, Long.MIN_VALUE, all));
+        assertEquals(1L, timeSeriesEngine.activeProjectCount(userId, DAY.toEpochDay(), DAY.toEpochDay()));
+
+        Map<String, Object> dashboard = projectStatsService.getDashboardStats(DateRange.of(DAY.minusDays(300), DAY), jwt).getData();
+        assertEquals(1L, dashboard.get("totalProjects"));
+        assertEquals(105L, dashboard.get("totalCodingTime"));
+    }
+
+    @Test
+    void analytics_ReportsWindowLastDaysAndDayOfWeek() {
+        String projectId = createProject();
+
+        ResponseWrapper<AnalyticsSummary> response = projectStatsService.getAnalytics(
+                projectId, DateRange.of(DAY, DAY), 7, jwt);
+
+        assertTrue(response.isSuccess());
+        AnalyticsSummary summary = response.getData();
+        assertEquals(100L, summary.getCodingTime());
+        assertEquals(200L, summary.getOpenTime());
+        assertEquals(100L, summary.getCodingTimeByDayOfWeek().get(DAY.getDayOfWeek()));
+        assertEquals(0L, summary.getCodingTimeByDayOfWeek().get(DAY.getDayOfWeek().plus(1)));
+
+        assertEquals("VALIDATION_ERROR", projectStatsService.getAnalytics(null, DateRange.unbounded(), 0, jwt)
+                .getError().getCode());
+    }
+
+    private String createProject() {
+        return createProject(jwt);
+    }
+
+    private String createProject(Jwt owner) {
+        FileStats file = new FileStats();
+        file.setFilePath("/series/App.java");
+        file.setType("JAVA");
+        file.setDailyStats(new HashMap<>(Map.of(DAY, new DailyStats(100L, 200L))));
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath("/series");
+        project.setFiles(new ArrayList<>(List.of(file)));
+
+        ResponseWrapper<ProjectStats> response = projectStatsService.createProject(project, owner);
+        assertTrue(response.isSuccess());
+        return response.getData().getProjectId();
+    }
+}
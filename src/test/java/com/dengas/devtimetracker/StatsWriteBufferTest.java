@@ -0,0 +1,84 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.exceptions.WriteBufferFullException;
+import com.dengas.devtimetracker.services.implement.HeartbeatWriter;
+import com.dengas.devtimetracker.services.implement.StatsWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// БД недоступна: буфер не росте без меж і не дає перезапису лягти під повернуті прирости
+public class StatsWriteBufferTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    private final HeartbeatWriter heartbeatWriter = mock(HeartbeatWriter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StatsWriteBuffer writeBuffer;
+
+    @BeforeEach
+    void setUp() {
+        StatsProperties properties = new StatsProperties();
+        properties.getWriteBuffer().setMaxSize(2);
+        properties.getWriteBuffer().setMaxFlushAttempts(2);
+        writeBuffer = new StatsWriteBuffer(heartbeatWriter, properties, meterRegistry);
+
+        when(heartbeatWriter.write(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database is down"));
+    }
+
+    @Test
+    void flush_DropsDeltasAfterMaxAttempts() {
+        writeBuffer.enqueue("project", List.of(heartbeat("/a.java")));
+
+        writeBuffer.flush();
+        assertEquals(1, writeBuffer.size());
+
+        writeBuffer.flush();
+        assertEquals(0, writeBuffer.size());
+        assertEquals(1.0, meterRegistry.get("stats.write_buffer.dropped").tag("reason", "retries_exhausted").counter().count());
+    }
+
+    @Test
+    void enqueue_RejectsWhenBufferStaysFull() {
+        writeBuffer.enqueue("project", List.of(heartbeat("/a.java"), heartbeat("/b.java")));
+
+        assertThrows(WriteBufferFullException.class, () -> writeBuffer.enqueue("project", List.of(heartbeat("/c.java"))));
+        assertEquals(2, writeBuffer.size());
+        assertEquals(1.0, meterRegistry.get("stats.write_buffer.rejected").counter().count());
+
+        // Після відновлення БД буфер скидається і знову приймає прирости
+        reset(heartbeatWriter);
+        writeBuffer.enqueue("project", List.of(heartbeat("/c.java")));
+        assertEquals(1, writeBuffer.size());
+        verify(heartbeatWriter, times(1)).write(anyString(), anyList());
+    }
+
+    @Test
+    void flushProject_ThrowsAndKeepsDeltasForRetry() {
+        writeBuffer.enqueue("project", List.of(heartbeat("/a.java")));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> writeBuffer.flushProject("project"));
+        assertEquals(1, writeBuffer.size());
+    }
+
+    private Heartbeat heartbeat(String filePath) {
+        return new Heartbeat(filePath, "JAVA", DAY, 10L, 10L);
+    }
+}
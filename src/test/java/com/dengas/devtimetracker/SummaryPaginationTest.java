@@ -0,0 +1,210 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.config.StatsProperties;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Мала межа сторінки, щоб перевірити обрізання size без сотень проєктів
+@SpringBootTest(properties = "stats.pagination.max-size=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SummaryPaginationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 10, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private StatsProperties statsProperties;
+
+    private StatsProperties.StorageMode originalMode;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void rememberMode() {
+        originalMode = statsProperties.getStorage().getMode();
+    }
+
+    @AfterEach
+    void restoreMode() {
+        statsProperties.getStorage().setMode(originalMode);
+    }
+
+    @Test
+    void projectSummaries_FollowCursorToLastPage() throws Exception {
+        Map<String, LocalDate> expected = createProjects(5);
+        assertEquals(expected, collectProjects("/api/v1/stats/projects/summary", 2, List.of(2, 2, 1)));
+    }
+
+    @Test
+    void summaries_ClampPageSizeToConfiguredMax() throws Exception {
+        createProjects(4);
+        JsonNode page = perform(get("/api/v1/stats/projects/summary").param("size", "50"), status().isOk()).get("data");
+        assertEquals(3, page.get("items").size());
+        assertTrue(page.hasNonNull("nextCursor"));
+
+        String projectId = createProject("/summary/files", 4);
+        page = perform(get("/api/v1/stats/projects/{projectId}/files/summary", projectId).param("size", "50"), status().isOk())
+                .get("data");
+        assertEquals(3, page.get("items").size());
+        assertTrue(page.hasNonNull("nextCursor"));
+    }
+
+    @Test
+    void fileSummaries_FollowCursorAndCheckAccess() throws Exception {
+        String projectId = createProject("/summary/files", 3);
+        Map<String, LocalDate> files = collectFiles(projectId, List.of(2, 1));
+        assertEquals(3, files.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(DAY.plusDays(i), files.get("/summary/files/File" + i + ".java"));
+        }
+
+        String foreign = createProject(UUID.randomUUID().toString(), "/summary/foreign", 1);
+        assertEquals("UNAUTHORIZED", perform(get("/api/v1/stats/projects/{projectId}/files/summary", foreign), status().isForbidden())
+                .at("/error/code").asText());
+        assertEquals("NOT_FOUND", perform(get("/api/v1/stats/projects/{projectId}/files/summary", "missing"), status().isNotFound())
+                .at("/error/code").asText());
+    }
+
+    // У режимі packed рядків *_daily_stats немає, тож lastActiveDate береться з декодованих рядів
+    @Test
+    void summaries_PackedStorageReportsLastActiveDate() throws Exception {
+        statsProperties.getStorage().setMode(StatsProperties.StorageMode.PACKED);
+        Map<String, LocalDate> expected = createProjects(3);
+        assertEquals(expected, collectProjects("/api/v1/stats/projects/summary", 2, List.of(2, 1)));
+
+        Map<String, LocalDate> files = collectFiles(createProject("/summary/packed", 3), List.of(2, 1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(DAY.plusDays(i), files.get("/summary/packed/File" + i + ".java"));
+        }
+    }
+
+    // Проходить сторінки за курсором; pageSizes — очікувана кількість елементів на кожній сторінці
+    private Map<String, LocalDate> collectProjects(String url, int size, List<Integer> pageSizes) throws Exception {
+        Map<String, LocalDate> result = new TreeMap<>();
+        String cursor = null;
+        String previous = "";
+        for (int i = 0; i < pageSizes.size(); i++) {
+            MockHttpServletRequestBuilder request = get(url).param("size", String.valueOf(size));
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            JsonNode page = perform(request, status().isOk()).get("data");
+            assertEquals(pageSizes.get(i), page.get("items").size());
+            for (JsonNode item : page.get("items")) {
+                String projectId = item.get("projectId").asText();
+                assertTrue(projectId.compareTo(previous) > 0, "items are not ordered by cursor");
+                previous = projectId;
+                result.put(projectId, LocalDate.parse(item.get("lastActiveDate").asText()));
+            }
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            assertEquals(i == pageSizes.size() - 1, cursor == null, "unexpected nextCursor on page " + i);
+        }
+        return result;
+    }
+
+    private Map<String, LocalDate> collectFiles(String projectId, List<Integer> pageSizes) throws Exception {
+        Map<String, LocalDate> result = new HashMap<>();
+        String cursor = null;
+        for (int i = 0; i < pageSizes.size(); i++) {
+            MockHttpServletRequestBuilder request = get("/api/v1/stats/projects/{projectId}/files/summary", projectId)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            JsonNode page = perform(request, status().isOk()).get("data");
+            assertEquals(pageSizes.get(i), page.get("items").size());
+            for (JsonNode item : page.get("items")) {
+                result.put(item.get("filePath").asText(), LocalDate.parse(item.get("lastActiveDate").asText()));
+            }
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            assertEquals(i == pageSizes.size() - 1, cursor == null, "unexpected nextCursor on page " + i);
+        }
+        return result;
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        String body = mockMvc.perform(request.with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .jwt(token -> token.subject(userId).claim("email", "summary@example.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_client_user"))))
+                .andExpect(expected)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    // projectId -> очікувана lastActiveDate
+    private Map<String, LocalDate> createProjects(int count) {
+        Map<String, LocalDate> projects = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            projects.put(createProject("/summary/project-" + i, i + 1), DAY.plusDays(i));
+        }
+        return projects;
+    }
+
+    private String createProject(String projectPath, int fileCount) {
+        return createProject(userId, projectPath, fileCount);
+    }
+
+    // Файл i має активність від DAY до DAY + i, тож остання дата проєкту — DAY + fileCount - 1
+    private String createProject(String ownerId, String projectPath, int fileCount) {
+        Jwt owner = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(ownerId)
+                .claim("email", "summary@example.com")
+                .build();
+        List<FileStats> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            FileStats file = new FileStats();
+            file.setFilePath(projectPath + "/File" + i + ".java");
+            file.setType("JAVA");
+            Map<LocalDate, DailyStats> dailyStats = new HashMap<>();
+            dailyStats.put(DAY, new DailyStats(10L, 10L));
+            dailyStats.put(DAY.plusDays(i), new DailyStats(20L, 20L));
+            file.setDailyStats(dailyStats);
+            files.add(file);
+        }
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(files);
+        return projectStatsService.createProject(project, owner).getData().getProjectId();
+    }
+}
@@ -0,0 +1,131 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TopFilesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 9, 2);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @Test
+    void topFiles_RankWithinWindowAcrossProjects() throws Exception {
+        String api = createProject(userId, "/top/api", List.of(
+                file("/top/api/Service.java", "JAVA", Map.of(DAY, new DailyStats(50L, 60L), DAY.minusDays(10), new DailyStats(500L, 500L))),
+                file("/top/api/README.md", "MARKDOWN", Map.of(DAY, new DailyStats(70L, 80L))),
+                file("/top/api/Old.java", "JAVA", Map.of(DAY.minusDays(10), new DailyStats(300L, 300L)))));
+        createProject(userId, "/top/web", List.of(
+                file("/top/web/app.ts", "TYPESCRIPT", Map.of(DAY, new DailyStats(40L, 45L), DAY.plusDays(1), new DailyStats(20L, 20L))),
+                file("/top/web/Dto.java", "JAVA", Map.of(DAY.plusDays(2), new DailyStats(5L, 5L)))));
+        createProject(UUID.randomUUID().toString(), "/top/foreign", List.of(
+                file("/top/foreign/Big.java", "JAVA", Map.of(DAY, new DailyStats(9000L, 9000L)))));
+
+        // Тиждень навколо DAY: день за 10 днів до нього не рахується, чужий проєкт не потрапляє
+        JsonNode week = top(request(DAY.minusDays(1), DAY.plusDays(5)).param("limit", "3"), status().isOk());
+        assertEquals(List.of("/top/api/README.md:70:80", "/top/web/app.ts:60:65", "/top/api/Service.java:50:60"), ranking(week));
+
+        assertEquals(List.of("/top/api/Service.java:50:60", "/top/web/Dto.java:5:5"),
+                ranking(top(request(DAY.minusDays(1), DAY.plusDays(5)).param("type", "JAVA"), status().isOk())));
+        assertEquals(List.of("/top/api/README.md:70:80", "/top/api/Service.java:50:60"),
+                ranking(top(request(DAY, DAY).param("projectId", api), status().isOk())));
+
+        // Без вікна рейтинг будується за тоталами файлів
+        assertEquals(List.of("/top/api/Service.java:550:560", "/top/api/Old.java:300:300"),
+                ranking(top(get("/api/v1/stats/files/top").param("limit", "2"), status().isOk())));
+    }
+
+    @Test
+    void topFiles_ValidatesLimitAndProjectAccess() throws Exception {
+        String foreign = createProject(UUID.randomUUID().toString(), "/top/other", List.of(
+                file("/top/other/Main.java", "JAVA", Map.of(DAY, new DailyStats(1L, 1L)))));
+
+        assertEquals("VALIDATION_ERROR", top(get("/api/v1/stats/files/top").param("limit", "0"), status().isBadRequest())
+                .at("/error/code").asText());
+        assertEquals("VALIDATION_ERROR", top(get("/api/v1/stats/files/top").param("limit", "101"), status().isBadRequest())
+                .at("/error/code").asText());
+        assertEquals("UNAUTHORIZED", top(get("/api/v1/stats/files/top").param("projectId", foreign), status().isForbidden())
+                .at("/error/code").asText());
+        assertEquals("NOT_FOUND", top(get("/api/v1/stats/files/top").param("projectId", "missing"), status().isNotFound())
+                .at("/error/code").asText());
+    }
+
+    private MockHttpServletRequestBuilder request(LocalDate from, LocalDate to) {
+        return get("/api/v1/stats/files/top").param("from", from.toString()).param("to", to.toString());
+    }
+
+    private List<String> ranking(JsonNode response) {
+        List<String> result = new ArrayList<>();
+        for (JsonNode file : response.get("data")) {
+            result.add(file.get("filePath").asText() + ":" + file.get("codingTime").asLong() + ":" + file.get("openTime").asLong());
+        }
+        return result;
+    }
+
+    private JsonNode top(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        String body = mockMvc.perform(request.with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .jwt(token -> token.subject(userId).claim("email", "top@example.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_client_user"))))
+                .andExpect(expected)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private FileStats file(String filePath, String type, Map<LocalDate, DailyStats> dailyStats) {
+        FileStats file = new FileStats();
+        file.setFilePath(filePath);
+        file.setType(type);
+        file.setDailyStats(new HashMap<>(dailyStats));
+        return file;
+    }
+
+    private String createProject(String ownerId, String projectPath, List<FileStats> files) {
+        Jwt owner = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(ownerId)
+                .claim("email", "top@example.com")
+                .build();
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(new ArrayList<>(files));
+        return projectStatsService.createProject(project, owner).getData().getProjectId();
+    }
+}
@@ -0,0 +1,196 @@
+package com.dengas.devtimetracker;
+
+import com.dengas.devtimetracker.dto.DateRange;
+import com.dengas.devtimetracker.dto.Heartbeat;
+import com.dengas.devtimetracker.dto.HeartbeatRequest;
+import com.dengas.devtimetracker.dto.RollupVerificationResult;
+import com.dengas.devtimetracker.model.DailyStats;
+import com.dengas.devtimetracker.model.FileStats;
+import com.dengas.devtimetracker.model.ProjectStats;
+import com.dengas.devtimetracker.repositories.UserDailyRollupRepository;
+import com.dengas.devtimetracker.services.ProjectStatsService;
+import com.dengas.devtimetracker.services.implement.UserRollupVerifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Індекс вимкнений за замовчуванням, тож дашборд з межами дат читає суми з user_daily_rollup
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserDailyRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectStatsService projectStatsService;
+
+    @Autowired
+    private UserDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private UserRollupVerifier rollupVerifier;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(userId)
+            .claim("email", "rollup@example.com")
+            .build();
+
+    @Test
+    void rollup_FollowsEveryWritePath() throws Exception {
+        String projectA = createProject("/rollup/a", Map.of(
+                "/rollup/a/App.java", Map.of(DAY, new DailyStats(10L, 20L), DAY.minusDays(1), new DailyStats(5L, 5L)),
+                "/rollup/a/Util.java", Map.of(DAY, new DailyStats(1L, 1L))));
+        String projectB = createProject("/rollup/b", Map.of(
+                "/rollup/b/main.py", Map.of(DAY, new DailyStats(100L, 100L))));
+
+        HeartbeatRequest heartbeats = new HeartbeatRequest();
+        heartbeats.setHeartbeats(List.of(
+                new Heartbeat("/rollup/a/App.java", null, DAY.plusDays(1), 7L, 7L),
+                new Heartbeat("/rollup/a/New.java", "JAVA", DAY, 2L, 2L)));
+        assertTrue(projectStatsService.recordHeartbeats(projectA, heartbeats, jwt).isSuccess());
+
+        Map<LocalDate, long[]> rollup = rollup();
+        assertDay(rollup, DAY.minusDays(1), 5, 5, 1, 1);
+        assertDay(rollup, DAY, 113, 123, 2, 4);
+        assertDay(rollup, DAY.plusDays(1), 7, 7, 1, 1);
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+
+        mockMvc.perform(patch("/api/v1/stats/projects/{projectId}", projectB).with(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"files\": [{\"filePath\": \"/rollup/b/util.py\", \"type\": \"PYTHON\", " +
+                                "\"dailyStats\": {\"2024-03-12\": {\"codingTime\": 40, \"openTime\": 50}}}]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/stats/import").with(user())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(String.join("\n",
+                                "{\"projectPath\":\"/rollup/a\",\"filePath\":\"/rollup/a/App.java\",\"type\":\"JAVA\",\"dailyStats\":{\"2024-03-10\":{\"codingTime\":30,\"openTime\":40}}}",
+                                "{\"projectPath\":\"/rollup/c\",\"filePath\":\"/rollup/c/c.go\",\"type\":\"GO\",\"dailyStats\":{\"2024-03-08\":{\"codingTime\":3,\"openTime\":4}}}")))
+                .andExpect(status().isOk());
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+
+        mockMvc.perform(delete("/api/v1/stats/projects/{projectId}", projectB).with(user()))
+                .andExpect(status().isOk());
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+        assertFalse(rollup().containsKey(DAY.plusDays(2)));
+
+        // Усі дані в межах діапазону, тож суми з rollup-таблиці збігаються з підсумками проєктів
+        Map<String, Object> bounded = projectStatsService.getDashboardStats(
+                DateRange.of(DAY.minusDays(30), DAY.plusDays(30)), jwt).getData();
+        Map<String, Object> unbounded = projectStatsService.getDashboardStats(DateRange.unbounded(), jwt).getData();
+        assertEquals(unbounded.get("totalCodingTime"), bounded.get("totalCodingTime"));
+        assertEquals(unbounded.get("totalOpenTime"), bounded.get("totalOpenTime"));
+        assertEquals(2L, bounded.get("totalProjects"));
+        assertEquals(1L, projectStatsService.getDashboardStats(DateRange.of(DAY.minusDays(2), DAY.minusDays(2)), jwt)
+                .getData().get("totalProjects"));
+    }
+
+    @Test
+    void verify_ReportsAndRepairsDrift() throws Exception {
+        createProject("/rollup/drift", Map.of(
+                "/rollup/drift/App.java", Map.of(DAY, new DailyStats(10L, 20L), DAY.plusDays(1), new DailyStats(1L, 1L))));
+
+        jdbcTemplate.update("update user_daily_rollup set coding_time = coding_time + 5 where user_id = ? and date = ?",
+                userId, Date.valueOf(DAY));
+        jdbcTemplate.update("delete from user_daily_rollup where user_id = ? and date = ?", userId, Date.valueOf(DAY.plusDays(1)));
+        jdbcTemplate.update("delete from user_project_day where user_id = ? and date = ?", userId, Date.valueOf(DAY));
+        DateRange day = DateRange.of(DAY, DAY);
+        assertEquals(0L, projectStatsService.getDashboardStats(day, jwt).getData().get("totalProjects"));
+
+        RollupVerificationResult report = rollupVerifier.verify(userId, false);
+        assertEquals(1, report.getUsersDrifted());
+        assertEquals(3, report.getDaysDrifted());
+        assertEquals(3, rollupVerifier.verify(userId, true).getDaysDrifted());
+        assertEquals(0, rollupVerifier.verify(userId, false).getDaysDrifted());
+        assertDay(rollup(), DAY, 10, 20, 1, 1);
+        assertDay(rollup(), DAY.plusDays(1), 1, 1, 1, 1);
+        assertEquals(1L, projectStatsService.getDashboardStats(day, jwt).getData().get("totalProjects"));
+
+        mockMvc.perform(post("/api/v1/stats/admin/rollup/verify").param("userId", userId).with(user()))
+                .andExpect(status().isForbidden());
+        String body = mockMvc.perform(post("/api/v1/stats/admin/rollup/verify").param("userId", userId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .jwt(token -> token.subject(UUID.randomUUID().toString())
+                                        .claim("resource_access", Map.of("devTimeTracker-rest-api", Map.of("roles", List.of("client_admin")))))
+                                .authorities(new SimpleGrantedAuthority("ROLE_client_user"), new SimpleGrantedAuthority("ROLE_client_admin"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode data = objectMapper.readTree(body).get("data");
+        assertEquals(1, data.get("usersChecked").asInt());
+        assertEquals(0, data.get("daysDrifted").asInt());
+    }
+
+    private Map<LocalDate, long[]> rollup() {
+        return rollupRepository.findByUserId(userId).stream().collect(Collectors.toMap(
+                day -> day.getId().getDate(),
+                day -> new long[]{day.getCodingTime(), day.getOpenTime(), day.getProjectCount(), day.getFileCount()}));
+    }
+
+    private void assertDay(Map<LocalDate, long[]> rollup, LocalDate date, long codingTime, long openTime, long projects, long files) {
+        long[] values = rollup.get(date);
+        assertTrue(values != null, "no rollup row for " + date);
+        assertEquals(List.of(codingTime, openTime, projects, files), List.of(values[0], values[1], values[2], values[3]));
+    }
+
+    private String createProject(String projectPath, Map<String, Map<LocalDate, DailyStats>> filesByPath) {
+        List<FileStats> files = new ArrayList<>();
+        filesByPath.forEach((filePath, dailyStats) -> {
+            FileStats file = new FileStats();
+            file.setFilePath(filePath);
+            file.setType("JAVA");
+            file.setDailyStats(new HashMap<>(dailyStats));
+            files.add(file);
+        });
+
+        ProjectStats project = new ProjectStats();
+        project.setProjectPath(projectPath);
+        project.setFiles(files);
+        return projectStatsService.createProject(project, jwt).getData().getProjectId();
+    }
+
+    private RequestPostProcessor user() {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .jwt(token -> token.subject(userId).claim("email", "rollup@example.com"))
+                .authorities(new SimpleGrantedAuthority("ROLE_client_user"));
+    }
+}